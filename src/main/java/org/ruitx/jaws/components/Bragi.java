@@ -11,6 +11,7 @@ import org.ruitx.jaws.strings.RequestType;
 import org.ruitx.jaws.strings.ResponseCode;
 import org.ruitx.jaws.types.APIResponse;
 import org.ruitx.jaws.utils.JawsLogger;
+import org.ruitx.jaws.utils.StaticFileCache;
 
 import java.io.IOException;
 import java.net.URI;
@@ -24,6 +25,7 @@ import java.util.Map;
 
 import static org.ruitx.jaws.configs.ApplicationConfig.WWW_PATH;
 import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_TYPE;
+import static org.ruitx.jaws.strings.HttpHeaders.RETRY_AFTER;
 
 /**
  * Base controller class for all controllers.
@@ -142,6 +144,17 @@ public abstract class Bragi {
         sendJSONResponse(false, responseCode, message, null);
     }
 
+    /**
+     * Send a 503 error response telling the client when to try again
+     *
+     * @param message           Error message
+     * @param retryAfterSeconds Value of the Retry-After header
+     */
+    protected void sendServiceUnavailableResponse(String message, long retryAfterSeconds) {
+        addCustomHeader(RETRY_AFTER.getHeaderName(), String.valueOf(retryAfterSeconds));
+        sendJSONResponse(false, ResponseCode.SERVICE_UNAVAILABLE, message, null);
+    }
+
     /**
      * Send a JSON error response with data
      *
@@ -203,6 +216,31 @@ public abstract class Bragi {
         }
     }
 
+    /**
+     * Send a page assembled from a base template and a partial, rendered straight into the
+     * response (no intermediate String as with sendHTMLResponse(code, assemblePage(...))).
+     *
+     * @param code                the response code
+     * @param baseTemplatePath    the path to the base template file
+     * @param partialTemplatePath the path to the partial template file
+     */
+    protected void sendHTMLPage(ResponseCode code, String baseTemplatePath, String partialTemplatePath) {
+        try {
+            Yggdrasill.RequestContext context = requestContext.get();
+            if (context != null) {
+                context.sendHTMLPage(code, baseTemplatePath, partialTemplatePath);
+            } else {
+                throw new IllegalStateException("No request context available");
+            }
+        } catch (Exception e) {
+            JawsLogger.error("Failed to send HTML page: {}", e.getMessage());
+            throw new SendRespondException("Failed to send HTML page", e);
+        } finally {
+            // Clean up template variables
+            Hermod.clearTemplateVariables();
+        }
+    }
+
     protected void sendHTMLResponse(String code, String content) {
         try {
             ResponseCode responseCode = ResponseCode.valueOf(code);
@@ -416,6 +454,27 @@ public abstract class Bragi {
         }
     }
 
+    /**
+     * Send a file from disk to the client, with validators and byte range support.
+     * The content is streamed from the file, it is never loaded into memory.
+     *
+     * @param file        the file to send
+     * @param contentType the content type of the file
+     */
+    protected void sendFile(Path file, String contentType) {
+        try {
+            Yggdrasill.RequestContext context = requestContext.get();
+            if (context != null) {
+                context.sendFile(StaticFileCache.StaticFile.of(file, contentType, null));
+            } else {
+                throw new IllegalStateException("No request context available");
+            }
+        } catch (IOException e) {
+            JawsLogger.error("Failed to send file {}: {}", file, e.getMessage());
+            throw new SendRespondException("Failed to send file", e);
+        }
+    }
+
     /**
      * Call an API endpoint and parse the response.
      *
@@ -5,6 +5,8 @@ import org.ruitx.jaws.utils.JawsLogger;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.nio.file.StandardWatchEventKinds.*;
@@ -13,14 +15,22 @@ public class Heimdall implements Runnable {
     private final Path path;
     private final List<String> ignoredExtensions = List.of(".temp", "~");
     private final List<String> ignoredDirectories = List.of(".");
+    private final List<Consumer<Path>> listeners = new CopyOnWriteArrayList<>();
 
     public Heimdall(Path path) {
         this.path = path;
     }
 
     /**
-     * Watches for changes in the www path.
-     * Right now, it only watches for changes and does nothing with them.
+     * Adds a listener called with every changed file or directory.
+     * When too many changes happened to be reported one by one, it is called with the watched path.
+     */
+    public void addListener(Consumer<Path> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Watches for changes in the www path and reports them to the listeners.
      */
     @Override
     public void run() {
@@ -33,13 +43,19 @@ public class Heimdall implements Runnable {
             WatchKey key;
             while ((key = watchService.take()) != null) {
                 for (WatchEvent<?> event : key.pollEvents()) {
-                    Path changed = path.resolve((Path) event.context());
+                    if (event.kind() == OVERFLOW) {
+                        JawsLogger.warn("Heimdall missed some file changes, reporting the whole path");
+                        notifyListeners(path);
+                        continue;
+                    }
+                    Path changed = ((Path) key.watchable()).resolve((Path) event.context());
 
                     if (isIgnored(changed)) {
                         JawsLogger.info("Heimdall ignored file: " + changed);
                         continue;
                     }
                     JawsLogger.info("Heimdall detected a file change: " + changed);
+                    notifyListeners(changed);
 
                     // If the event indicates a directory was created, register it for watching
                     if (event.kind() == ENTRY_CREATE) {
@@ -53,6 +69,16 @@ public class Heimdall implements Runnable {
         }
     }
 
+    private void notifyListeners(Path changed) {
+        for (Consumer<Path> listener : listeners) {
+            try {
+                listener.accept(changed);
+            } catch (Exception e) {
+                JawsLogger.error("Heimdall listener failed for " + changed + ": " + e.getMessage());
+            }
+        }
+    }
+
     private boolean isIgnored(Path path) {
         String fileName = path.getFileName().toString();
         boolean isFileIgnoredByExtension = ignoredExtensions.stream().anyMatch(fileName::endsWith);
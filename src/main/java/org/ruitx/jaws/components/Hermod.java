@@ -2,23 +2,46 @@ package org.ruitx.jaws.components;
 
 import org.ruitx.jaws.utils.ThymeleafUtils;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
 import org.thymeleaf.context.WebContext;
 import org.thymeleaf.templateresolver.FileTemplateResolver;
 import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.web.servlet.JakartaServletWebApplication;
 import org.ruitx.jaws.utils.JawsLogger;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.ruitx.jaws.configs.ApplicationConfig.WWW_PATH;
 import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_DEVELOPMENT_MODE;
 import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_TEMPLATE_CACHE_TTL;
+import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_WARMUP;
+import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_WARMUP_PAGES;
+import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_WARMUP_RENDERS;
 
 /**
  * Hermod is a utility class that handles template processing and page assembly using Thymeleaf.
@@ -28,6 +51,7 @@ import static org.ruitx.jaws.configs.ApplicationConfig.HERMOD_TEMPLATE_CACHE_TTL
 public final class Hermod {
 
     private static final String DEFAULT_BODY_PATH = "_body.html";
+    private static final int RENDER_BUFFER_SIZE = 8192;
     private static final ThreadLocal<String> BODY_PATH = ThreadLocal.withInitial(() -> DEFAULT_BODY_PATH);
 
     // Global template variables that persist across requests
@@ -40,6 +64,16 @@ public final class Hermod {
     // Utility objects for templates
     private static final ThymeleafUtils utils = new ThymeleafUtils();
 
+    // Thymeleaf's view of the servlet context, built once instead of on every render
+    private static volatile WebApplication webApplication;
+
+    private record WebApplication(ServletContext servletContext, JakartaServletWebApplication application) {
+    }
+
+    // Warm-up state, the server is only reported ready once the templates are in the cache
+    private static volatile boolean ready = false;
+    private static final Map<String, Object> warmupStatistics = new ConcurrentHashMap<>();
+
     private Hermod() {
     }
 
@@ -196,6 +230,38 @@ public final class Hermod {
         return template;
     }
 
+    /**
+     * Process a template string with parameters using Thymeleaf, writing the result straight to a writer
+     * (usually the response's) instead of building the whole page in a String.
+     *
+     * @param template    The template path or content to process
+     * @param queryParams The query parameters map
+     * @param bodyParams  The body parameters map
+     * @param request     The HTTP servlet request
+     * @param response    The HTTP servlet response
+     * @param writer      The writer the result goes to
+     * @throws IOException if there's an error writing the result
+     */
+    public static void processTemplate(String template, Map<String, String> queryParams, Map<String, String> bodyParams, HttpServletRequest request, HttpServletResponse response, Writer writer) throws IOException {
+        if (template.contains("<") || template.contains(">")) {
+            JawsLogger.trace("Received template content. Template: {}", template);
+            writer.write(template);
+            return;
+        }
+
+        try {
+            WebContext context = createThymeleafWebContext(
+                queryParams != null ? queryParams : new LinkedHashMap<>(),
+                bodyParams != null ? bodyParams : new LinkedHashMap<>(),
+                request, response);
+            render(template, context, writer);
+        } catch (Exception e) {
+            // Part of the page may already be out, the error follows it
+            JawsLogger.error("Error processing Thymeleaf template '{}': {}", template, e.getMessage());
+            writer.write("Error processing template: " + template);
+        }
+    }
+
     /**
      * Process a template using Thymeleaf engine.
      */
@@ -217,11 +283,8 @@ public final class Hermod {
      * Create a Thymeleaf web context with all available variables.
      */
     private static WebContext createThymeleafWebContext(Map<String, String> queryParams, Map<String, String> bodyParams, HttpServletRequest request, HttpServletResponse response) {
-        // Create the web application instance
-        JakartaServletWebApplication application = JakartaServletWebApplication.buildApplication(request.getServletContext());
-        
         // Create web context with proper servlet request/response
-        WebContext context = new WebContext(application.buildExchange(request, response));
+        WebContext context = new WebContext(webApplication(request.getServletContext()).buildExchange(request, response));
         
         // Add template variables
         context.setVariables(TEMPLATE_VARIABLES.get());
@@ -244,6 +307,258 @@ public final class Hermod {
         return context;
     }
 
+    /**
+     * Render a template into a writer through a buffer: Thymeleaf writes a page in many small
+     * pieces, each of them would go through the response's encoder on its own.
+     */
+    private static void render(String template, WebContext context, Writer writer) throws IOException {
+        BufferedWriter buffered = new BufferedWriter(writer, RENDER_BUFFER_SIZE);
+        templateEngine.process(template, context, buffered);
+        buffered.flush();
+    }
+
+    /**
+     * Warm the template cache up before the first requests: every template under the www path is
+     * parsed into the cache, then the hot pages (hermod.warmup.pages) are rendered against a
+     * synthetic request, hermod.warmup.renders times each, so their fragments are cached and their
+     * code paths compiled. Both steps are spread over one thread per core.
+     * Hermod reports ready (see isReady) once it is done, right away when the warm-up is off or
+     * templates aren't cached (development mode).
+     *
+     * @param servletContext the servlet context the synthetic requests belong to
+     */
+    public static void warmUp(ServletContext servletContext) {
+        if (!HERMOD_WARMUP || HERMOD_DEVELOPMENT_MODE) {
+            ready = true;
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        AtomicInteger failed = new AtomicInteger(0);
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "hermod-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<String> templates = listTemplates();
+            List<Callable<Void>> parses = new ArrayList<>();
+            for (String template : templates) {
+                parses.add(() -> {
+                    if (!parseTemplate(template)) {
+                        failed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            runAll(executor, parses);
+            long parsed = System.currentTimeMillis() - start;
+
+            List<Callable<Void>> renders = new ArrayList<>();
+            List<String> pages = parsePages(HERMOD_WARMUP_PAGES);
+            for (String page : pages) {
+                int separator = page.indexOf('>');
+                String template = separator >= 0 ? page.substring(0, separator).trim() : page;
+                String partial = separator >= 0 ? page.substring(separator + 1).trim() : null;
+                renders.add(() -> {
+                    for (int i = 0; i < HERMOD_WARMUP_RENDERS; i++) {
+                        if (!warmUpRender(template, partial, servletContext)) {
+                            failed.incrementAndGet();
+                            break;
+                        }
+                    }
+                    return null;
+                });
+            }
+            runAll(executor, renders);
+
+            warmupStatistics.put("templates", templates.size());
+            warmupStatistics.put("cachedTemplates", templateEngine.getCacheManager().getTemplateCache().keySet().size());
+            warmupStatistics.put("hotPages", pages.size());
+            warmupStatistics.put("failures", failed.get());
+            warmupStatistics.put("parseMs", parsed);
+            warmupStatistics.put("warmupMs", System.currentTimeMillis() - start);
+            JawsLogger.info("Hermod warmed up {} templates and {} hot pages in {}ms on {} threads",
+                templates.size(), pages.size(), System.currentTimeMillis() - start, threads);
+        } catch (Exception e) {
+            JawsLogger.error("Hermod warm-up failed: {}", e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+            ready = true;
+        }
+    }
+
+    /**
+     * Check whether the warm-up is done (see warmUp)
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    public static Map<String, Object> getWarmupStatistics() {
+        Map<String, Object> stats = new HashMap<>(warmupStatistics);
+        stats.put("ready", ready);
+        return stats;
+    }
+
+    /**
+     * Parse a template into the cache without rendering it
+     * A throttled processor parses (and caches) its template when it is created and only
+     * processes it when asked for output, which never happens here: pages that need the
+     * variables of a real request are cached without failing.
+     *
+     * @return false if the template couldn't be parsed
+     */
+    private static boolean parseTemplate(String template) {
+        try {
+            templateEngine.processThrottled(template, new Context());
+            return true;
+        } catch (Exception e) {
+            JawsLogger.debug("Hermod warm-up parse of {} failed: {}", template, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Render a base template with a partial (or a page on its own) into nothing
+     *
+     * @return false if the render failed
+     */
+    private static boolean warmUpRender(String template, String partial, ServletContext servletContext) {
+        try {
+            HttpServletRequest request = syntheticRequest(servletContext, template);
+            HttpServletResponse response = syntheticResponse();
+            WebContext context = createThymeleafWebContext(new HashMap<>(), new HashMap<>(), request, response);
+            if (partial != null) {
+                context.setVariable("bodyContent", partial);
+            }
+            templateEngine.process(template, context, Writer.nullWriter());
+            return true;
+        } catch (Exception e) {
+            JawsLogger.debug("Hermod warm-up render of {} failed: {}", template, e.getMessage());
+            return false;
+        } finally {
+            clearTemplateVariables();
+        }
+    }
+
+    /**
+     * List the HTML templates under the www path, relative to it (the names requests use)
+     */
+    private static List<String> listTemplates() throws IOException {
+        Path root = Paths.get(WWW_PATH).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.endsWith(".html") || name.endsWith(".htm");
+                })
+                .map(path -> root.relativize(path).toString().replace(File.separatorChar, '/'))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static List<String> parsePages(String config) {
+        List<String> pages = new ArrayList<>();
+        if (config == null || config.isBlank()) {
+            return pages;
+        }
+        for (String page : config.split(",")) {
+            if (!page.isBlank()) {
+                pages.add(page.trim());
+            }
+        }
+        return pages;
+    }
+
+    private static void runAll(ExecutorService executor, List<Callable<Void>> tasks) throws InterruptedException {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                JawsLogger.debug("Hermod warm-up task failed: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * A GET request for a template with no parameters, headers or session, keeping its
+     * attributes (Thymeleaf stores the template variables there)
+     */
+    private static HttpServletRequest syntheticRequest(ServletContext servletContext, String template) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (HttpServletRequest) Proxy.newProxyInstance(
+            Hermod.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getServletContext" -> servletContext;
+                    case "getAttribute" -> attributes.get((String) args[0]);
+                    case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                    case "removeAttribute" -> attributes.remove((String) args[0]);
+                    case "getAttributeNames" -> Collections.enumeration(new ArrayList<>(attributes.keySet()));
+                    case "getMethod" -> "GET";
+                    case "getContextPath", "getServletPath" -> "";
+                    case "getRequestURI" -> "/" + template;
+                    case "getRequestURL" -> new StringBuffer("/" + template);
+                    case "getScheme" -> "http";
+                    case "getLocale" -> Locale.getDefault();
+                    case "getLocales" -> Collections.enumeration(List.of(Locale.getDefault()));
+                    case "getParameterMap" -> Map.of();
+                    case "getParameterNames", "getHeaderNames", "getHeaders" -> Collections.emptyEnumeration();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticRequest[/" + template + "]";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * A response that leaves URLs as they are and ignores everything else
+     */
+    private static HttpServletResponse syntheticResponse() {
+        return (HttpServletResponse) Proxy.newProxyInstance(
+            Hermod.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "encodeURL", "encodeRedirectURL" -> args[0];
+                    case "getCharacterEncoding" -> "UTF-8";
+                    case "getLocale" -> Locale.getDefault();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticResponse";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    /**
+     * Get the web application for a servlet context, building it on first use (or when the server restarted)
+     */
+    private static JakartaServletWebApplication webApplication(ServletContext servletContext) {
+        WebApplication current = webApplication;
+        if (current != null && current.servletContext() == servletContext) {
+            return current.application();
+        }
+        JakartaServletWebApplication application = JakartaServletWebApplication.buildApplication(servletContext);
+        webApplication = new WebApplication(servletContext, application);
+        return application;
+    }
+
     /**
      * Assemble a full page by combining a base template with a partial template using Thymeleaf.
      *
@@ -266,6 +581,29 @@ public final class Hermod {
         }
     }
 
+    /**
+     * Assemble a full page by combining a base template with a partial template, writing it
+     * straight to a writer (usually the response's).
+     *
+     * @param baseTemplatePath    the path to the base template file
+     * @param partialTemplatePath the path to the partial template file
+     * @param request            The HTTP servlet request
+     * @param response           The HTTP servlet response
+     * @param writer             The writer the page goes to
+     * @throws IOException if there's an error processing the templates or writing the page
+     */
+    public static void assemblePage(String baseTemplatePath, String partialTemplatePath, HttpServletRequest request, HttpServletResponse response, Writer writer) throws IOException {
+        try {
+            WebContext context = createThymeleafWebContext(new HashMap<>(), new HashMap<>(), request, response);
+            context.setVariable("bodyContent", partialTemplatePath);
+
+            render(baseTemplatePath, context, writer);
+        } catch (Exception e) {
+            JawsLogger.error("Error assembling page: " + e.getMessage(), e);
+            throw new IOException("Failed to assemble page", e);
+        }
+    }
+
     /**
      * Assemble a full page by combining a base template with raw content using Thymeleaf.
      *
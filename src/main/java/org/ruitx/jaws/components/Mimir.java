@@ -22,6 +22,8 @@ import static org.ruitx.jaws.configs.ApplicationConfig.DATABASE_PATH;
 import static org.ruitx.jaws.configs.ApplicationConfig.DATABASE_SCHEMA_PATH;
 
 public class Mimir {
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
     // Instance variables instead of static - each Mimir has its own database connection
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
@@ -76,6 +78,8 @@ public class Mimir {
         if (!initialized.get()) {
             SQLiteDataSource ds = new SQLiteDataSource();
             ds.setUrl("jdbc:sqlite:" + db.getAbsolutePath());
+            // Wait for the write lock instead of failing when other processes share the db file
+            ds.setBusyTimeout(BUSY_TIMEOUT_MS);
             dataSource = ds;
             initialized.set(true);
         }
@@ -311,6 +315,29 @@ public class Mimir {
         return executeQuery(sql, this::list, params);
     }
 
+    /**
+     * Check if a table exists.
+     *
+     * @param table Table name
+     * @return true if the table exists
+     */
+    public boolean hasTable(String table) {
+        return getRow("SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?", table) != null;
+    }
+
+    /**
+     * Check if a table has a column.
+     * Useful to upgrade tables created by an older schema, which is only loaded into empty databases.
+     *
+     * @param table  Table name
+     * @param column Column name
+     * @return true if the column exists
+     */
+    public boolean hasColumn(String table, String column) {
+        return getRows("PRAGMA table_info(" + table + ")").stream()
+            .anyMatch(row -> column.equalsIgnoreCase(row.getString("name").orElse("")));
+    }
+
     /**
      * Execute a SQL statement with parameters (like INSERT, UPDATE, DELETE).
      *
@@ -367,6 +394,51 @@ public class Mimir {
         }
     }
 
+    /**
+     * Execute the same SQL statement once per parameter set as a single JDBC batch.
+     * Run it inside a transaction to make the whole batch atomic.
+     *
+     * @param sql         SQL statement string
+     * @param batchParams Parameters for each execution of the prepared statement
+     * @return The number of affected rows for each parameter set
+     */
+    public int[] executeBatch(String sql, List<Object[]> batchParams) {
+        if (batchParams.isEmpty()) {
+            return new int[0];
+        }
+
+        Connection conn = null;
+        boolean isTransactionConnection = false;
+
+        try {
+            conn = getConnection();
+            // Check if this is a transaction-managed connection
+            isTransactionConnection = (transactionConnection.get() == conn);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Object[] params : batchParams) {
+                    for (int i = 0; i < params.length; i++) {
+                        stmt.setObject(i + 1, params[i]);
+                    }
+                    stmt.addBatch();
+                }
+                return stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            Logger.error("Error executing batch update: {}\nSQL: {}\nBatch size: {}", e.getMessage(), sql, batchParams.size());
+            throw new RuntimeException("Database batch update failed", e);
+        } finally {
+            // Only close if not a transaction connection
+            if (conn != null && !isTransactionConnection) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    Logger.error("Error closing connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     /**
      * Execute a SQL statement that doesn't return data (like UPDATE, DELETE, etc.).
      *
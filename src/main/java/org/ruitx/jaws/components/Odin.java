@@ -9,6 +9,7 @@ import org.ruitx.www.service.AuthService;
 import org.ruitx.www.service.ImageService;
 import org.ruitx.www.service.PasteService;
 import org.ruitx.jaws.utils.JawsLogger;
+import org.ruitx.jaws.utils.StaticFileCache;
 
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -104,7 +105,9 @@ public final class Odin {
     // Heimdall is a file watcher that watches for changes in the www path
     private static Thread createHeimdall() {
         return new Thread(() -> {
-            new Heimdall(Paths.get(ApplicationConfig.WWW_PATH)).run();
+            Heimdall heimdall = new Heimdall(Paths.get(ApplicationConfig.WWW_PATH));
+            heimdall.addListener(StaticFileCache.getInstance()::invalidate);
+            heimdall.run();
         });
     }
 
@@ -129,6 +132,18 @@ public final class Odin {
                 1,
                 TimeUnit.HOURS
         );
+        norns.registerTask(
+                "drop-old-log-partitions",
+                () -> JawsLogger.applyRetention(),
+                1,
+                TimeUnit.HOURS
+        );
+        norns.registerTask(
+                "archive-cold-log-partitions",
+                () -> JawsLogger.archiveColdPartitions(),
+                1,
+                TimeUnit.HOURS
+        );
         return new Thread(norns, "norns");
     }
 
@@ -3,11 +3,14 @@ package org.ruitx.jaws.components;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.Part;
+import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.DefaultServlet;
@@ -24,20 +27,40 @@ import org.ruitx.jaws.strings.ResponseType;
 import org.ruitx.jaws.types.APIResponse;
 import org.ruitx.jaws.utils.JawsValidation;
 import org.ruitx.jaws.utils.JawsLogger;
+import org.ruitx.jaws.utils.StaticFileCache;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.reflect.Method;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.ruitx.jaws.strings.DefaultHTML.*;
+import static org.ruitx.jaws.strings.HttpHeaders.ACCEPT_ENCODING;
+import static org.ruitx.jaws.strings.HttpHeaders.ACCEPT_RANGES;
+import static org.ruitx.jaws.strings.HttpHeaders.CACHE_CONTROL;
+import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_ENCODING;
+import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_RANGE;
 import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_TYPE;
+import static org.ruitx.jaws.strings.HttpHeaders.ETAG;
+import static org.ruitx.jaws.strings.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.ruitx.jaws.strings.HttpHeaders.IF_NONE_MATCH;
+import static org.ruitx.jaws.strings.HttpHeaders.IF_RANGE;
+import static org.ruitx.jaws.strings.HttpHeaders.LAST_MODIFIED;
+import static org.ruitx.jaws.strings.HttpHeaders.RANGE;
+import static org.ruitx.jaws.strings.HttpHeaders.VARY;
 
 /**
  * Yggdrasill is the main HTTP server component
@@ -118,6 +141,15 @@ public class Yggdrasill {
             server.start();
 
             JawsLogger.info("Yggdrasill started on port {} with resources path: {}", port, resourcesPath);
+
+            if (ApplicationConfig.STATIC_PRECOMPRESS) {
+                precompressStaticFiles();
+            }
+            // Requests are served during the warm-up, Hermod reports ready once it is done
+            ServletContext servletContext = context.getServletContext();
+            Thread warmup = new Thread(() -> Hermod.warmUp(servletContext), "hermod-warmup");
+            warmup.setDaemon(true);
+            warmup.start();
             
         } catch (Exception e) {
             JawsLogger.error("Yggdrasill encountered an error: {}", e.getMessage(), e);
@@ -125,6 +157,21 @@ public class Yggdrasill {
         }
     }
 
+    /**
+     * Builds the compressed variants of the static files in the background, requests arriving
+     * before it gets to a file build them on their own.
+     */
+    private void precompressStaticFiles() {
+        Thread precompress = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int written = StaticFileCache.getInstance().precompress(Paths.get(resourcesPath));
+            JawsLogger.info("Precompressed static files in {}ms ({} .gz files written)",
+                System.currentTimeMillis() - start, written);
+        }, "static-precompress");
+        precompress.setDaemon(true);
+        precompress.start();
+    }
+
     /**
      * Sets up static file serving using Jetty's DefaultServlet.
      */
@@ -168,6 +215,8 @@ public class Yggdrasill {
             5 * 1024 * 1024    // file size threshold for writing to disk (5MB)
         );
         jawsServlet.getRegistration().setMultipartConfig(multipartConfig);
+        // Long-lived responses (server-sent events) continue outside the request thread
+        jawsServlet.setAsyncSupported(true);
         
         context.addServlet(jawsServlet, "/*");
     }
@@ -198,10 +247,11 @@ public class Yggdrasill {
                 throws ServletException, IOException {
             
             currentConnections.incrementAndGet();
+            RequestContext context = null;
             
             try {
                 // Create request context for this request
-                RequestContext context = new RequestContext(request, response, resourcesPath);
+                context = new RequestContext(request, response, resourcesPath);
 
                 // Execute middleware chain
                 Bifrost middlewareChain = new Bifrost(middlewares, context);
@@ -217,18 +267,24 @@ public class Yggdrasill {
 
             } catch (Exception e) {
                 JawsLogger.error("Error processing request: {}", e.getMessage(), e);
+                // The response a middleware may have wrapped
+                HttpServletResponse current = context != null ? context.getResponse() : response;
                 try {
-                    if (!response.isCommitted()) {
-                        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-                        response.setContentType("text/html; charset=UTF-8");
-                        response.getWriter().write("Internal Server Error");
-                        response.getWriter().flush();
+                    if (!current.isCommitted()) {
+                        current.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        current.setContentType("text/html; charset=UTF-8");
+                        current.getWriter().write("Internal Server Error");
+                        current.getWriter().flush();
                     }
-                } catch (IOException ioException) {
-                    JawsLogger.error("Error sending error response: {}", ioException.getMessage());
+                } catch (IOException | IllegalStateException sendException) {
+                    JawsLogger.error("Error sending error response: {}", sendException.getMessage());
                 } finally {
                     currentConnections.decrementAndGet();
                 }
+            } finally {
+                if (context != null) {
+                    context.complete();
+                }
             }
         }
 
@@ -524,12 +580,11 @@ public class Yggdrasill {
             context.customResponseHeaders.forEach((name, value) -> 
                 context.response.setHeader(name, value));
             
-            // Process templates through Hermod
-            String processedHTML = Hermod.processTemplate(body, context.queryParams, context.bodyParams, context.request, context.response);
-            processedHTML += "\n\n"; // Prevent truncation
-            
-            context.response.getWriter().write(processedHTML);
-            context.response.getWriter().flush();
+            // Process templates through Hermod, straight into the response
+            PrintWriter writer = context.response.getWriter();
+            Hermod.processTemplate(body, context.queryParams, context.bodyParams, context.request, context.response, writer);
+            writer.write("\n\n"); // Prevent truncation
+            writer.flush();
         }
 
         /**
@@ -569,14 +624,14 @@ public class Yggdrasill {
                         templateName = custom404Page.substring(custom404Page.lastIndexOf("/") + 1);
                     }
                     
-                    String processedHTML = Hermod.processTemplate(
+                    Hermod.processTemplate(
                         templateName, 
                         context.queryParams, 
                         context.bodyParams, 
                         context.request, 
-                        context.response
+                        context.response,
+                        context.response.getWriter()
                     );
-                    context.response.getWriter().write(processedHTML);
                 } else {
                     context.response.getWriter().write(DefaultHTML.HTML_404_NOT_FOUND);
                 }
@@ -614,14 +669,14 @@ public class Yggdrasill {
                                 templateName = custom401Page.substring(custom401Page.lastIndexOf("/") + 1);
                             }
                             
-                            String processedHTML = Hermod.processTemplate(
+                            Hermod.processTemplate(
                                 templateName,
                                 context.queryParams,
                                 context.bodyParams,
                                 context.request,
-                                context.response
+                                context.response,
+                                context.response.getWriter()
                             );
-                            context.response.getWriter().write(processedHTML);
                         } catch (Exception e) {
                             JawsLogger.error("Error processing custom 401 template: {}", e.getMessage());
                             // Fall back to default
@@ -655,38 +710,35 @@ public class Yggdrasill {
 
         /**
          * Serves a static file with proper content type and template processing.
+         * Files other than HTML come from the StaticFileCache and are validated with
+         * If-None-Match / If-Modified-Since, answering 304 when the client's copy is current.
+         * Their compressed variant is sent instead when the client accepts it.
          */
         private void serveStaticFile(RequestContext context, Path filePath) throws IOException {
-            byte[] content = Files.readAllBytes(filePath);
-            String contentType = Files.probeContentType(filePath);
-            
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
+            // Get relative path from the resources directory (for Thymeleaf and the Cache-Control rules)
+            Path resourcesPath = Paths.get(context.resourcesPath);
+            String relativePath = resourcesPath.relativize(filePath).toString();
+            String fileName = filePath.getFileName().toString();
 
-            if ("text/html".equals(contentType)) {
-                // Get relative path from the resources directory for Thymeleaf
-                Path resourcesPath = Paths.get(context.resourcesPath);
-                String relativePath = resourcesPath.relativize(filePath).toString();
-                
-                // Process HTML templates using the relative file path
-                String processedHTML = Hermod.processTemplate(
+            if (fileName.endsWith(".html") || fileName.endsWith(".htm")) {
+                context.response.setStatus(HttpServletResponse.SC_OK);
+                context.response.setContentType("text/html");
+
+                // Process HTML templates using the relative file path, straight into the response
+                PrintWriter writer = context.response.getWriter();
+                Hermod.processTemplate(
                     relativePath, 
                     context.queryParams, 
                     context.bodyParams,
                     context.request,
-                    context.response
+                    context.response,
+                    writer
                 );
-                processedHTML += "\n\n"; // Prevent truncation
-                
-                context.response.setStatus(HttpServletResponse.SC_OK);
-                context.response.setContentType(contentType);
-                context.response.getWriter().write(processedHTML);
+                writer.write("\n\n"); // Prevent truncation
             } else {
                 // Serve binary content
-                context.response.setStatus(HttpServletResponse.SC_OK);
-                context.response.setContentType(contentType);
-                context.response.getOutputStream().write(content);
+                StaticFileCache.StaticFile file = StaticFileCache.getInstance().get(filePath, relativePath);
+                context.sendFile(file.negotiate(context.request.getHeader(ACCEPT_ENCODING.getHeaderName())));
             }
         }
 
@@ -723,8 +775,9 @@ public class Yggdrasill {
      */
     public static class RequestContext {
         private final HttpServletRequest request;
-        private final HttpServletResponse response;
+        private HttpServletResponse response;
         private final String resourcesPath;
+        private final List<Runnable> completionActions = new ArrayList<>(1);
         private final Map<String, String> headers = new LinkedHashMap<>();
         private final Map<String, String> customResponseHeaders = new LinkedHashMap<>();
         private Map<String, String> queryParams = new LinkedHashMap<>();
@@ -949,6 +1002,33 @@ public class Yggdrasill {
         public String getRequestBody() { return requestBody; }
         public String getResourcesPath() { return resourcesPath; }
 
+        /**
+         * Replaces the response everything after this point writes to (a middleware wrapping it)
+         */
+        public void setResponse(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        /**
+         * Registers an action to run once the request has been processed, even if it failed
+         */
+        public void onComplete(Runnable action) {
+            completionActions.add(action);
+        }
+
+        /**
+         * Runs the completion actions, in the order they were registered
+         */
+        void complete() {
+            for (Runnable action : completionActions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    JawsLogger.error("Error completing request: {}", e.getMessage(), e);
+                }
+            }
+        }
+
         public void addCustomHeader(String name, String value) {
             customResponseHeaders.put(name, value);
         }
@@ -1001,12 +1081,28 @@ public class Yggdrasill {
             // Add custom headers
             customResponseHeaders.forEach((name, value) -> response.setHeader(name, value));
             
-            // Process templates through Hermod
-            String processedHTML = Hermod.processTemplate(body, queryParams, bodyParams, request, response);
-            processedHTML += "\n\n"; // Prevent truncation
-            
-            response.getWriter().write(processedHTML);
-            response.getWriter().flush();
+            // Process templates through Hermod, straight into the response
+            PrintWriter writer = response.getWriter();
+            Hermod.processTemplate(body, queryParams, bodyParams, request, response, writer);
+            writer.write("\n\n"); // Prevent truncation
+            writer.flush();
+        }
+
+        /**
+         * Sends a page assembled from a base template and a partial (see Hermod.assemblePage),
+         * rendered straight into the response.
+         */
+        public void sendHTMLPage(ResponseCode responseCode, String baseTemplatePath, String partialTemplatePath) throws IOException {
+            response.setStatus(responseCode.getCode());
+            response.setContentType("text/html; charset=UTF-8");
+
+            // Add custom headers
+            customResponseHeaders.forEach((name, value) -> response.setHeader(name, value));
+
+            PrintWriter writer = response.getWriter();
+            Hermod.assemblePage(baseTemplatePath, partialTemplatePath, request, response, writer);
+            writer.write("\n\n"); // Prevent truncation
+            writer.flush();
         }
 
         public void sendJSONResponse(ResponseCode responseCode, String body) {
@@ -1040,6 +1136,207 @@ public class Yggdrasill {
                 throw new SendRespondException("Error sending binary response", e);
             }
         }
+
+        /**
+         * Sends a file with its validators (ETag, Last-Modified), answering conditional requests
+         * with 304 and a single byte range (Range, If-Range) with 206.
+         * Content not held in memory goes from the file to the connection through Jetty's pooled
+         * direct buffers, it is never copied into the heap. An encoded variant (see
+         * StaticFile.negotiate) is sent with its Content-Encoding.
+         */
+        public void sendFile(StaticFileCache.StaticFile file) {
+            try {
+                customResponseHeaders.forEach((name, value) -> response.setHeader(name, value));
+                response.setHeader(ACCEPT_RANGES.getHeaderName(), "bytes");
+                if (file.contentEncoding() != null || !file.variants().isEmpty()) {
+                    response.setHeader(VARY.getHeaderName(), ACCEPT_ENCODING.getHeaderName());
+                }
+                if (file.contentEncoding() != null) {
+                    response.setHeader(CONTENT_ENCODING.getHeaderName(), file.contentEncoding());
+                }
+                response.setHeader(ETAG.getHeaderName(), file.etag());
+                response.setDateHeader(LAST_MODIFIED.getHeaderName(), file.lastModified());
+                if (file.cacheControl() != null) {
+                    response.setHeader(CACHE_CONTROL.getHeaderName(), file.cacheControl());
+                }
+
+                if (isNotModified(file)) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+
+                long start = 0;
+                long length = file.length();
+                String range = request.getHeader(RANGE.getHeaderName());
+                if (range != null && isRangeCurrent(file)) {
+                    long[] bounds = parseRange(range, file.length());
+                    if (bounds != null && bounds.length == 0) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(CONTENT_RANGE.getHeaderName(), "bytes */" + file.length());
+                        return;
+                    }
+                    if (bounds != null) {
+                        start = bounds[0];
+                        length = bounds[1] - bounds[0] + 1;
+                        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                        response.setHeader(CONTENT_RANGE.getHeaderName(),
+                            "bytes " + bounds[0] + "-" + bounds[1] + "/" + file.length());
+                    }
+                }
+                if (length == file.length()) {
+                    response.setStatus(HttpServletResponse.SC_OK);
+                }
+                response.setContentType(file.contentType());
+                response.setContentLengthLong(length);
+
+                if (file.content() != null) {
+                    response.getOutputStream().write(file.content(), (int) start, (int) length);
+                } else {
+                    sendFileRange(file.path(), start, length);
+                }
+            } catch (IOException e) {
+                JawsLogger.error("Error sending file {}: {}", file.path(), e.getMessage());
+                throw new SendRespondException("Error sending file", e);
+            }
+        }
+
+        /**
+         * Checks the request's validators, If-None-Match wins over If-Modified-Since.
+         */
+        private boolean isNotModified(StaticFileCache.StaticFile file) {
+            String ifNoneMatch = request.getHeader(IF_NONE_MATCH.getHeaderName());
+            if (ifNoneMatch != null) {
+                return file.matchesEtag(ifNoneMatch);
+            }
+            try {
+                return file.notModifiedSince(request.getDateHeader(IF_MODIFIED_SINCE.getHeaderName()));
+            } catch (IllegalArgumentException e) {
+                // Not a date, ignored as RFC 9110 asks
+                return false;
+            }
+        }
+
+        /**
+         * Checks If-Range: a range is only served from the version of the file the client already has part of.
+         */
+        private boolean isRangeCurrent(StaticFileCache.StaticFile file) {
+            String ifRange = request.getHeader(IF_RANGE.getHeaderName());
+            if (ifRange == null) {
+                return true;
+            }
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // Strong comparison, a weak ETag never matches
+                return ifRange.equals(file.etag());
+            }
+            try {
+                return request.getDateHeader(IF_RANGE.getHeaderName()) == file.lastModified();
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Parses a Range header with a single byte range ("a-b", "a-" or "-suffix").
+         *
+         * @return {first, last} byte, an empty array when the range can't be satisfied, or null
+         *         when the header is malformed or asks for several ranges (the whole file is sent)
+         */
+        private static long[] parseRange(String range, long fileLength) {
+            if (!range.startsWith("bytes=") || range.indexOf(',') >= 0 || fileLength == 0) {
+                return null;
+            }
+            String spec = range.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    long suffix = Long.parseLong(last);
+                    return suffix <= 0 ? new long[0] : new long[]{Math.max(0, fileLength - suffix), fileLength - 1};
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(last), fileLength - 1);
+                if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                    return null;
+                }
+                return start >= fileLength ? new long[0] : new long[]{start, end};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Writes part of a file to the response.
+         * Jetty's own output reads the channel into its pooled direct buffers; anything wrapping
+         * it (a middleware's output stream) gets the bytes through FileChannel.transferTo.
+         */
+        private void sendFileRange(Path path, long start, long length) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ServletOutputStream out = response.getOutputStream();
+                if (out instanceof HttpOutput httpOutput) {
+                    httpOutput.sendContent(new FileRangeChannel(channel, start, length));
+                    return;
+                }
+                WritableByteChannel target = Channels.newChannel(out);
+                long sent = 0;
+                while (sent < length) {
+                    long transferred = channel.transferTo(start + sent, length - sent, target);
+                    if (transferred <= 0) {
+                        throw new IOException("File shrank while being sent: " + path);
+                    }
+                    sent += transferred;
+                }
+            }
+        }
+    }
+
+    /**
+     * A range of a file, read from its position without moving the channel.
+     */
+    private static final class FileRangeChannel implements ReadableByteChannel {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        private FileRangeChannel(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.position = start;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = target.limit();
+            if (target.remaining() > remaining) {
+                target.limit(target.position() + (int) remaining);
+            }
+            try {
+                int read = channel.read(target, position);
+                if (read > 0) {
+                    position += read;
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                target.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // The channel belongs to sendFileRange
+        }
     }
 
     // Getter methods for compatibility
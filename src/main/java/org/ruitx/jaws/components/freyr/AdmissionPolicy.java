@@ -0,0 +1,29 @@
+package org.ruitx.jaws.components.freyr;
+
+/**
+ * AdmissionPolicy - What a bounded Freyr queue does when it is full
+ * 
+ * REJECT - fail the submission straight away
+ * BLOCK - wait up to the configured timeout for room, then fail
+ * SHED_LOWEST - evict the lowest priority queued job to make room for a higher priority one
+ *               (sequential lanes keep strict order, so there it behaves like REJECT)
+ */
+public enum AdmissionPolicy {
+    REJECT,
+    BLOCK,
+    SHED_LOWEST;
+    
+    /**
+     * Parse a policy name, falling back to REJECT for unknown values
+     */
+    public static AdmissionPolicy fromString(String value) {
+        if (value != null) {
+            for (AdmissionPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return REJECT;
+    }
+}
@@ -14,7 +14,7 @@ import org.ruitx.jaws.interfaces.Job;
  */
 public abstract class BaseJob implements Job {
     
-    private final String id;
+    private String id;
     private final String type;
     private final int priority;
     private final int maxRetries;
@@ -64,6 +64,13 @@ public abstract class BaseJob implements Job {
         return id;
     }
     
+    /**
+     * Restore the ID of a job that is already persisted (used when reloading or retrying a job)
+     */
+    void restoreId(String id) {
+        this.id = id;
+    }
+    
     @Override
     public String getType() {
         return type;
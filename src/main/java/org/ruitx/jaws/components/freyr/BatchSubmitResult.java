@@ -0,0 +1,109 @@
+package org.ruitx.jaws.components.freyr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a batch job submission.
+ * 
+ * Holds one entry per submitted job, in submission order, telling whether
+ * the job was accepted (persisted and queued), a duplicate of a live job
+ * (same idempotency key, the entry holds the live job's ID) or rejected and why.
+ */
+public class BatchSubmitResult {
+    
+    private final List<Entry> entries = new ArrayList<>();
+    
+    void accept(int index, String jobId) {
+        entries.add(new Entry(index, jobId, true, null));
+    }
+    
+    void duplicate(int index, String liveJobId) {
+        entries.add(new Entry(index, liveJobId, true, true, null));
+    }
+    
+    void reject(int index, String jobId, String reason) {
+        entries.add(new Entry(index, jobId, false, reason));
+    }
+    
+    /**
+     * Get all entries, in submission order
+     */
+    public List<Entry> getEntries() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return Collections.unmodifiableList(sorted);
+    }
+    
+    /**
+     * Get the IDs of the accepted jobs, in submission order
+     */
+    public List<String> getAcceptedJobIds() {
+        return getEntries().stream()
+            .filter(Entry::isAccepted)
+            .map(Entry::getJobId)
+            .toList();
+    }
+    
+    public int getAcceptedCount() {
+        return (int) entries.stream().filter(Entry::isAccepted).count();
+    }
+    
+    public int getRejectedCount() {
+        return entries.size() - getAcceptedCount();
+    }
+    
+    /**
+     * Convert to a map for JSON responses
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("accepted", getAcceptedCount());
+        map.put("rejected", getRejectedCount());
+        map.put("jobs", getEntries().stream().map(Entry::toMap).toList());
+        return map;
+    }
+    
+    /**
+     * Outcome of a single job in the batch
+     */
+    public static class Entry {
+        private final int index;
+        private final String jobId;
+        private final boolean accepted;
+        private final boolean duplicate;
+        private final String reason;
+        
+        public Entry(int index, String jobId, boolean accepted, String reason) {
+            this(index, jobId, accepted, false, reason);
+        }
+        
+        public Entry(int index, String jobId, boolean accepted, boolean duplicate, String reason) {
+            this.index = index;
+            this.jobId = jobId;
+            this.accepted = accepted;
+            this.duplicate = duplicate;
+            this.reason = reason;
+        }
+        
+        public int getIndex() { return index; }
+        public String getJobId() { return jobId; }
+        public boolean isAccepted() { return accepted; }
+        public boolean isDuplicate() { return duplicate; }
+        public String getReason() { return reason; }
+        
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("index", index);
+            map.put("jobId", jobId);
+            map.put("status", duplicate ? "DUPLICATE" : accepted ? "QUEUED" : "REJECTED");
+            if (reason != null) {
+                map.put("reason", reason);
+            }
+            return map;
+        }
+    }
+}
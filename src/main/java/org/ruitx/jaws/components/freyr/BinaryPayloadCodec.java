@@ -0,0 +1,282 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.components.Odin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryPayloadCodec - Compact binary payloads
+ *
+ * Every value is a one byte tag followed by its data: integers as zigzag varints, doubles
+ * as 8 bytes, strings as a varint length and UTF-8, maps and lists as a varint count and
+ * their entries. Map keys and short strings are written once and then referenced by
+ * index, so payloads made of many similar maps (a batch of log entries) don't repeat
+ * their keys and common values.
+ *
+ * Unlike JSON, integers keep their type (an Integer stays an Integer, a Long a Long).
+ * Values of other types are first converted to their JSON form (maps, lists, strings
+ * and numbers) with the Odin mapper.
+ */
+public class BinaryPayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 2;
+    public static final String NAME = "BINARY";
+
+    // Strings up to this length go to the string table, longer ones are rarely repeated
+    private static final int MAX_REF_LENGTH = 64;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int STRING_REF = 7;
+    private static final int MAP = 8;
+    private static final int LIST = 9;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Map<String, Object> payload) throws IOException {
+        Writer writer = new Writer();
+        writer.writeValue(payload);
+        return writer.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decode(byte[] bytes) throws IOException {
+        Object value = new Reader(bytes).readValue();
+        if (!(value instanceof Map)) {
+            throw new IOException("Binary payload is not a map");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Writer {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                write(NULL);
+            } else if (value instanceof Boolean b) {
+                write(b ? TRUE : FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                write(INT);
+                writeVarLong(zigzag(((Number) value).longValue()));
+            } else if (value instanceof Long l) {
+                write(LONG);
+                writeVarLong(zigzag(l));
+            } else if (value instanceof Double || value instanceof Float) {
+                write(DOUBLE);
+                long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (bits >>> shift));
+                }
+            } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum<?>) {
+                writeString(value.toString());
+            } else if (value instanceof Map<?, ?> map) {
+                write(MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            } else if (value instanceof Collection<?> collection) {
+                write(LIST);
+                writeVarLong(collection.size());
+                for (Object item : collection) {
+                    writeValue(item);
+                }
+            } else if (value instanceof Object[] array) {
+                writeValue(List.of(array));
+            } else {
+                // BigDecimal, dates, records, ...: encode what JSON would have stored
+                Object converted = Odin.getMapper().convertValue(value, Object.class);
+                if (converted != null && converted.getClass() == value.getClass()) {
+                    throw new IOException("Cannot encode payload value of type " + value.getClass().getName());
+                }
+                writeValue(converted);
+            }
+        }
+
+        void writeString(String value) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                write(STRING_REF);
+                writeVarLong(index);
+                return;
+            }
+            if (value.length() <= MAX_REF_LENGTH) {
+                strings.put(value, strings.size());
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            write(STRING);
+            writeVarLong(bytes.length);
+            write(bytes);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private final List<String> strings = new ArrayList<>();
+        private int pos;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        Object readValue() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INT:
+                    return (int) unzigzag(readVarLong());
+                case LONG:
+                    return unzigzag(readVarLong());
+                case DOUBLE: {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    return Double.longBitsToDouble(bits);
+                }
+                case STRING:
+                case STRING_REF:
+                    return readString(tag);
+                case MAP: {
+                    int size = readSize();
+                    Map<String, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                    for (int i = 0; i < size; i++) {
+                        String key = readString(readByte());
+                        map.put(key, readValue());
+                    }
+                    return map;
+                }
+                case LIST: {
+                    int size = readSize();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                default:
+                    throw new IOException("Unknown tag " + tag + " at offset " + (pos - 1));
+            }
+        }
+
+        String readString(int tag) throws IOException {
+            if (tag == STRING_REF) {
+                int index = readSize();
+                if (index >= strings.size()) {
+                    throw new IOException("Invalid string reference " + index);
+                }
+                return strings.get(index);
+            }
+            if (tag != STRING) {
+                throw new IOException("Expected a string, got tag " + tag);
+            }
+            int length = readSize();
+            if (length > bytes.length - pos) {
+                throw new IOException("Truncated binary payload");
+            }
+            String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            if (value.length() <= MAX_REF_LENGTH) {
+                strings.add(value);
+            }
+            return value;
+        }
+
+        int readSize() throws IOException {
+            long size = readVarLong();
+            if (size < 0 || size > bytes.length) {
+                throw new IOException("Invalid size " + size);
+            }
+            return (int) size;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readByte() throws IOException {
+            if (pos >= bytes.length) {
+                throw new IOException("Truncated binary payload");
+            }
+            return bytes[pos++] & 0xFF;
+        }
+
+        static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
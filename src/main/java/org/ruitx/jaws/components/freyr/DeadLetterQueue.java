@@ -99,16 +99,15 @@ public class DeadLetterQueue {
             // Extract job information
             String jobType = jobRow.getString("type").orElse("unknown");
             String executionMode = jobRow.getString("execution_mode").orElse("PARALLEL");
-            String payloadJson = jobRow.getString("payload").orElse("{}");
             int priority = jobRow.getInt("priority").orElse(5);
             int maxRetries = jobRow.getInt("max_retries").orElse(3);
             int retryAttempts = jobRow.getInt("current_retries").orElse(0);
             long failedAt = Instant.now().toEpochMilli();
             
-            // Parse payload
+            // Parse payload, the DLQ keeps it as JSON so it stays readable whatever codec the job used
             Map<String, Object> payload;
             try {
-                payload = Odin.getMapper().readValue(payloadJson, Map.class);
+                payload = PayloadCodecs.decode(jobRow.get("payload"));
             } catch (Exception e) {
                 Logger.warn("Failed to parse payload for job {}, using empty payload", jobId);
                 payload = new HashMap<>();
@@ -121,6 +120,7 @@ public class DeadLetterQueue {
             boolean canBeRetried = determineIfRetryable(failureReason, jobType);
             String dlqId = UUID.randomUUID().toString();
             
+            String payloadJson = Odin.getMapper().writeValueAsString(payload);
             String retryHistoryJson = Odin.getMapper().writeValueAsString(retryHistory);
             int inserted = mimir.executeSql("""
                 INSERT INTO DEAD_LETTER_QUEUE 
@@ -143,6 +143,11 @@ public class DeadLetterQueue {
                 
                 Logger.info("Job {} moved to Dead Letter Queue with ID: {} (reason: {})", 
                           jobId, dlqId, failureReason);
+                
+                // Jobs of the same workflow waiting on this one can never start now
+                if (payload.get(JobWorkflow.WORKFLOW_ID_KEY) != null) {
+                    Freyr.getInstance().getWorkflowCoordinator().onJobFailed(jobId, failureReason);
+                }
                 return true;
             } else {
                 Logger.error("Failed to insert job {} into Dead Letter Queue", jobId);
@@ -189,46 +194,63 @@ public class DeadLetterQueue {
             int initialRetries = resetRetryCount ? 0 : entry.getRetryAttempts();
             
             // Insert the new job into the JOBS table
-            String payloadJson = Odin.getMapper().writeValueAsString(entry.getPayload());
+            Object payload = PayloadCodecs.encode(entry.getPayload(), newJob.getPayloadCodec());
             long now = Instant.now().toEpochMilli();
             
-            int inserted = mimir.executeSql("""
-                INSERT INTO JOBS 
-                (id, type, payload, priority, max_retries, current_retries, timeout_ms, 
-                 execution_mode, status, created_at, client_id, user_id) 
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """,
-                newJobId, entry.getJobType(), payloadJson, entry.getPriority(),
-                entry.getMaxRetries(), initialRetries, newJob.getTimeoutMs(),
-                entry.getExecutionMode(), Freyr.JobStatus.PENDING.name(),
-                now, newJob.getClientId(), newJob.getUserId()
-            );
+            // The retried job is leased to this node, which queues it right away
+            Freyr jobQueue = Freyr.getInstance();
+            JobLeaseManager leaseManager = jobQueue.getLeaseManager();
             
-            if (inserted > 0) {
-                // Submit the job to the appropriate queue
-                Freyr jobQueue = Freyr.getInstance();
-                String submittedJobId = jobQueue.submit(newJob);
-                
-                if (submittedJobId != null) {
-                    // Update DLQ entry to mark it as retried
-                    mimir.executeSql("""
-                        UPDATE DEAD_LETTER_QUEUE 
-                        SET can_be_retried = 0 
-                        WHERE id = ?
-                        """, dlqEntryId);
-                    
-                    Logger.info("Successfully retried DLQ entry {} as new job: {} (reset retries: {})", 
-                              dlqEntryId, newJobId, resetRetryCount);
-                    return newJobId;
-                } else {
-                    Logger.error("Failed to submit retry job to queue");
-                    return null;
-                }
-            } else {
+            // Take the entry first, so a second retry of the same entry can't create another job
+            int taken = mimir.executeSql("""
+                UPDATE DEAD_LETTER_QUEUE 
+                SET can_be_retried = 0 
+                WHERE id = ? AND can_be_retried = 1
+                """, dlqEntryId);
+            if (taken == 0) {
+                Logger.error("Cannot retry DLQ entry {} - it was already retried", dlqEntryId);
+                return null;
+            }
+            
+            int inserted;
+            try {
+                inserted = mimir.executeSql("""
+                    INSERT INTO JOBS 
+                    (id, type, payload, priority, max_retries, current_retries, timeout_ms, 
+                     execution_mode, status, created_at, client_id, user_id, owner, lease_until, idempotency_key) 
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """,
+                    newJobId, entry.getJobType(), payload, entry.getPriority(),
+                    entry.getMaxRetries(), initialRetries, newJob.getTimeoutMs(),
+                    entry.getExecutionMode(), Freyr.JobStatus.PENDING.name(),
+                    now, newJob.getClientId(), newJob.getUserId(),
+                    leaseManager.getNodeId(), leaseManager.newLeaseUntil(), newJob.getIdempotencyKey()
+                );
+            } catch (Exception e) {
+                inserted = 0;
+                Logger.error("Failed to insert retry job for DLQ entry {}: {}", dlqEntryId, e.getMessage());
+            }
+            
+            if (inserted == 0) {
+                // Nothing was created, the entry can be retried again
+                mimir.executeSql("UPDATE DEAD_LETTER_QUEUE SET can_be_retried = 1 WHERE id = ?", dlqEntryId);
                 Logger.error("Failed to insert retry job into database");
                 return null;
             }
             
+            // Queue the job that was just persisted (submit would insert it a second time)
+            if (!jobQueue.requeue(newJob)) {
+                // The job is stored, give its lease back so the claim cycle runs it here or on another node
+                leaseManager.release(newJobId);
+                Logger.warn("Retry job {} for DLQ entry {} could not be queued here, left to the claim cycle", 
+                          newJobId, dlqEntryId);
+                return newJobId;
+            }
+            
+            Logger.info("Successfully retried DLQ entry {} as new job: {} (reset retries: {})", 
+                      dlqEntryId, newJobId, resetRetryCount);
+            return newJobId;
+            
         } catch (Exception e) {
             Logger.error("Failed to manually retry DLQ entry {}: {}", dlqEntryId, e.getMessage(), e);
             return null;
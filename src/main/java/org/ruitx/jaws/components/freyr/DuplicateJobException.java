@@ -0,0 +1,34 @@
+package org.ruitx.jaws.components.freyr;
+
+/**
+ * Thrown when Freyr can't take a workflow because one of its jobs has an idempotency key
+ * already held by a live job.
+ * 
+ * Single jobs are answered with the live job's ID instead, a workflow can't be partly mapped
+ * onto jobs that don't belong to it.
+ */
+public class DuplicateJobException extends RuntimeException {
+    
+    private final String jobId;
+    private final String idempotencyKey;
+    private final String liveJobId;
+    
+    public DuplicateJobException(String jobId, String idempotencyKey, String liveJobId) {
+        super("Job " + jobId + " has idempotency key '" + idempotencyKey + "' already held by live job " + liveJobId);
+        this.jobId = jobId;
+        this.idempotencyKey = idempotencyKey;
+        this.liveJobId = liveJobId;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public String getLiveJobId() {
+        return liveJobId;
+    }
+}
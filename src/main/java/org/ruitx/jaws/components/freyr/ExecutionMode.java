@@ -4,7 +4,7 @@ package org.ruitx.jaws.components.freyr;
  * ExecutionMode - Defines how jobs should be processed
  * 
  * PARALLEL: Jobs are processed concurrently by multiple worker threads (default behavior)
- * SEQUENTIAL: Jobs are processed one at a time in FIFO order by a single worker thread
+ * SEQUENTIAL: Jobs are processed one at a time in FIFO order, per ordering key, by a single worker thread per lane
  */
 public enum ExecutionMode {
     
@@ -14,8 +14,8 @@ public enum ExecutionMode {
     PARALLEL,
     
     /**
-     * Process jobs sequentially using a single worker thread.
-     * Jobs are processed one at a time in the order they were submitted.
+     * Process jobs sequentially using a single worker thread per lane.
+     * Jobs with the same ordering key are processed one at a time in the order they were submitted.
      */
     SEQUENTIAL;
     
@@ -6,15 +6,20 @@ import org.ruitx.jaws.interfaces.Job;
 import org.ruitx.jaws.types.Row;
 import org.tinylog.Logger;
 
+import static org.ruitx.jaws.configs.ApplicationConfig.CLAIM_BATCH_SIZE;
+import static org.ruitx.jaws.configs.ApplicationConfig.CLAIM_INTERVAL_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_ADMISSION_POLICY;
 import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_CAPACITY;
 import static org.ruitx.jaws.configs.ApplicationConfig.WORKER_THREADS;
 import static org.ruitx.jaws.configs.ApplicationConfig.CLEANUP_INTERVAL_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.WORKER_POOLS;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Freyr
@@ -23,26 +28,45 @@ import java.util.concurrent.atomic.AtomicInteger;
  * It is responsible for submitting jobs, processing them, and managing their status.
  * 
  * It uses a priority queue to process jobs in the order of their priority. 
+ * Parallel jobs are routed to named worker pools (bulkheads), so that a burst of
+ * one job type cannot starve the others. Jobs without a route use the default pool.
+ * 
+ * Several processes can share the same database: each one only runs the jobs it holds
+ * a lease on (see JobLeaseManager) and claims unowned or expired jobs periodically.
+ * 
+ * Jobs with an idempotency key are deduplicated: while a job with the same key is live,
+ * submitting another one returns the live job's ID instead of creating a new job.
+ * 
+ * Jobs can also be submitted as a workflow (see JobWorkflow): a job then waits until
+ * the jobs it depends on completed, which lets independent steps run in parallel and
+ * follow-up work start as soon as its inputs are ready.
  */
 public class Freyr implements Runnable {
     
     private static final int DEFAULT_WORKER_THREADS = WORKER_THREADS;
     private static final int DEFAULT_QUEUE_CAPACITY = QUEUE_CAPACITY;
+    private static final long SEQUENTIAL_RETRY_AFTER_SECONDS = 5;
     //private static final long CLEANUP_INTERVAL_MS = 300000; // 5 minutes
+    private static final String INSERT_JOB_SQL =
+        "INSERT INTO JOBS (id, type, payload, priority, max_retries, current_retries, timeout_ms, execution_mode, status, created_at, client_id, user_id, owner, lease_until, idempotency_key, workflow_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String LIVE_STATUSES_SQL = "('PENDING', 'PROCESSING', 'RETRY_SCHEDULED', 'WAITING')";
+    private static final Set<JobStatus> LIVE_STATUSES = 
+        EnumSet.of(JobStatus.PENDING, JobStatus.PROCESSING, JobStatus.RETRY_SCHEDULED, JobStatus.WAITING);
     
     private static Freyr instance;
     private static final Object instanceLock = new Object();
     
     private final Mimir mimir = new Mimir();
     private final JobRegistry jobRegistry;
-    private final ExecutorService workerPool;
-    private final PriorityBlockingQueue<JobInstance> jobQueue;
+    private final Map<String, WorkerPool> workerPools;
     private final SequentialJobQueue sequentialJobQueue;
     private final JobRetryManager retryManager;
     private final DeadLetterQueue deadLetterQueue;
     private final JobRetryScheduler retryScheduler;
+    private final JobLeaseManager leaseManager;
+    private final WorkflowCoordinator workflowCoordinator;
+    private final IdempotencyIndex idempotencyIndex = new IdempotencyIndex();
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicInteger activeWorkers = new AtomicInteger(0);
     private final ScheduledExecutorService cleanupScheduler;
     
     // Statistics
@@ -50,27 +74,30 @@ public class Freyr implements Runnable {
     private final AtomicInteger completedJobs = new AtomicInteger(0);
     private final AtomicInteger failedJobs = new AtomicInteger(0);
     private final AtomicInteger retriedJobs = new AtomicInteger(0);
+    private final AtomicInteger rejectedJobs = new AtomicInteger(0);
+    private final AtomicInteger dedupedJobs = new AtomicInteger(0);
         
     private Freyr(Map<String, Object> config) {
         // Get singleton JobRegistry instance
         this.jobRegistry = JobRegistry.getInstance();
         
-        this.workerPool = Executors.newFixedThreadPool(DEFAULT_WORKER_THREADS, 
-            r -> new Thread(r, "job-worker-" + Thread.currentThread().threadId()));
-        this.jobQueue = new PriorityBlockingQueue<>(DEFAULT_QUEUE_CAPACITY, 
-            Comparator.comparingInt((JobInstance ji) -> ji.job.getPriority())
-                     .thenComparingLong(ji -> ji.createdAt));
+        this.workerPools = createWorkerPools();
         this.retryManager = new JobRetryManager();
         this.deadLetterQueue = new DeadLetterQueue();
-        this.sequentialJobQueue = new SequentialJobQueue(this.deadLetterQueue);
-        this.retryScheduler = new JobRetryScheduler(this.deadLetterQueue);
+        this.leaseManager = new JobLeaseManager();
+        this.retryScheduler = new JobRetryScheduler(this.deadLetterQueue, this.leaseManager);
+        this.workflowCoordinator = new WorkflowCoordinator(this.jobRegistry, this.leaseManager, this::requeue);
+        this.sequentialJobQueue = new SequentialJobQueue(this.deadLetterQueue, this.retryScheduler, 
+                                                         this.leaseManager, this.workflowCoordinator);
         this.cleanupScheduler = Executors.newSingleThreadScheduledExecutor(
             r -> new Thread(r, "job-cleanup"));
         
-        loadPendingJobs();
+        ensureIdempotencyColumn();
+        claimJobs(true);
+        workflowCoordinator.loadWaitingJobs();
         
-        Logger.info("JobQueue initialized with {} worker threads, queue capacity of {}, and shared DLQ", 
-                   DEFAULT_WORKER_THREADS, DEFAULT_QUEUE_CAPACITY);
+        Logger.info("JobQueue initialized with worker pools {}, queue capacity of {}, and shared DLQ", 
+                   workerPools.keySet(), DEFAULT_QUEUE_CAPACITY);
     }
     
     /**
@@ -90,32 +117,287 @@ public class Freyr implements Runnable {
     /**
      * Submit a job for processing
      * Routes to appropriate queue based on execution mode
+     * 
+     * @return the job ID, or the ID of the live job holding the same idempotency key
+     * @throws QueueFullException if the target queue is full and the admission policy rejects the job
      */
     public String submit(Job job) {
+        String idempotencyKey = job.getIdempotencyKey();
         try {
-            persistJob(job);
+            if (idempotencyKey != null) {
+                String liveJobId = reserveIdempotencyKey(idempotencyKey, job.getId());
+                if (liveJobId != null) {
+                    return duplicateOf(job, liveJobId);
+                }
+            }
             
-            if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
-                boolean queued = sequentialJobQueue.submit(job);
-                if (!queued) {
-                    throw new RuntimeException("Sequential queue is full");
+            try {
+                persistJob(job);
+            } catch (RuntimeException e) {
+                // The unique index caught a live duplicate this process didn't know about
+                String liveJobId = idempotencyKey != null && isIdempotencyConflict(e) 
+                    ? findLiveJobId(idempotencyKey) : null;
+                releaseIdempotencyKey(idempotencyKey, job.getId());
+                if (liveJobId == null) {
+                    throw e;
                 }
-                Logger.trace("Job submitted to sequential queue: {}", job);
-            } else {
-                jobQueue.offer(new JobInstance(job));
-                Logger.trace("Job submitted to parallel queue: {}", job);
+                idempotencyIndex.claim(idempotencyKey, liveJobId);
+                return duplicateOf(job, liveJobId);
+            }
+            
+            try {
+                enqueue(job, true);
+            } catch (QueueFullException e) {
+                discardJob(job.getId());
+                releaseIdempotencyKey(idempotencyKey, job.getId());
+                throw e;
             }
             
             totalJobs.incrementAndGet();
             
             return job.getId();
             
+        } catch (QueueFullException e) {
+            rejectedJobs.incrementAndGet();
+            Logger.warn("Rejected job {}: {}", job.getId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             Logger.error("Failed to submit job: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to submit job", e);
         }
     }
     
+    /**
+     * Submit several jobs at once
+     * All accepted jobs are persisted in a single batched transaction and only queued once it commits.
+     * Jobs that can't be taken (null, duplicated IDs, full sequential lane) are rejected individually,
+     * jobs whose idempotency key is held by a live job are answered with that job's ID.
+     */
+    public BatchSubmitResult submitAll(List<Job> jobs) {
+        BatchSubmitResult result = new BatchSubmitResult();
+        List<Job> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        Map<Integer, Integer> reservedLaneSlots = new HashMap<>();
+        
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            if (job == null) {
+                result.reject(i, null, "Job is null");
+                continue;
+            }
+            if (!seenIds.add(job.getId())) {
+                result.reject(i, job.getId(), "Duplicate job ID in batch");
+                continue;
+            }
+            if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
+                int lane = sequentialJobQueue.getLaneIndex(job.getOrderingKey());
+                int reserved = reservedLaneSlots.getOrDefault(lane, 0);
+                if (reserved >= sequentialJobQueue.getRemainingCapacity(job.getOrderingKey())) {
+                    result.reject(i, job.getId(), "Sequential queue is full");
+                    continue;
+                }
+                reservedLaneSlots.put(lane, reserved + 1);
+            }
+            if (job.getIdempotencyKey() != null) {
+                String liveJobId = reserveIdempotencyKey(job.getIdempotencyKey(), job.getId());
+                if (liveJobId != null) {
+                    dedupedJobs.incrementAndGet();
+                    result.duplicate(i, liveJobId);
+                    continue;
+                }
+            }
+            accepted.add(job);
+            acceptedIndexes.add(i);
+        }
+        
+        if (accepted.isEmpty()) {
+            return result;
+        }
+        
+        try {
+            persistJobs(accepted);
+        } catch (Exception e) {
+            Logger.error("Failed to persist job batch of {}: {}", accepted.size(), e.getMessage(), e);
+            for (int i = 0; i < accepted.size(); i++) {
+                Job job = accepted.get(i);
+                releaseIdempotencyKey(job.getIdempotencyKey(), job.getId());
+                result.reject(acceptedIndexes.get(i), job.getId(), "Failed to persist job");
+            }
+            return result;
+        }
+        
+        for (int i = 0; i < accepted.size(); i++) {
+            Job job = accepted.get(i);
+            try {
+                enqueue(job, true);
+                totalJobs.incrementAndGet();
+                result.accept(acceptedIndexes.get(i), job.getId());
+            } catch (Exception e) {
+                // Queue full under the admission policy, or lost a race for lane capacity
+                discardJob(job.getId());
+                releaseIdempotencyKey(job.getIdempotencyKey(), job.getId());
+                rejectedJobs.incrementAndGet();
+                result.reject(acceptedIndexes.get(i), job.getId(), e.getMessage());
+            }
+        }
+        
+        Logger.debug("Batch submitted: {} accepted, {} rejected", result.getAcceptedCount(), result.getRejectedCount());
+        return result;
+    }
+    
+    /**
+     * Submit a workflow: all its jobs are persisted in a single transaction, the jobs without
+     * dependencies are queued right away and the others wait (WAITING) for their parents.
+     * The workflow is admitted as a whole, if the queues can't take its first jobs nothing is persisted.
+     * 
+     * @return the workflow ID
+     * @throws QueueFullException if a queue can't take the jobs without dependencies
+     * @throws DuplicateJobException if the idempotency key of one of its jobs is held by a live job
+     */
+    public String submitWorkflow(JobWorkflow workflow) {
+        if (workflow.size() == 0) {
+            throw new IllegalArgumentException("Workflow has no jobs");
+        }
+        checkWorkflowAdmission(workflow.getRoots());
+        reserveWorkflowKeys(workflow);
+        
+        try {
+            List<Object[]> jobParams = new ArrayList<>(workflow.size());
+            List<Object[]> dependencyParams = new ArrayList<>();
+            for (Job job : workflow.getJobs()) {
+                List<String> parentIds = workflow.getParentIds(job.getId());
+                jobParams.add(jobInsertParams(job, parentIds.isEmpty() ? JobStatus.PENDING : JobStatus.WAITING));
+                for (String parentId : parentIds) {
+                    dependencyParams.add(new Object[] { job.getId(), parentId });
+                }
+            }
+            
+            mimir.beginTransaction();
+            try {
+                mimir.executeBatch(INSERT_JOB_SQL, jobParams);
+                if (!dependencyParams.isEmpty()) {
+                    mimir.executeBatch(WorkflowCoordinator.INSERT_DEPENDENCY_SQL, dependencyParams);
+                }
+                mimir.commitTransaction();
+            } catch (Exception e) {
+                mimir.rollbackTransaction();
+                throw e;
+            }
+        } catch (Exception e) {
+            releaseWorkflowKeys(workflow);
+            if (isIdempotencyConflict(e)) {
+                // The unique index caught a live duplicate this process didn't know about
+                for (Job job : workflow.getJobs()) {
+                    String liveJobId = job.getIdempotencyKey() != null ? findLiveJobId(job.getIdempotencyKey()) : null;
+                    if (liveJobId != null) {
+                        dedupedJobs.incrementAndGet();
+                        throw new DuplicateJobException(job.getId(), job.getIdempotencyKey(), liveJobId);
+                    }
+                }
+            }
+            Logger.error("Failed to persist workflow {}: {}", workflow.getId(), e.getMessage(), e);
+            throw new RuntimeException("Failed to submit workflow", e);
+        }
+        
+        workflowCoordinator.register(workflow);
+        for (Job root : workflow.getRoots()) {
+            if (!requeue(root)) {
+                // Let the claim cycle pick it up instead of holding its lease forever
+                leaseManager.release(root.getId());
+            }
+        }
+        totalJobs.addAndGet(workflow.size());
+        
+        Logger.debug("Workflow {} submitted with {} jobs ({} ready)", 
+                    workflow.getId(), workflow.size(), workflow.getRoots().size());
+        return workflow.getId();
+    }
+    
+    /**
+     * Take the idempotency keys of every job of a workflow, all or none
+     * 
+     * @throws DuplicateJobException if a key is held by a live job (or another job of the workflow)
+     */
+    private void reserveWorkflowKeys(JobWorkflow workflow) {
+        for (Job job : workflow.getJobs()) {
+            String key = job.getIdempotencyKey();
+            if (key == null) {
+                continue;
+            }
+            String liveJobId = reserveIdempotencyKey(key, job.getId());
+            if (liveJobId != null) {
+                releaseWorkflowKeys(workflow);
+                dedupedJobs.incrementAndGet();
+                Logger.warn("Rejected workflow {}: job {} duplicates live job {} (key {})", 
+                           workflow.getId(), job.getId(), liveJobId, key);
+                throw new DuplicateJobException(job.getId(), key, liveJobId);
+            }
+        }
+    }
+    
+    /**
+     * Give back the keys a workflow took, keys held by other jobs are left alone
+     */
+    private void releaseWorkflowKeys(JobWorkflow workflow) {
+        for (Job job : workflow.getJobs()) {
+            releaseIdempotencyKey(job.getIdempotencyKey(), job.getId());
+        }
+    }
+    
+    /**
+     * Get the status of every job of a workflow, plus an overall status
+     * (FAILED if any job failed, COMPLETED once all completed, RUNNING otherwise)
+     * 
+     * @return null if no job belongs to the workflow
+     */
+    public Map<String, Object> getWorkflowStatus(String workflowId) {
+        try {
+            List<Row> rows = mimir.getRows(
+                "SELECT id, type, status FROM JOBS WHERE workflow_id = ? ORDER BY created_at", workflowId);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            
+            List<Map<String, Object>> jobs = new ArrayList<>();
+            boolean failed = false;
+            boolean completed = true;
+            for (Row row : rows) {
+                String status = row.getString("status").orElse("");
+                failed |= status.equals(JobStatus.FAILED.name()) || status.equals(JobStatus.DEAD_LETTER.name());
+                completed &= status.equals(JobStatus.COMPLETED.name());
+                jobs.add(Map.of(
+                    "jobId", row.getString("id").orElse(""),
+                    "type", row.getString("type").orElse(""),
+                    "status", status));
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("workflowId", workflowId);
+            result.put("status", failed ? "FAILED" : completed ? "COMPLETED" : "RUNNING");
+            result.put("jobs", jobs);
+            return result;
+        } catch (Exception e) {
+            Logger.error("Failed to get workflow status for {}: {}", workflowId, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Requeue a job that is already persisted (scheduled retries, DLQ retries)
+     * Routes to appropriate queue based on execution mode without inserting the job again.
+     * The job was already admitted once, so parallel pools take it even when full.
+     */
+    public boolean requeue(Job job) {
+        try {
+            enqueue(job, false);
+            return true;
+        } catch (Exception e) {
+            Logger.error("Failed to requeue job {}: {}", job.getId(), e.getMessage(), e);
+            return false;
+        }
+    }
+    
     /**
      * Get job status
      */
@@ -168,9 +450,9 @@ public class Freyr implements Runnable {
         if (running.compareAndSet(false, true)) {
             Logger.info("Starting JobQueue processing system...");
             
-            // Start parallel worker threads
-            for (int i = 0; i < DEFAULT_WORKER_THREADS; i++) {
-                workerPool.execute(new JobWorker());
+            // Start parallel worker pools
+            for (WorkerPool pool : workerPools.values()) {
+                pool.start(this::processJob);
             }
             
             // Start sequential processing
@@ -184,7 +466,16 @@ public class Freyr implements Runnable {
                                                CLEANUP_INTERVAL_MS, CLEANUP_INTERVAL_MS, 
                                                TimeUnit.MILLISECONDS);
             
-            Logger.info("JobQueue started with {} parallel workers, 1 sequential worker, and retry scheduler", DEFAULT_WORKER_THREADS);
+            // Renew our leases well before they run out, and pick up jobs other nodes let go
+            long heartbeatMs = Math.max(100, leaseManager.getLeaseMs() / 3);
+            cleanupScheduler.scheduleAtFixedRate(this::renewLeases, 
+                                               heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+            long claimIntervalMs = Math.max(100, CLAIM_INTERVAL_MS);
+            cleanupScheduler.scheduleAtFixedRate(() -> claimJobs(false), 
+                                               claimIntervalMs, claimIntervalMs, TimeUnit.MILLISECONDS);
+            
+            Logger.info("JobQueue started with {} worker pools, {} sequential lanes, and retry scheduler", 
+                       workerPools.size(), sequentialJobQueue.getLaneCount());
         }
     }
     
@@ -195,24 +486,32 @@ public class Freyr implements Runnable {
         if (running.compareAndSet(true, false)) {
             Logger.info("Shutting down JobQueue processing system...");
             
-            workerPool.shutdown();
+            for (WorkerPool pool : workerPools.values()) {
+                pool.shutdown(30, TimeUnit.SECONDS);
+            }
             sequentialJobQueue.shutdown();
             retryScheduler.stop();
             cleanupScheduler.shutdown();
             
             try {
-                if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
-                    workerPool.shutdownNow();
-                }
                 if (!cleanupScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
                     cleanupScheduler.shutdownNow();
                 }
             } catch (InterruptedException e) {
-                workerPool.shutdownNow();
                 cleanupScheduler.shutdownNow();
                 Thread.currentThread().interrupt();
             }
             
+            // Hand the jobs still waiting in our queues over to the other nodes
+            try {
+                int released = leaseManager.release();
+                if (released > 0) {
+                    Logger.info("Released {} queued jobs for other nodes", released);
+                }
+            } catch (Exception e) {
+                Logger.warn("Failed to release job leases: {}", e.getMessage());
+            }
+            
             Logger.info("JobQueue shutdown complete");
         }
     }
@@ -226,12 +525,26 @@ public class Freyr implements Runnable {
         stats.put("completedJobs", completedJobs.get());
         stats.put("failedJobs", failedJobs.get());
         stats.put("retriedJobs", retriedJobs.get());
-        stats.put("parallelQueueSize", jobQueue.size());
+        stats.put("rejectedJobs", rejectedJobs.get());
+        stats.put("dedupedJobs", dedupedJobs.get());
+        stats.put("idempotencyKeys", idempotencyIndex.size());
+        stats.put("admissionPolicy", AdmissionPolicy.fromString(QUEUE_ADMISSION_POLICY).name());
+        stats.put("parallelQueueSize", workerPools.values().stream().mapToInt(WorkerPool::getQueueSize).sum());
         stats.put("sequentialQueueSize", sequentialJobQueue.getQueueSize());
-        stats.put("activeParallelWorkers", activeWorkers.get());
+        stats.put("activeParallelWorkers", workerPools.values().stream().mapToInt(WorkerPool::getActiveWorkers).sum());
         stats.put("sequentialProcessing", sequentialJobQueue.isProcessingJob());
         stats.put("running", running.get());
         
+        // Add per-pool statistics
+        Map<String, Object> poolStats = new HashMap<>();
+        for (WorkerPool pool : workerPools.values()) {
+            poolStats.put(pool.getName(), pool.getStatistics());
+        }
+        stats.put("pools", poolStats);
+        stats.put("poolRoutes", jobRegistry.getPoolRoutes());
+        stats.put("lease", leaseManager.getStatistics());
+        stats.put("workflows", workflowCoordinator.getStatistics());
+        
         // Add sequential queue statistics
         Map<String, Object> sequentialStats = sequentialJobQueue.getStatistics();
         stats.put("sequential", sequentialStats);
@@ -281,6 +594,7 @@ public class Freyr implements Runnable {
             schedulerStatsMap.put("successfulRetries", schedulerStats.getSuccessfulRetries());
             schedulerStatsMap.put("failedRetries", schedulerStats.getFailedRetries());
             schedulerStatsMap.put("movedToDeadLetter", schedulerStats.getMovedToDeadLetter());
+            schedulerStatsMap.put("pendingRetries", schedulerStats.getPendingRetries());
             schedulerStatsMap.put("running", schedulerStats.isRunning());
             stats.put("retryScheduler", schedulerStatsMap);
         } catch (Exception e) {
@@ -290,6 +604,7 @@ public class Freyr implements Runnable {
             fallbackSchedulerStats.put("successfulRetries", 0);
             fallbackSchedulerStats.put("failedRetries", 0);
             fallbackSchedulerStats.put("movedToDeadLetter", 0);
+            fallbackSchedulerStats.put("pendingRetries", 0);
             fallbackSchedulerStats.put("running", false);
             stats.put("retryScheduler", fallbackSchedulerStats);
         }
@@ -301,61 +616,252 @@ public class Freyr implements Runnable {
     
     private void persistJob(Job job) {
         try {
-            String payloadJson = Odin.getMapper().writeValueAsString(job.getPayload());
-            
-            mimir.executeSql(
-                "INSERT INTO JOBS (id, type, payload, priority, max_retries, current_retries, timeout_ms, execution_mode, status, created_at, client_id, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                job.getId(),
-                job.getType(),
-                payloadJson,
-                job.getPriority(),
-                job.getMaxRetries(),
-                0, // current_retries starts at 0
-                job.getTimeoutMs(),
-                job.getExecutionMode().name(),
-                JobStatus.PENDING.name(),
-                Instant.now().toEpochMilli(),
-                job.getClientId(),
-                job.getUserId()
-            );
+            mimir.executeSql(INSERT_JOB_SQL, jobInsertParams(job, JobStatus.PENDING));
         } catch (Exception e) {
             throw new RuntimeException("Failed to persist job", e);
         }
     }
     
-    private void loadPendingJobs() {
+    private void persistJobs(List<Job> jobs) {
         try {
-            List<Row> rows = mimir.getRows("SELECT * FROM JOBS WHERE status IN ('PENDING', 'PROCESSING') ORDER BY priority, created_at");
+            List<Object[]> batchParams = new ArrayList<>(jobs.size());
+            for (Job job : jobs) {
+                batchParams.add(jobInsertParams(job, JobStatus.PENDING));
+            }
+            
+            mimir.beginTransaction();
+            try {
+                mimir.executeBatch(INSERT_JOB_SQL, batchParams);
+                mimir.commitTransaction();
+            } catch (Exception e) {
+                mimir.rollbackTransaction();
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to persist jobs", e);
+        }
+    }
+    
+    private Object[] jobInsertParams(Job job, JobStatus status) throws Exception {
+        return new Object[] {
+            job.getId(),
+            job.getType(),
+            PayloadCodecs.encode(job.getPayload(), job.getPayloadCodec()),
+            job.getPriority(),
+            job.getMaxRetries(),
+            0, // current_retries starts at 0
+            job.getTimeoutMs(),
+            job.getExecutionMode().name(),
+            status.name(),
+            Instant.now().toEpochMilli(),
+            job.getClientId(),
+            job.getUserId(),
+            leaseManager.getNodeId(),
+            leaseManager.newLeaseUntil(),
+            job.getIdempotencyKey(),
+            job.getWorkflowId()
+        };
+    }
+    
+    /**
+     * Take the idempotency key for a new job
+     * 
+     * @return null if the job can go ahead, otherwise the ID of the live job holding the key
+     */
+    private String reserveIdempotencyKey(String key, String jobId) {
+        while (true) {
+            String holder = idempotencyIndex.claim(key, jobId);
+            if (holder == null || holder.equals(jobId)) {
+                return null;
+            }
+            if (isLive(holder)) {
+                return holder;
+            }
+            if (idempotencyIndex.replace(key, holder, jobId)) {
+                return null;
+            }
+        }
+    }
+    
+    private void releaseIdempotencyKey(String key, String jobId) {
+        if (key != null) {
+            idempotencyIndex.release(key, jobId);
+        }
+    }
+    
+    private boolean isLive(String jobId) {
+        JobStatus status = getJobStatus(jobId);
+        // No row yet means the holder is still being persisted by another thread
+        return status == null || LIVE_STATUSES.contains(status);
+    }
+    
+    private String findLiveJobId(String idempotencyKey) {
+        Row row = mimir.getRow(
+            "SELECT id FROM JOBS WHERE idempotency_key = ? AND status IN " + LIVE_STATUSES_SQL, idempotencyKey);
+        return row != null ? row.getString("id").orElse(null) : null;
+    }
+    
+    private String duplicateOf(Job job, String liveJobId) {
+        dedupedJobs.incrementAndGet();
+        Logger.debug("Job {} is a duplicate of live job {} (key {})", job.getId(), liveJobId, job.getIdempotencyKey());
+        return liveJobId;
+    }
+    
+    private static boolean isIdempotencyConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.contains("UNIQUE constraint failed: JOBS.idempotency_key")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void enqueue(Job job, boolean admit) {
+        if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
+            boolean queued = sequentialJobQueue.submit(job);
+            if (!queued) {
+                throw new QueueFullException("sequential", SEQUENTIAL_RETRY_AFTER_SECONDS);
+            }
+            Logger.trace("Job submitted to sequential queue: {}", job);
+        } else {
+            WorkerPool pool = getWorkerPool(job.getType());
+            if (admit) {
+                Job shed = pool.submit(job);
+                if (shed != null) {
+                    shedJob(shed, pool);
+                }
+            } else {
+                pool.restore(job);
+            }
+            Logger.trace("Job submitted to parallel pool '{}': {}", pool.getName(), job);
+        }
+    }
+    
+    /**
+     * Check the queues have room for the first jobs of a workflow, without queuing anything
+     */
+    private void checkWorkflowAdmission(List<Job> roots) {
+        Map<WorkerPool, Integer> poolDemand = new HashMap<>();
+        Map<Integer, Integer> laneDemand = new HashMap<>();
+        for (Job job : roots) {
+            if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
+                int lane = sequentialJobQueue.getLaneIndex(job.getOrderingKey());
+                int demand = laneDemand.merge(lane, 1, Integer::sum);
+                if (demand > sequentialJobQueue.getRemainingCapacity(job.getOrderingKey())) {
+                    rejectedJobs.addAndGet(roots.size());
+                    throw new QueueFullException("sequential", SEQUENTIAL_RETRY_AFTER_SECONDS);
+                }
+            } else {
+                WorkerPool pool = getWorkerPool(job.getType());
+                int demand = poolDemand.merge(pool, 1, Integer::sum);
+                if (pool.getQueueSize() + demand > pool.getCapacity()) {
+                    rejectedJobs.addAndGet(roots.size());
+                    throw new QueueFullException(pool.getName(), pool.getRetryAfterSeconds());
+                }
+            }
+        }
+    }
+    
+    private void shedJob(Job job, WorkerPool pool) {
+        String reason = String.format("Shed from full pool '%s' for a higher priority job", pool.getName());
+        Logger.warn("Job {} (priority {}) {}", job.getId(), job.getPriority(), reason);
+        deadLetterQueue.moveToDeadLetterQueue(job.getId(), reason);
+    }
+    
+    private void discardJob(String jobId) {
+        try {
+            mimir.executeSql("DELETE FROM JOBS WHERE id = ?", jobId);
+        } catch (Exception e) {
+            Logger.error("Failed to discard rejected job {}: {}", jobId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Claim unowned or expired jobs from the database and queue them locally
+     * Only claims as many jobs as there is room for, the rest is left to the other nodes.
+     * Overdue retries scheduled by other nodes are picked up in the same cycle.
+     * 
+     * @param startup also take the jobs a previous run with the same node id was holding
+     */
+    private void claimJobs(boolean startup) {
+        try {
+            int queued = workerPools.values().stream().mapToInt(WorkerPool::getQueueSize).sum()
+                       + sequentialJobQueue.getQueueSize();
+            int limit = Math.min(CLAIM_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY - queued);
+            List<Row> rows = leaseManager.claim(limit, startup);
             int parallelLoaded = 0;
             int sequentialLoaded = 0;
             
             for (Row row : rows) {
+                String jobId = row.getString("id").orElse("");
                 try {
                     String jobType = row.getString("type").orElse("");
-                    String payloadJson = row.getString("payload").orElse("{}");
-                    Map<String, Object> payload = Odin.getMapper().readValue(payloadJson, Map.class);
+                    Map<String, Object> payload = PayloadCodecs.decode(row.get("payload"));
+                    row.getString("idempotency_key").ifPresent(key -> idempotencyIndex.claim(key, jobId));
+                    
+                    // Create job instance using registry, keeping the ID of the stored row
+                    Job job = jobRegistry.createJob(jobType, jobId, payload);
+                    if (job == null) {
+                        // Give it back, a node that knows the type can pick it up
+                        Logger.warn("Claimed job {} has unknown type {}", jobId, jobType);
+                        leaseManager.release(jobId);
+                        continue;
+                    }
                     
-                    // Create job instance using registry
-                    Job job = jobRegistry.createJob(jobType, payload);
-                    if (job != null) {
-                        // Route to appropriate queue based on execution mode
-                        if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
-                            sequentialJobQueue.submit(job);
-                            sequentialLoaded++;
-                        } else {
-                            jobQueue.offer(new JobInstance(job));
-                            parallelLoaded++;
+                    // Route to appropriate queue based on execution mode
+                    if (job.getExecutionMode() == ExecutionMode.SEQUENTIAL) {
+                        if (!sequentialJobQueue.submit(job)) {
+                            Logger.warn("Claimed job {} could not be queued, sequential queue is full", jobId);
+                            leaseManager.release(jobId);
+                            continue;
                         }
+                        sequentialLoaded++;
+                    } else {
+                        getWorkerPool(job.getType()).restore(job);
+                        parallelLoaded++;
                     }
                 } catch (Exception e) {
-                    Logger.error("Failed to load pending job from row: {}", e.getMessage());
+                    Logger.error("Failed to load claimed job {} from row: {}", jobId, e.getMessage());
+                    leaseManager.release(jobId);
                 }
             }
             
-            Logger.info("Loaded {} parallel jobs and {} sequential jobs from database", 
-                       parallelLoaded, sequentialLoaded);
+            if (startup || !rows.isEmpty()) {
+                Logger.info("Claimed {} parallel jobs and {} sequential jobs from database", 
+                           parallelLoaded, sequentialLoaded);
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to claim pending jobs: {}", e.getMessage());
+        }
+        
+        // Retries only live in the delay queue of the node that scheduled them, take over the ones a dead node left
+        if (!startup) {
+            retryScheduler.loadOverdueRetries();
+        }
+    }
+    
+    /**
+     * Add the idempotency column to a JOBS table created before it existed
+     */
+    private void ensureIdempotencyColumn() {
+        try {
+            if (mimir.hasTable("JOBS") && !mimir.hasColumn("JOBS", "idempotency_key")) {
+                mimir.executeSql("ALTER TABLE JOBS ADD COLUMN idempotency_key TEXT");
+                mimir.executeSql("CREATE UNIQUE INDEX IF NOT EXISTS idx_jobs_idempotency_key ON JOBS (idempotency_key) " +
+                                 "WHERE idempotency_key IS NOT NULL AND status IN " + LIVE_STATUSES_SQL);
+                Logger.info("Added idempotency column to the JOBS table");
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to add idempotency column to the JOBS table: {}", e.getMessage());
+        }
+    }
+    
+    private void renewLeases() {
+        try {
+            leaseManager.renew();
         } catch (Exception e) {
-            Logger.error("Failed to load pending jobs: {}", e.getMessage());
+            Logger.error("Failed to renew job leases: {}", e.getMessage());
         }
     }
     
@@ -386,6 +892,17 @@ public class Freyr implements Runnable {
                 Logger.info("Cleanup: removed {} expired results and {} old jobs", 
                           expiredResults, oldJobs);
             }
+            
+            // Drop the dependencies of jobs that were cleaned up
+            mimir.executeSql("DELETE FROM JOB_DEPENDENCIES WHERE job_id NOT IN (SELECT id FROM JOBS)");
+            
+            // Forget the idempotency keys of jobs that are no longer live
+            Map<String, String> liveKeys = new HashMap<>();
+            for (Row row : mimir.getRows(
+                    "SELECT idempotency_key, id FROM JOBS WHERE idempotency_key IS NOT NULL AND status IN " + LIVE_STATUSES_SQL)) {
+                liveKeys.put(row.getString("idempotency_key").orElse(""), row.getString("id").orElse(""));
+            }
+            idempotencyIndex.retainLive(liveKeys);
         } catch (Exception e) {
             Logger.error("Failed to cleanup expired data: {}", e.getMessage());
         }
@@ -400,93 +917,105 @@ public class Freyr implements Runnable {
      * Job status enum
      */
     public enum JobStatus {
-        PENDING, PROCESSING, COMPLETED, FAILED, TIMEOUT, RETRY_SCHEDULED, DEAD_LETTER
+        PENDING, PROCESSING, COMPLETED, FAILED, TIMEOUT, RETRY_SCHEDULED, DEAD_LETTER, WAITING
     }
     
     /**
-     * Internal job instance wrapper
+     * Process a parallel job on the calling pool worker
+     * Returns true if the job completed, false if it failed
      */
-    private static class JobInstance {
-        final Job job;
-        final long createdAt;
-        
-        JobInstance(Job job) {
-            this.job = job;
-            this.createdAt = Instant.now().toEpochMilli();
+    private boolean processJob(Job job) {
+        try {
+            Logger.trace("Processing parallel job: {}", job);
+            
+            if (!leaseManager.acquireForProcessing(job.getId())) {
+                Logger.warn("Skipping parallel job {}: lease lost or job already taken", job.getId());
+                return false;
+            }
+            job.execute();                
+            updateJobStatus(job.getId(), JobStatus.COMPLETED, null, null, Instant.now().toEpochMilli());
+            workflowCoordinator.onJobCompleted(job);
+            
+            completedJobs.incrementAndGet();
+            Logger.trace("Completed parallel job: {}", job.getId());
+            return true;
+            
+        } catch (Exception e) {
+            Logger.error("Failed to process parallel job {}: {}", job.getId(), e.getMessage(), e);
+            
+            int currentRetries = retryManager.getCurrentRetryCount(job.getId());
+            JobRetryManager.RetryDecision decision = retryManager.shouldRetry(
+                job.getId(), job.getType(), e, currentRetries, job.getMaxRetries());
+            
+            // Schedule for retry
+            if (decision.shouldRetry()) {    
+                long nextRetryAt = retryManager.scheduleRetry(job.getId(), decision.getRetryDelayMs(), e);
+                if (nextRetryAt > 0) {
+                    retryScheduler.schedule(job.getId(), nextRetryAt);
+                }
+                retriedJobs.incrementAndGet();
+                Logger.info("Parallel job {} scheduled for retry: {}", job.getId(), decision.getReason());
+            } else {
+                
+                // Mark as permanently failed and move to DLQ
+                retryManager.markAsPermanentlyFailed(job.getId(), e, decision.getReason());
+                deadLetterQueue.moveToDeadLetterQueue(job.getId(), decision.getReason());
+                failedJobs.incrementAndGet();
+                Logger.warn("Parallel job {} permanently failed and moved to DLQ: {}", job.getId(), decision.getReason());
+            }
+            return false;
+        }
+    }
+    
+    private void updateJobStatus(String jobId, JobStatus status, String errorMessage, Long startedAt, Long completedAt) {
+        try {
+            mimir.executeSql(
+                "UPDATE JOBS SET status = ?, error_message = ?, started_at = ?, completed_at = ? WHERE id = ?",
+                status.name(), errorMessage, startedAt, completedAt, jobId);
+        } catch (Exception e) {
+            Logger.error("Failed to update job status for {}: {}", jobId, e.getMessage());
         }
     }
     
     /**
-     * Worker thread that processes jobs
+     * Get the worker pool a job type is routed to, falling back to the default pool
      */
-    private class JobWorker implements Runnable {
-        @Override
-        public void run() {
-            Thread.currentThread().setName("job-worker-" + Thread.currentThread().threadId());
-            
-            while (running.get()) {
+    private WorkerPool getWorkerPool(String jobType) {
+        WorkerPool pool = workerPools.get(jobRegistry.getPoolName(jobType));
+        return pool != null ? pool : workerPools.get(WorkerPool.DEFAULT_POOL);
+    }
+    
+    /**
+     * Create the default pool plus the named pools from configuration
+     */
+    private Map<String, WorkerPool> createWorkerPools() {
+        Map<String, WorkerPool> pools = new LinkedHashMap<>();
+        pools.put(WorkerPool.DEFAULT_POOL, new WorkerPool(WorkerPool.DEFAULT_POOL, DEFAULT_WORKER_THREADS, 
+                                                          WorkerPool.ThreadType.PLATFORM, DEFAULT_QUEUE_CAPACITY));
+        
+        if (WORKER_POOLS != null && !WORKER_POOLS.isBlank()) {
+            for (String definition : WORKER_POOLS.split(",")) {
                 try {
-                    JobInstance jobInstance = jobQueue.poll(1, TimeUnit.SECONDS);
-                    if (jobInstance != null) {
-                        processJob(jobInstance.job);
+                    WorkerPool pool = WorkerPool.fromDefinition(definition, DEFAULT_QUEUE_CAPACITY);
+                    if (pools.containsKey(pool.getName())) {
+                        Logger.warn("Ignoring duplicate worker pool definition: {}", definition);
+                        continue;
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+                    pools.put(pool.getName(), pool);
                 } catch (Exception e) {
-                    Logger.error("Job worker thread error: {}", e.getMessage(), e);
+                    Logger.error("Ignoring invalid worker pool definition '{}': {}", definition, e.getMessage());
                 }
             }
         }
         
-        private void processJob(Job job) {
-            activeWorkers.incrementAndGet();
-            
-            try {
-                Logger.trace("Processing parallel job: {}", job);
-                
-                updateJobStatus(job.getId(), JobStatus.PROCESSING, null, Instant.now().toEpochMilli(), null);
-                job.execute();                
-                updateJobStatus(job.getId(), JobStatus.COMPLETED, null, null, Instant.now().toEpochMilli());
-                
-                completedJobs.incrementAndGet();
-                Logger.trace("Completed parallel job: {}", job.getId());
-                
-            } catch (Exception e) {
-                Logger.error("Failed to process parallel job {}: {}", job.getId(), e.getMessage(), e);
-                
-                int currentRetries = retryManager.getCurrentRetryCount(job.getId());
-                JobRetryManager.RetryDecision decision = retryManager.shouldRetry(
-                    job.getId(), job.getType(), e, currentRetries, job.getMaxRetries());
-                
-                // Schedule for retry
-                if (decision.shouldRetry()) {    
-                    retryManager.scheduleRetry(job.getId(), decision.getRetryDelayMs(), e);
-                    retriedJobs.incrementAndGet();
-                    Logger.info("Parallel job {} scheduled for retry: {}", job.getId(), decision.getReason());
-                } else {
-                    
-                    // Mark as permanently failed and move to DLQ
-                    retryManager.markAsPermanentlyFailed(job.getId(), e, decision.getReason());
-                    deadLetterQueue.moveToDeadLetterQueue(job.getId(), decision.getReason());
-                    failedJobs.incrementAndGet();
-                    Logger.warn("Parallel job {} permanently failed and moved to DLQ: {}", job.getId(), decision.getReason());
-                }
-                
-            } finally {
-                activeWorkers.decrementAndGet();
-            }
+        Set<String> unknownPools = jobRegistry.getPoolRoutes().values().stream()
+            .filter(name -> !pools.containsKey(name))
+            .collect(Collectors.toSet());
+        if (!unknownPools.isEmpty()) {
+            Logger.warn("Job types routed to undefined worker pools {} will use the default pool", unknownPools);
         }
         
-        private void updateJobStatus(String jobId, JobStatus status, String errorMessage, Long startedAt, Long completedAt) {
-            try {
-                mimir.executeSql(
-                    "UPDATE JOBS SET status = ?, error_message = ?, started_at = ?, completed_at = ? WHERE id = ?",
-                    status.name(), errorMessage, startedAt, completedAt, jobId);
-            } catch (Exception e) {
-                Logger.error("Failed to update job status for {}: {}", jobId, e.getMessage());
-            }
-        }
+        return pools;
     }
     
     /**
@@ -496,6 +1025,20 @@ public class Freyr implements Runnable {
         return deadLetterQueue;
     }
     
+    /**
+     * Get access to the workflow coordinator
+     */
+    public WorkflowCoordinator getWorkflowCoordinator() {
+        return workflowCoordinator;
+    }
+    
+    /**
+     * Get access to the lease manager, for code that puts jobs back into PENDING
+     */
+    public JobLeaseManager getLeaseManager() {
+        return leaseManager;
+    }
+    
     /**
      * Get access to the Retry Scheduler for admin operations
      */
@@ -0,0 +1,56 @@
+package org.ruitx.jaws.components.freyr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IdempotencyIndex - In-memory map of idempotency keys to the job that holds them
+ *
+ * Lets Freyr answer most duplicate submissions without touching the database.
+ * The index is only a cache in front of the unique index on JOBS.idempotency_key:
+ * an entry can point to a job that already finished, so callers check the job is
+ * still live before trusting it, and the entries are rebuilt from the live jobs on
+ * every cleanup run so the map doesn't grow with every key ever submitted.
+ */
+public class IdempotencyIndex {
+
+    private final Map<String, String> jobIdsByKey = new ConcurrentHashMap<>();
+
+    /**
+     * Take a key for a job, unless another job already holds it
+     *
+     * @return null if the key was taken, otherwise the ID of the job holding it
+     */
+    public String claim(String key, String jobId) {
+        return jobIdsByKey.putIfAbsent(key, jobId);
+    }
+
+    /**
+     * Move a key from a job that is no longer live to a new one
+     *
+     * @return false if the key changed hands meanwhile
+     */
+    public boolean replace(String key, String staleJobId, String jobId) {
+        return jobIdsByKey.replace(key, staleJobId, jobId);
+    }
+
+    /**
+     * Give a key back, only if it is still held by the given job
+     */
+    public void release(String key, String jobId) {
+        jobIdsByKey.remove(key, jobId);
+    }
+
+    /**
+     * Drop the entries whose job is no longer live
+     *
+     * @param liveJobIdsByKey keys of the live jobs, as found in the database
+     */
+    public void retainLive(Map<String, String> liveJobIdsByKey) {
+        jobIdsByKey.entrySet().removeIf(entry -> !entry.getValue().equals(liveJobIdsByKey.get(entry.getKey())));
+    }
+
+    public int size() {
+        return jobIdsByKey.size();
+    }
+}
@@ -0,0 +1,19 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.interfaces.Job;
+
+import java.util.Map;
+
+/**
+ * JobFactory - Creates a job of one type from its payload
+ *
+ * Registered per job type in the JobRegistry, usually as a constructor reference
+ * ({@code ParallelPingJob::new}) or as a lambda passing shared dependencies
+ * ({@code payload -> new ImageResizeJob(payload, imageRepo)}), so recreating a job
+ * doesn't go through reflection or build its own repositories and clients.
+ */
+@FunctionalInterface
+public interface JobFactory {
+
+    Job create(Map<String, Object> payload);
+}
@@ -0,0 +1,186 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.components.Mimir;
+import org.ruitx.jaws.types.Row;
+import org.tinylog.Logger;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.LEASE_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.NODE_ID;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JobLeaseManager - Lets several Freyr processes share the same JOBS table
+ *
+ * Every PENDING or PROCESSING job is owned by one node for a limited time (its lease).
+ * A node claims jobs with a single atomic UPDATE ... RETURNING, so two nodes can never
+ * claim the same row, and keeps renewing the leases of the jobs it holds while they wait
+ * or run. When a node dies its leases run out and the jobs are claimed by another node.
+ *
+ * Before a job runs, its row is moved to PROCESSING only if this node still owns it,
+ * so a node that lost a lease (long pause, missed heartbeats) skips the job instead of
+ * running it a second time.
+ */
+public class JobLeaseManager {
+
+    private static final String CLAIM_SQL = """
+        UPDATE JOBS SET owner = ?, lease_until = ?, status = 'PENDING'
+        WHERE id IN (
+            SELECT id FROM JOBS
+            WHERE status IN ('PENDING', 'PROCESSING') AND (lease_until < ? OR owner = ?)
+            ORDER BY priority, created_at
+            LIMIT ?
+        )
+        RETURNING *
+        """;
+
+    private final Mimir mimir = new Mimir();
+    private final String nodeId;
+    private final long leaseMs;
+
+    // Statistics
+    private final AtomicInteger claimedJobs = new AtomicInteger(0);
+    private final AtomicInteger lostLeases = new AtomicInteger(0);
+    private final AtomicInteger renewals = new AtomicInteger(0);
+
+    public JobLeaseManager() {
+        this(NODE_ID, LEASE_MS);
+    }
+
+    public JobLeaseManager(String nodeId, long leaseMs) {
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        this.leaseMs = Math.max(1000, leaseMs);
+        ensureLeaseColumns();
+
+        Logger.info("JobLeaseManager initialized for node {} with a lease of {}ms", this.nodeId, this.leaseMs);
+    }
+
+    /**
+     * Claim up to limit jobs that are unowned or whose lease has run out
+     * The returned rows are owned by this node and back in PENDING.
+     *
+     * @param includeOwn also take rows still leased to this node id (a restart with a fixed node id)
+     */
+    public List<Row> claim(int limit, boolean includeOwn) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long now = Instant.now().toEpochMilli();
+        List<Row> rows = mimir.getRows(CLAIM_SQL, nodeId, now + leaseMs, now, includeOwn ? nodeId : null, limit);
+        claimedJobs.addAndGet(rows.size());
+        return rows;
+    }
+
+    /**
+     * Move a job to PROCESSING, only if this node still owns it and nobody started it yet
+     *
+     * @return false if the lease was lost or the job already ran, the caller must skip it
+     */
+    public boolean acquireForProcessing(String jobId) {
+        long now = Instant.now().toEpochMilli();
+        int updated = mimir.executeSql(
+            "UPDATE JOBS SET status = ?, started_at = ?, lease_until = ? WHERE id = ? AND owner = ? AND status = ?",
+            Freyr.JobStatus.PROCESSING.name(), now, now + leaseMs, jobId, nodeId, Freyr.JobStatus.PENDING.name());
+        if (updated == 0) {
+            lostLeases.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Extend the lease of every job this node holds (heartbeat)
+     */
+    public int renew() {
+        int renewed = mimir.executeSql(
+            "UPDATE JOBS SET lease_until = ? WHERE owner = ? AND status IN ('PENDING', 'PROCESSING')",
+            Instant.now().toEpochMilli() + leaseMs, nodeId);
+        renewals.incrementAndGet();
+        return renewed;
+    }
+
+    /**
+     * Give back the queued jobs this node holds, so other nodes can claim them right away
+     */
+    public int release() {
+        return mimir.executeSql(
+            "UPDATE JOBS SET owner = NULL, lease_until = 0 WHERE owner = ? AND status = 'PENDING'",
+            nodeId);
+    }
+
+    /**
+     * Give back a single job this node holds but can't queue
+     */
+    public int release(String jobId) {
+        return mimir.executeSql(
+            "UPDATE JOBS SET owner = NULL, lease_until = 0 WHERE id = ? AND owner = ?",
+            jobId, nodeId);
+    }
+
+    /**
+     * Get the lease expiry for a job taken by this node now
+     */
+    public long newLeaseUntil() {
+        return Instant.now().toEpochMilli() + leaseMs;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getLeaseMs() {
+        return leaseMs;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("leaseMs", leaseMs);
+        stats.put("claimedJobs", claimedJobs.get());
+        stats.put("lostLeases", lostLeases.get());
+        stats.put("renewals", renewals.get());
+        return stats;
+    }
+
+    /**
+     * Add the lease columns to a JOBS table created before they existed
+     * The schema file is only loaded into empty databases.
+     */
+    private void ensureLeaseColumns() {
+        try {
+            if (!mimir.hasTable("JOBS")) {
+                return;
+            }
+            boolean hasOwner = mimir.hasColumn("JOBS", "owner");
+            boolean hasLease = mimir.hasColumn("JOBS", "lease_until");
+            if (!hasOwner) {
+                mimir.executeSql("ALTER TABLE JOBS ADD COLUMN owner TEXT");
+            }
+            if (!hasLease) {
+                mimir.executeSql("ALTER TABLE JOBS ADD COLUMN lease_until INTEGER DEFAULT 0");
+            }
+            if (!hasOwner || !hasLease) {
+                mimir.executeSql("CREATE INDEX IF NOT EXISTS idx_jobs_lease ON JOBS (status, lease_until)");
+                mimir.executeSql("CREATE INDEX IF NOT EXISTS idx_jobs_owner ON JOBS (owner)");
+                Logger.info("Added lease columns to the JOBS table");
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to add lease columns to the JOBS table: {}", e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
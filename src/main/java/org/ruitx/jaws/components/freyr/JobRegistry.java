@@ -2,19 +2,28 @@ package org.ruitx.jaws.components.freyr;
 
 import org.ruitx.jaws.interfaces.Job;
 import org.ruitx.www.jobs.ExternalApiJob;
+import org.ruitx.www.jobs.ImageFinalizeJob;
 import org.ruitx.www.jobs.ImageResizeJob;
 import org.ruitx.www.jobs.SequentialPingJob;
 import org.ruitx.www.jobs.ParallelPingJob;
 import org.ruitx.www.jobs.BatchLogWriterJob;
+import org.ruitx.www.repository.ImageRepo;
 import org.tinylog.Logger;
 
+import static org.ruitx.jaws.configs.ApplicationConfig.WORKER_POOL_ROUTES;
+
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * JobRegistry manages the mapping between job types and their corresponding job classes.
+ * JobRegistry manages the mapping between job types and their corresponding job classes,
+ * the factory used to create each type, and the worker pool each parallel job type is routed to.
+ *
+ * Jobs are recreated from the database on every claim, retry and DLQ replay, so built-in
+ * types are registered with a JobFactory sharing their dependencies (repositories, clients)
+ * instead of being built reflectively with their own.
  */
 public class JobRegistry {
     
@@ -22,24 +31,32 @@ public class JobRegistry {
     private static final Object lock = new Object();
     
     private final Map<String, Class<? extends Job>> jobTypes = new ConcurrentHashMap<>();
-    private final Map<Class<? extends Job>, Constructor<? extends Job>> constructorCache = new ConcurrentHashMap<>();
+    private final Map<String, JobFactory> factories = new ConcurrentHashMap<>();
+    private final Map<String, String> poolRoutes = new ConcurrentHashMap<>();
+    
+    // Dependencies shared by all jobs created here
+    private final ImageRepo imageRepo = new ImageRepo();
     
     private JobRegistry() {
 
         // Sequential
-        register("sequential-ping", SequentialPingJob.class);
+        register("sequential-ping", SequentialPingJob.class, SequentialPingJob::new);
 
         // Parallel
-        register("parallel-ping", ParallelPingJob.class);
+        register("parallel-ping", ParallelPingJob.class, ParallelPingJob::new);
 
         // External 
-        register("external-api-call", ExternalApiJob.class);
+        register(ExternalApiJob.JOB_TYPE, ExternalApiJob.class, ExternalApiJob::new, "io");
 
         // Image Processing
-        register(ImageResizeJob.JOB_TYPE, ImageResizeJob.class);
+        register(ImageResizeJob.JOB_TYPE, ImageResizeJob.class, payload -> new ImageResizeJob(payload, imageRepo), "cpu");
+        register(ImageFinalizeJob.JOB_TYPE, ImageFinalizeJob.class, payload -> new ImageFinalizeJob(payload, imageRepo));
 
         // Logging System
-        register(BatchLogWriterJob.JOB_TYPE, BatchLogWriterJob.class);
+        register(BatchLogWriterJob.JOB_TYPE, BatchLogWriterJob.class, BatchLogWriterJob::new);
+
+        // Routes from configuration override the ones above (jobType:pool,...)
+        loadPoolRoutes(WORKER_POOL_ROUTES);
 
         Logger.info("JobRegistry initialized with {} job types", jobTypes.size());
     }
@@ -59,47 +76,118 @@ public class JobRegistry {
     }
     
     /**
-     * Register a job type with its corresponding job class
+     * Register a job type with the factory creating its jobs
      */
-    public void register(String jobType, Class<? extends Job> jobClass) {
+    public void register(String jobType, Class<? extends Job> jobClass, JobFactory factory) {
         jobTypes.put(jobType, jobClass);
+        factories.put(jobType, factory);
         Logger.info("Registered job type: {} -> {}", jobType, jobClass.getSimpleName());
     }
     
+    /**
+     * Register a job type with a factory and route it to a named worker pool
+     */
+    public void register(String jobType, Class<? extends Job> jobClass, JobFactory factory, String poolName) {
+        register(jobType, jobClass, factory);
+        routeToPool(jobType, poolName);
+    }
+    
+    /**
+     * Register a job type with its corresponding job class
+     * The class needs a public constructor taking the payload (Map<String, Object>), looked up once here.
+     * Prefer registering a JobFactory, which also avoids the reflective call for every job.
+     */
+    public void register(String jobType, Class<? extends Job> jobClass) {
+        Constructor<? extends Job> constructor;
+        try {
+            constructor = jobClass.getConstructor(Map.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                "Job class " + jobClass.getSimpleName() + " must have a constructor that takes Map<String, Object>", e);
+        }
+        register(jobType, jobClass, payload -> {
+            try {
+                return constructor.newInstance(payload);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to create job of type " + jobType, e);
+            }
+        });
+    }
+    
+    /**
+     * Register a job type and route it to a named worker pool
+     */
+    public void register(String jobType, Class<? extends Job> jobClass, String poolName) {
+        register(jobType, jobClass);
+        routeToPool(jobType, poolName);
+    }
+    
+    /**
+     * Route a job type to a named worker pool
+     */
+    public void routeToPool(String jobType, String poolName) {
+        if (poolName == null || poolName.isBlank()) {
+            poolRoutes.remove(jobType);
+            return;
+        }
+        poolRoutes.put(jobType, poolName);
+        Logger.info("Routed job type: {} -> pool '{}'", jobType, poolName);
+    }
+    
+    /**
+     * Get the worker pool a job type is routed to (default pool if none was set)
+     */
+    public String getPoolName(String jobType) {
+        return poolRoutes.getOrDefault(jobType, WorkerPool.DEFAULT_POOL);
+    }
+    
+    /**
+     * Get all job type to worker pool routes
+     */
+    public Map<String, String> getPoolRoutes() {
+        return new HashMap<>(poolRoutes);
+    }
+    
     /**
      * Create a job instance from type and payload
      */
     public Job createJob(String jobType, Map<String, Object> payload) {
-        Class<? extends Job> jobClass = jobTypes.get(jobType);
-        if (jobClass == null) {
+        JobFactory factory = factories.get(jobType);
+        if (factory == null) {
             Logger.error("Unknown job type: {}", jobType);
             return null;
         }
         
         try {
-            // Get or cache constructor
-            Constructor<? extends Job> constructor = constructorCache.computeIfAbsent(jobClass, clazz -> {
-                try {
-                    // Look for constructor that takes Map<String, Object>
-                    return clazz.getConstructor(Map.class);
-                } catch (NoSuchMethodException e) {
-                    Logger.error("Job class {} must have a constructor that takes Map<String, Object>", clazz.getSimpleName());
-                    return null;
-                }
-            });
-            
-            if (constructor == null) {
-                return null;
-            }
-            
-            return constructor.newInstance(payload);
-            
+            return factory.create(payload);
         } catch (Exception e) {
             Logger.error("Failed to create job of type {}: {}", jobType, e.getMessage(), e);
             return null;
         }
     }
     
+    /**
+     * Recreate a job instance for an existing job row, keeping its job ID
+     * 
+     * @param jobType The job type
+     * @param jobId The ID of the persisted job
+     * @param payload The job payload
+     * @return Job instance with the given ID, or null if type not found
+     */
+    public Job createJob(String jobType, String jobId, Map<String, Object> payload) {
+        Job job = createJob(jobType, payload);
+        if (job == null) {
+            return null;
+        }
+        
+        if (job instanceof BaseJob baseJob) {
+            baseJob.restoreId(jobId);
+        } else if (!jobId.equals(job.getId())) {
+            Logger.warn("Job type {} does not extend BaseJob, restored job {} will run as {}", jobType, jobId, job.getId());
+        }
+        return job;
+    }
+    
     /**
      * Get all registered job types
      */
@@ -114,4 +202,19 @@ public class JobRegistry {
         return jobTypes.containsKey(jobType);
     }
     
+    private void loadPoolRoutes(String routes) {
+        if (routes == null || routes.isBlank()) {
+            return;
+        }
+        
+        for (String route : routes.split(",")) {
+            String[] parts = route.trim().split(":");
+            if (parts.length != 2) {
+                Logger.warn("Ignoring invalid worker pool route: {}", route);
+                continue;
+            }
+            routeToPool(parts[0].trim(), parts[1].trim());
+        }
+    }
+    
 } 
\ No newline at end of file
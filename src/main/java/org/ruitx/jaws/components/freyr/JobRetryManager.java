@@ -149,8 +149,10 @@ public class JobRetryManager {
     /**
      * Schedule a job for retry by updating database fields
      * This method prepares the job for retry without immediately re-queuing it
+     * 
+     * @return the time the retry is due (epoch milliseconds), or -1 if it could not be scheduled
      */
-    public void scheduleRetry(String jobId, long delayMs, Throwable exception) {
+    public long scheduleRetry(String jobId, long delayMs, Throwable exception) {
         try {
             long now = Instant.now().toEpochMilli();
             long nextRetryAt = now + delayMs;
@@ -177,13 +179,14 @@ public class JobRetryManager {
             if (updated > 0) {
                 Logger.info("Scheduled job {} for retry in {}ms (at {})", 
                           jobId, delayMs, Instant.ofEpochMilli(nextRetryAt));
-            } else {
-                Logger.error("Failed to schedule retry for job {} - job not found in database", jobId);
+                return nextRetryAt;
             }
+            Logger.error("Failed to schedule retry for job {} - job not found in database", jobId);
             
         } catch (Exception e) {
             Logger.error("Failed to schedule retry for job {}: {}", jobId, e.getMessage(), e);
         }
+        return -1;
     }
     
     /**
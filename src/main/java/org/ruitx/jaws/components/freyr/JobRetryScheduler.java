@@ -1,7 +1,6 @@
 package org.ruitx.jaws.components.freyr;
 
 import org.ruitx.jaws.components.Mimir;
-import org.ruitx.jaws.components.Odin;
 import org.ruitx.jaws.interfaces.Job;
 import org.ruitx.jaws.types.Row;
 import org.tinylog.Logger;
@@ -9,91 +8,79 @@ import org.tinylog.Logger;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * JobRetryScheduler - Background service for processing delayed retries
- * 
+ *
  * This class handles the scheduled retry processing for jobs that have been marked
- * as RETRY_SCHEDULED. It periodically polls the database for jobs ready to retry
- * and re-queues them to the appropriate job queue.
+ * as RETRY_SCHEDULED. Scheduled retries are held in an in-memory DelayQueue and fired
+ * at their due time, instead of polling the database on a fixed interval.
+ *
+ * The queue is rebuilt from the JOBS table at startup, and a due retry requeues the
+ * existing job row (same job ID) rather than persisting a new one.
  */
 public class JobRetryScheduler {
-    
-    private static final long DEFAULT_CHECK_INTERVAL_MS = 30000L; // 30 seconds
-    private static final int DEFAULT_BATCH_SIZE = 50; // Process up to 50 retries at once
-    
+
     private final Mimir mimir = new Mimir();
     private final JobRegistry jobRegistry;
-    private final JobRetryManager retryManager = new JobRetryManager();
     private final DeadLetterQueue deadLetterQueue;
-    
-    private final long checkIntervalMs;
-    private final int batchSize;
-    
-    private final ScheduledExecutorService scheduler;
+    private final JobLeaseManager leaseManager;
+
+    private final DelayQueue<ScheduledRetry> retryQueue = new DelayQueue<>();
+    private final Map<String, ScheduledRetry> scheduledRetries = new ConcurrentHashMap<>();
+
+    private final ExecutorService dispatcher;
     private final AtomicBoolean running = new AtomicBoolean(false);
-    
+
     // Statistics
     private final AtomicInteger totalRetriesProcessed = new AtomicInteger(0);
     private final AtomicInteger successfulRetries = new AtomicInteger(0);
     private final AtomicInteger failedRetries = new AtomicInteger(0);
     private final AtomicInteger movedToDeadLetter = new AtomicInteger(0);
-    
-    /**
-     * Constructor with default settings and shared DLQ
-     */
-    public JobRetryScheduler(DeadLetterQueue sharedDeadLetterQueue) {
-        this(sharedDeadLetterQueue, DEFAULT_CHECK_INTERVAL_MS, DEFAULT_BATCH_SIZE);
-    }
-    
+
     /**
-     * Constructor with custom settings and shared DLQ
-     * 
+     * Constructor with shared DLQ
+     *
      * @param sharedDeadLetterQueue Shared DeadLetterQueue instance
-     * @param checkIntervalMs How often to check for ready retries (milliseconds)
-     * @param batchSize Maximum number of retries to process per batch
+     * @param leaseManager Lease manager of this node, retried jobs are leased to it
      */
-    public JobRetryScheduler(DeadLetterQueue sharedDeadLetterQueue, long checkIntervalMs, int batchSize) {
+    public JobRetryScheduler(DeadLetterQueue sharedDeadLetterQueue, JobLeaseManager leaseManager) {
         // Use singleton JobRegistry instance
         this.jobRegistry = JobRegistry.getInstance();
         this.deadLetterQueue = sharedDeadLetterQueue; // Use shared instance
-        
-        this.checkIntervalMs = checkIntervalMs;
-        this.batchSize = batchSize;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        this.leaseManager = leaseManager;
+
+        this.dispatcher = Executors.newSingleThreadExecutor(
             r -> new Thread(r, "retry-scheduler"));
-        
-        Logger.info("JobRetryScheduler initialized with {}ms interval, batch size {}, and shared DLQ", 
-                   checkIntervalMs, batchSize);
+
+        Logger.info("JobRetryScheduler initialized with in-memory delay queue and shared DLQ");
     }
-    
+
     /**
      * Start the retry scheduler
-     * This will begin periodic processing of scheduled retries
+     * Rebuilds the pending retries from the database and starts firing them when due
      */
     public void start() {
         if (running.compareAndSet(false, true)) {
             Logger.info("Starting JobRetryScheduler...");
-            
-            // Schedule the retry processing task
-            scheduler.scheduleAtFixedRate(
-                this::processScheduledRetries,
-                0, // Start immediately
-                checkIntervalMs,
-                TimeUnit.MILLISECONDS
-            );
-            
-            Logger.info("JobRetryScheduler started successfully");
+
+            int restored = loadScheduledRetries();
+            dispatcher.execute(this::dispatchRetries);
+
+            Logger.info("JobRetryScheduler started successfully with {} scheduled retries restored", restored);
         } else {
             Logger.warn("JobRetryScheduler is already running");
         }
     }
-    
+
     /**
      * Stop the retry scheduler
      * Waits for current processing to complete before shutting down
@@ -101,31 +88,45 @@ public class JobRetryScheduler {
     public void stop() {
         if (running.compareAndSet(true, false)) {
             Logger.info("Stopping JobRetryScheduler...");
-            
-            scheduler.shutdown();
-            
+
+            dispatcher.shutdown();
+
             try {
                 // Wait for current processing to complete (up to 60 seconds)
-                if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+                if (!dispatcher.awaitTermination(60, TimeUnit.SECONDS)) {
                     Logger.warn("JobRetryScheduler did not terminate gracefully, forcing shutdown");
-                    scheduler.shutdownNow();
+                    dispatcher.shutdownNow();
                 }
             } catch (InterruptedException e) {
-                scheduler.shutdownNow();
+                dispatcher.shutdownNow();
                 Thread.currentThread().interrupt();
             }
-            
+
             Logger.info("JobRetryScheduler stopped successfully");
         }
     }
-    
+
+    /**
+     * Schedule a retry for a job at the given time (epoch milliseconds)
+     * Scheduling the same job again replaces its previous retry time
+     */
+    public void schedule(String jobId, long nextRetryAt) {
+        ScheduledRetry retry = new ScheduledRetry(jobId, nextRetryAt);
+        ScheduledRetry previous = scheduledRetries.put(jobId, retry);
+        if (previous != null) {
+            retryQueue.remove(previous);
+        }
+        retryQueue.offer(retry);
+        Logger.debug("Retry for job {} scheduled at {}", jobId, Instant.ofEpochMilli(nextRetryAt));
+    }
+
     /**
      * Check if the scheduler is running
      */
     public boolean isRunning() {
         return running.get();
     }
-    
+
     /**
      * Get JobRetryScheduler statistics
      */
@@ -135,155 +136,245 @@ public class JobRetryScheduler {
             successfulRetries.get(),
             failedRetries.get(),
             movedToDeadLetter.get(),
+            scheduledRetries.size(),
             running.get()
         );
     }
-    
+
     /**
      * Manually trigger a retry processing cycle (for testing/admin use)
+     * Resyncs the in-memory schedule with the database and fires every retry already due.
      * Returns the number of retries processed
      */
     public int processNow() {
         Logger.info("Manual retry processing triggered");
-        return processScheduledRetries();
+        if (!running.get()) {
+            return 0;
+        }
+
+        loadScheduledRetries();
+
+        int processedCount = 0;
+        ScheduledRetry retry;
+        while ((retry = retryQueue.poll()) != null) {
+            if (fire(retry)) {
+                processedCount++;
+            }
+        }
+        return processedCount;
     }
-    
+
     // Private implementation methods
-    
+
     /**
-     * Main processing method - finds and processes ready retries
+     * Dispatcher loop - blocks until the next retry is due and fires it
      */
-    private int processScheduledRetries() {
-        if (!running.get()) {
-            return 0; // Skip if shutting down
+    private void dispatchRetries() {
+        while (running.get()) {
+            try {
+                // Wait for the next due retry (with timeout to check running status)
+                ScheduledRetry retry = retryQueue.poll(1, TimeUnit.SECONDS);
+                if (retry != null) {
+                    fire(retry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                Logger.error("Retry scheduler dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Fire a due retry, unless it was superseded by a later schedule for the same job
+     */
+    private boolean fire(ScheduledRetry retry) {
+        if (!scheduledRetries.remove(retry.jobId, retry)) {
+            return false; // Rescheduled or already fired
         }
-        
+
         try {
-            long now = Instant.now().toEpochMilli();
-            
-            // Find jobs ready for retry
-            List<Row> readyJobs = mimir.getRows("""
-                SELECT * FROM JOBS 
-                WHERE status = ? AND next_retry_at <= ? 
-                ORDER BY next_retry_at ASC 
-                LIMIT ?
-                """, 
-                Freyr.JobStatus.RETRY_SCHEDULED.name(), now, batchSize
-            );
-            
-            if (readyJobs.isEmpty()) {
-                return 0; // No retries ready
+            if (processRetryJob(retry.jobId)) {
+                totalRetriesProcessed.incrementAndGet();
+                return true;
             }
-            
-            Logger.info("Processing {} scheduled retries", readyJobs.size());
-            
-            int processedCount = 0;
-            for (Row jobRow : readyJobs) {
-                try {
-                    if (processRetryJob(jobRow)) {
-                        processedCount++;
-                    }
-                } catch (Exception e) {
-                    Logger.error("Failed to process retry for job {}: {}", 
-                               jobRow.getString("id").orElse("unknown"), e.getMessage(), e);
-                    failedRetries.incrementAndGet();
+        } catch (Exception e) {
+            Logger.error("Failed to process retry for job {}: {}", retry.jobId, e.getMessage(), e);
+        }
+        failedRetries.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Load every RETRY_SCHEDULED job from the database into the delay queue
+     * Returns the number of retries loaded
+     */
+    private int loadScheduledRetries() {
+        return loadRetries("SELECT id, next_retry_at FROM JOBS WHERE status = ?",
+                           Freyr.JobStatus.RETRY_SCHEDULED.name());
+    }
+
+    /**
+     * Pick up the retries another node scheduled but never fired (it died with them in its delay queue)
+     * Only retries overdue by more than a lease are taken, a live node has fired its own by then.
+     * Firing is guarded on the row status, so a retry taken by two nodes still runs once.
+     * Returns the number of retries loaded
+     */
+    public int loadOverdueRetries() {
+        if (!running.get()) {
+            return 0;
+        }
+        int loaded = loadRetries("SELECT id, next_retry_at FROM JOBS WHERE status = ? AND next_retry_at < ?",
+                                 Freyr.JobStatus.RETRY_SCHEDULED.name(),
+                                 Instant.now().toEpochMilli() - leaseManager.getLeaseMs());
+        if (loaded > 0) {
+            Logger.info("Picked up {} overdue retries left by other nodes", loaded);
+        }
+        return loaded;
+    }
+
+    private int loadRetries(String sql, Object... params) {
+        try {
+            List<Row> rows = mimir.getRows(sql, params);
+
+            int loaded = 0;
+            for (Row row : rows) {
+                String jobId = row.getString("id").orElse(null);
+                if (jobId == null || scheduledRetries.containsKey(jobId)) {
+                    continue;
                 }
+                schedule(jobId, row.getLong("next_retry_at").orElse(0L));
+                loaded++;
             }
-            
-            totalRetriesProcessed.addAndGet(processedCount);
-            
-            if (processedCount > 0) {
-                Logger.info("Successfully processed {} retry jobs", processedCount);
-            }
-            
-            return processedCount;
-            
+            return loaded;
         } catch (Exception e) {
-            Logger.error("Failed to process scheduled retries: {}", e.getMessage(), e);
+            Logger.error("Failed to load scheduled retries: {}", e.getMessage(), e);
             return 0;
         }
     }
-    
+
     /**
      * Process a single retry job
      * Returns true if successfully processed, false otherwise
      */
-    private boolean processRetryJob(Row jobRow) {
-        String jobId = jobRow.getString("id").orElse(null);
-        if (jobId == null) {
-            Logger.error("Cannot process retry - job ID is null");
-            return false;
-        }
-        
+    private boolean processRetryJob(String jobId) {
         try {
+            Row jobRow = mimir.getRow("SELECT * FROM JOBS WHERE id = ? AND status = ?",
+                                     jobId, Freyr.JobStatus.RETRY_SCHEDULED.name());
+            if (jobRow == null) {
+                Logger.debug("Skipping retry for job {} - no longer scheduled for retry", jobId);
+                return false;
+            }
+
+            // The row may have been rescheduled further out since this retry was queued
+            long nextRetryAt = jobRow.getLong("next_retry_at").orElse(0L);
+            if (nextRetryAt > Instant.now().toEpochMilli()) {
+                schedule(jobId, nextRetryAt);
+                return false;
+            }
+
             // Extract job information
             String jobType = jobRow.getString("type").orElse("");
-            String payloadJson = jobRow.getString("payload").orElse("{}");
-            String executionMode = jobRow.getString("execution_mode").orElse("PARALLEL");
             int currentRetries = jobRow.getInt("current_retries").orElse(0);
             int maxRetries = jobRow.getInt("max_retries").orElse(3);
-            
+
             // Check if we've exceeded max retries (safety check)
             if (currentRetries >= maxRetries) {
-                Logger.warn("Job {} has exceeded max retries ({}/{}), moving to dead letter queue", 
+                Logger.warn("Job {} has exceeded max retries ({}/{}), moving to dead letter queue",
                           jobId, currentRetries, maxRetries);
-                
-                String reason = String.format("Max retries exceeded during scheduled retry (%d/%d)", 
+
+                String reason = String.format("Max retries exceeded during scheduled retry (%d/%d)",
                                              currentRetries, maxRetries);
                 if (deadLetterQueue.moveToDeadLetterQueue(jobId, reason)) {
                     movedToDeadLetter.incrementAndGet();
                 }
                 return true; // Processed (moved to DLQ)
             }
-            
+
             // Parse the job payload
-            Map<String, Object> payload = Odin.getMapper().readValue(payloadJson, Map.class);
-            
-            // Create a new job instance for retry
-            Job retryJob = jobRegistry.createJob(jobType, payload);
+            Map<String, Object> payload = PayloadCodecs.decode(jobRow.get("payload"));
+
+            // Rebuild the job instance, keeping the ID of the existing row
+            Job retryJob = jobRegistry.createJob(jobType, jobId, payload);
             if (retryJob == null) {
                 Logger.error("Cannot create retry job - unknown job type: {}", jobType);
                 return false;
             }
-            
+
             // Update the job status back to PENDING and reset for retry
             long now = Instant.now().toEpochMilli();
             int updated = mimir.executeSql("""
-                UPDATE JOBS SET 
+                UPDATE JOBS SET
                     status = ?,
                     error_message = NULL,
                     next_retry_at = 0,
                     retry_backoff_ms = 1000,
-                    last_retry_at = ?
-                WHERE id = ?
+                    last_retry_at = ?,
+                    owner = ?,
+                    lease_until = ?
+                WHERE id = ? AND status = ?
                 """,
                 Freyr.JobStatus.PENDING.name(),
                 now,
-                jobId
+                leaseManager.getNodeId(),
+                leaseManager.newLeaseUntil(),
+                jobId,
+                Freyr.JobStatus.RETRY_SCHEDULED.name()
             );
-            
+
             if (updated == 0) {
-                Logger.error("Failed to update job status for retry: {}", jobId);
+                // Another node fired this retry first, or the job left RETRY_SCHEDULED meanwhile
+                Logger.debug("Skipping retry for job {} - already taken", jobId);
+                return false;
+            }
+
+            // Requeue the existing row, Freyr routes it to the correct queue based on execution mode
+            if (!Freyr.getInstance().requeue(retryJob)) {
+                // The row is PENDING again, give it back so the claim cycle can run it here or elsewhere
+                Logger.error("Failed to requeue retry job: {}", jobId);
+                leaseManager.release(jobId);
                 return false;
             }
-            
-            Freyr jobQueue = Freyr.getInstance();
 
-            // JobQueue will route to the correct queue based on execution mode
-            jobQueue.submit(retryJob);
-            
             successfulRetries.incrementAndGet();
-            Logger.info("Successfully re-queued retry job: {} (attempt {}/{})", 
+            Logger.info("Successfully re-queued retry job: {} (attempt {}/{})",
                        jobId, currentRetries + 1, maxRetries);
-            
+
             return true;
-            
+
         } catch (Exception e) {
             Logger.error("Failed to process retry job {}: {}", jobId, e.getMessage(), e);
             return false;
         }
     }
-    
+
+    /**
+     * A retry waiting in the delay queue until its due time
+     */
+    private static class ScheduledRetry implements Delayed {
+        final String jobId;
+        final long dueAt;
+
+        ScheduledRetry(String jobId, long dueAt) {
+            this.jobId = jobId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof ScheduledRetry retry) {
+                return Long.compare(dueAt, retry.dueAt);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
     /**
      * Retry scheduler statistics
      */
@@ -292,21 +383,25 @@ public class JobRetryScheduler {
         private final int successfulRetries;
         private final int failedRetries;
         private final int movedToDeadLetter;
+        private final int pendingRetries;
         private final boolean running;
-        
-        public RetrySchedulerStatistics(int totalRetriesProcessed, int successfulRetries, 
-                                      int failedRetries, int movedToDeadLetter, boolean running) {
+
+        public RetrySchedulerStatistics(int totalRetriesProcessed, int successfulRetries,
+                                      int failedRetries, int movedToDeadLetter,
+                                      int pendingRetries, boolean running) {
             this.totalRetriesProcessed = totalRetriesProcessed;
             this.successfulRetries = successfulRetries;
             this.failedRetries = failedRetries;
             this.movedToDeadLetter = movedToDeadLetter;
+            this.pendingRetries = pendingRetries;
             this.running = running;
         }
-        
+
         public int getTotalRetriesProcessed() { return totalRetriesProcessed; }
         public int getSuccessfulRetries() { return successfulRetries; }
         public int getFailedRetries() { return failedRetries; }
         public int getMovedToDeadLetter() { return movedToDeadLetter; }
+        public int getPendingRetries() { return pendingRetries; }
         public boolean isRunning() { return running; }
     }
-} 
\ No newline at end of file
+}
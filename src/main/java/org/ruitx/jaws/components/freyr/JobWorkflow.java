@@ -0,0 +1,104 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.interfaces.Job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JobWorkflow - A set of jobs with dependencies between them (a DAG)
+ *
+ * A job only starts once all the jobs it depends on have completed, jobs without
+ * dependencies start right away. A job depending on several others is a fan-in:
+ * when it starts, its payload holds the results of its parents under "parentResults".
+ * If a job fails for good, every job depending on it (directly or not) fails too.
+ *
+ * Parents must be added before the jobs depending on them, so a workflow can never
+ * contain a cycle.
+ *
+ * <pre>
+ * JobWorkflow workflow = new JobWorkflow()
+ *     .add(thumbnailJob)
+ *     .add(largeJob)
+ *     .add(finalizeJob, thumbnailJob, largeJob);
+ * String workflowId = Freyr.getInstance().submitWorkflow(workflow);
+ * </pre>
+ */
+public class JobWorkflow {
+
+    public static final String WORKFLOW_ID_KEY = "workflowId";
+    public static final String PARENT_RESULTS_KEY = "parentResults";
+
+    private final String id = UUID.randomUUID().toString();
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<String, List<String>> parentIds = new LinkedHashMap<>();
+
+    /**
+     * Add a job, starting once all the given jobs have completed
+     *
+     * @throws IllegalArgumentException if the job was already added or a parent wasn't added yet
+     */
+    public JobWorkflow add(Job job, Job... dependsOn) {
+        if (job == null) {
+            throw new IllegalArgumentException("Job is null");
+        }
+        if (jobs.containsKey(job.getId())) {
+            throw new IllegalArgumentException("Job " + job.getId() + " is already part of the workflow");
+        }
+
+        List<String> parents = new ArrayList<>();
+        for (Job parent : dependsOn) {
+            if (parent == null || !jobs.containsKey(parent.getId())) {
+                throw new IllegalArgumentException("Parents must be added to the workflow before the jobs depending on them");
+            }
+            if (!parents.contains(parent.getId())) {
+                parents.add(parent.getId());
+            }
+        }
+
+        try {
+            job.getPayload().put(WORKFLOW_ID_KEY, id);
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalArgumentException("Workflow jobs need a mutable payload", e);
+        }
+
+        jobs.put(job.getId(), job);
+        parentIds.put(job.getId(), parents);
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get all jobs, in the order they were added (parents before children)
+     */
+    public List<Job> getJobs() {
+        return List.copyOf(jobs.values());
+    }
+
+    /**
+     * Get the jobs without dependencies, which start as soon as the workflow is submitted
+     */
+    public List<Job> getRoots() {
+        return jobs.values().stream()
+            .filter(job -> parentIds.get(job.getId()).isEmpty())
+            .toList();
+    }
+
+    /**
+     * Get the IDs of the jobs a job depends on
+     */
+    public List<String> getParentIds(String jobId) {
+        return Collections.unmodifiableList(parentIds.getOrDefault(jobId, List.of()));
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+}
@@ -0,0 +1,39 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.components.Odin;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * JsonPayloadCodec - JSON payloads, the default
+ *
+ * Small JSON payloads are stored as TEXT (readable in the database and the backoffice),
+ * only compressed ones go through the binary header.
+ */
+public class JsonPayloadCodec implements PayloadCodec {
+
+    public static final byte ID = 1;
+    public static final String NAME = "JSON";
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Map<String, Object> payload) throws IOException {
+        return Odin.getMapper().writeValueAsBytes(payload);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decode(byte[] bytes) throws IOException {
+        return Odin.getMapper().readValue(bytes, Map.class);
+    }
+}
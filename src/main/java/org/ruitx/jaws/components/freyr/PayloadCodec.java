@@ -0,0 +1,32 @@
+package org.ruitx.jaws.components.freyr;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * PayloadCodec - Turns a job payload into the bytes stored in the JOBS table and back
+ *
+ * Each codec has a unique id, written in the header of every stored payload, so rows
+ * written with any registered codec can always be read back whatever the job or the
+ * configuration currently uses. New codecs (Smile, CBOR, ...) are added with
+ * {@link PayloadCodecs#register(PayloadCodec)}.
+ */
+public interface PayloadCodec {
+
+    /**
+     * Id written in the payload header, unique among the registered codecs
+     */
+    byte getId();
+
+    /**
+     * Name used in the configuration (freyr.payload.codec)
+     */
+    String getName();
+
+    byte[] encode(Map<String, Object> payload) throws IOException;
+
+    /**
+     * Decode a payload, the returned map must be mutable
+     */
+    Map<String, Object> decode(byte[] bytes) throws IOException;
+}
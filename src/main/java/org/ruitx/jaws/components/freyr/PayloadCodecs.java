@@ -0,0 +1,200 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.components.Odin;
+import org.tinylog.Logger;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.PAYLOAD_CODEC;
+import static org.ruitx.jaws.configs.ApplicationConfig.PAYLOAD_COMPRESS_THRESHOLD;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * PayloadCodecs - Reads and writes the payload column of the JOBS table
+ *
+ * A payload is stored either as JSON TEXT (the JSON codec, below the compression
+ * threshold, and every row written before codecs existed) or as a BLOB with a 3 byte
+ * header: a magic byte, the id of the codec that wrote it and flags (deflated or not).
+ * Reading looks at what is stored, not at the job or the configuration, so switching
+ * codecs never breaks existing rows.
+ *
+ * Encoded payloads of at least freyr.payload.compress_threshold bytes are deflated,
+ * when that makes them smaller.
+ */
+public final class PayloadCodecs {
+
+    public static final PayloadCodec JSON = new JsonPayloadCodec();
+    public static final PayloadCodec BINARY = new BinaryPayloadCodec();
+
+    private static final byte MAGIC = (byte) 0xFA;
+    private static final int HEADER_SIZE = 3;
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final Map<Byte, PayloadCodec> codecsById = new ConcurrentHashMap<>();
+    private static final Map<String, PayloadCodec> codecsByName = new ConcurrentHashMap<>();
+
+    static {
+        register(JSON);
+        register(BINARY);
+    }
+
+    private PayloadCodecs() {
+    }
+
+    /**
+     * Register a codec, so payloads can be written with it and rows it wrote can be read back
+     *
+     * @throws IllegalArgumentException if another codec already uses its id
+     */
+    public static void register(PayloadCodec codec) {
+        PayloadCodec existing = codecsById.putIfAbsent(codec.getId(), codec);
+        if (existing != null && existing != codec) {
+            throw new IllegalArgumentException("Payload codec id " + codec.getId() + " is already used by " + existing.getName());
+        }
+        codecsByName.put(codec.getName().toUpperCase(), codec);
+    }
+
+    /**
+     * Get a registered codec by name, or the JSON codec if there is none with that name
+     */
+    public static PayloadCodec forName(String name) {
+        PayloadCodec codec = name != null ? codecsByName.get(name.trim().toUpperCase()) : null;
+        return codec != null ? codec : JSON;
+    }
+
+    /**
+     * Get the codec used by jobs that don't choose one (freyr.payload.codec)
+     */
+    public static PayloadCodec getDefault() {
+        return forName(PAYLOAD_CODEC);
+    }
+
+    /**
+     * Encode a payload into the value stored in the payload column (String or byte[])
+     */
+    public static Object encode(Map<String, Object> payload, PayloadCodec codec) throws IOException {
+        return encode(payload, codec, PAYLOAD_COMPRESS_THRESHOLD);
+    }
+
+    /**
+     * Encode a payload, deflating it from compressThreshold bytes (0 or less = never)
+     */
+    public static Object encode(Map<String, Object> payload, PayloadCodec codec, int compressThreshold) throws IOException {
+        if (codec == null) {
+            codec = getDefault();
+        }
+        byte[] body = codec.encode(payload != null ? payload : Map.of());
+
+        boolean deflated = false;
+        if (compressThreshold > 0 && body.length >= compressThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                deflated = true;
+            }
+        }
+
+        if (codec == JSON && !deflated) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        byte[] stored = new byte[HEADER_SIZE + body.length];
+        stored[0] = MAGIC;
+        stored[1] = codec.getId();
+        stored[2] = (byte) (deflated ? FLAG_DEFLATED : 0);
+        System.arraycopy(body, 0, stored, HEADER_SIZE, body.length);
+        return stored;
+    }
+
+    /**
+     * Decode the value of a payload column, whichever codec wrote it
+     * Null gives an empty payload.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> decode(Object stored) throws IOException {
+        if (stored == null) {
+            return new HashMap<>();
+        }
+        if (stored instanceof String json) {
+            return Odin.getMapper().readValue(json, Map.class);
+        }
+        if (!(stored instanceof byte[] bytes)) {
+            throw new IOException("Unexpected payload column type " + stored.getClass().getName());
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC) {
+            // A JSON payload stored as a BLOB by something else
+            return Odin.getMapper().readValue(bytes, Map.class);
+        }
+
+        PayloadCodec codec = codecsById.get(bytes[1]);
+        if (codec == null) {
+            throw new IOException("Unknown payload codec id " + bytes[1]);
+        }
+        byte[] body = Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length);
+        if ((bytes[2] & FLAG_DEFLATED) != 0) {
+            body = inflate(body);
+        }
+        return codec.decode(body);
+    }
+
+    /**
+     * Decode the value of a payload column as JSON text, for display
+     */
+    public static String toJson(Object stored) {
+        if (stored instanceof String json) {
+            return json;
+        }
+        try {
+            return Odin.getMapper().writeValueAsString(decode(stored));
+        } catch (IOException e) {
+            Logger.warn("Failed to decode payload: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated compressed payload");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
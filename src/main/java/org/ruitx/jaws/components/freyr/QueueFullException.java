@@ -0,0 +1,26 @@
+package org.ruitx.jaws.components.freyr;
+
+/**
+ * Thrown when Freyr can't admit a job because the target queue is full.
+ * 
+ * Carries a hint, in seconds, for how long callers should wait before trying again.
+ */
+public class QueueFullException extends RuntimeException {
+    
+    private final String queueName;
+    private final long retryAfterSeconds;
+    
+    public QueueFullException(String queueName, long retryAfterSeconds) {
+        super("Queue is full: " + queueName);
+        this.queueName = queueName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public String getQueueName() {
+        return queueName;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -4,58 +4,97 @@ import org.ruitx.jaws.components.Mimir;
 import org.ruitx.jaws.interfaces.Job;
 import org.tinylog.Logger;
 
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_ADMISSION_POLICY;
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_BLOCK_TIMEOUT_MS;
 import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_CAPACITY;
+import static org.ruitx.jaws.configs.ApplicationConfig.SEQUENTIAL_LANES;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * SequentialJobQueue - Processes jobs one at a time in FIFO order
+ * SequentialJobQueue - Processes jobs one at a time in FIFO order, per ordering key
+ * 
+ * Jobs are partitioned into lanes by their ordering key (see Job.getOrderingKey()).
+ * Each lane has a single worker thread, so jobs sharing a key run strictly in the
+ * order they were submitted, while jobs with different keys can run in parallel.
+ * Jobs without a key share the default key and keep the old global FIFO behaviour.
  */
 public class SequentialJobQueue {
     
     private static final int DEFAULT_QUEUE_CAPACITY = QUEUE_CAPACITY;
+    private static final int DEFAULT_LANES = SEQUENTIAL_LANES;
+    public static final String DEFAULT_ORDERING_KEY = "default";
     
     private final Mimir mimir = new Mimir();
-    private final BlockingQueue<Job> sequentialQueue;
-    private final ExecutorService singleWorker;
+    private final List<Lane> lanes;
     private final JobRetryManager retryManager;
     private final DeadLetterQueue deadLetterQueue;
+    private final JobRetryScheduler retryScheduler;
+    private final JobLeaseManager leaseManager;
+    private final WorkflowCoordinator workflowCoordinator;
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicBoolean processingJob = new AtomicBoolean(false);
     
     // Statistics
     private final AtomicInteger totalJobs = new AtomicInteger(0);   
     private final AtomicInteger completedJobs = new AtomicInteger(0);
     private final AtomicInteger failedJobs = new AtomicInteger(0);
     private final AtomicInteger retriedJobs = new AtomicInteger(0);
+    private final AtomicInteger rejectedJobs = new AtomicInteger(0);
     
-    public SequentialJobQueue(DeadLetterQueue sharedDeadLetterQueue) {
-        this.sequentialQueue = new LinkedBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
-        this.singleWorker = Executors.newSingleThreadExecutor(
-            r -> new Thread(r, "sequential-job-worker"));
+    // Lanes keep strict FIFO order, so only BLOCK changes how a full lane is handled
+    private final boolean blockWhenFull = AdmissionPolicy.fromString(QUEUE_ADMISSION_POLICY) == AdmissionPolicy.BLOCK;
+    
+    public SequentialJobQueue(DeadLetterQueue sharedDeadLetterQueue, JobRetryScheduler retryScheduler,
+                              JobLeaseManager leaseManager, WorkflowCoordinator workflowCoordinator) {
+        this(sharedDeadLetterQueue, retryScheduler, leaseManager, workflowCoordinator, DEFAULT_LANES);
+    }
+    
+    public SequentialJobQueue(DeadLetterQueue sharedDeadLetterQueue, JobRetryScheduler retryScheduler,
+                              JobLeaseManager leaseManager, WorkflowCoordinator workflowCoordinator, int laneCount) {
+        int count = Math.max(1, laneCount);
+        this.lanes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lanes.add(new Lane(i));
+        }
         this.retryManager = new JobRetryManager();
         this.deadLetterQueue = sharedDeadLetterQueue;
+        this.retryScheduler = retryScheduler;
+        this.leaseManager = leaseManager;
+        this.workflowCoordinator = workflowCoordinator;
         
-        Logger.info("SequentialJobQueue initialized with queue capacity of {} and shared DLQ", DEFAULT_QUEUE_CAPACITY);
+        Logger.info("SequentialJobQueue initialized with {} lanes, queue capacity of {} per lane and shared DLQ", 
+                   count, DEFAULT_QUEUE_CAPACITY);
     }
     
     /**
      * Submit a job for sequential processing
+     * The job is queued on the lane owning its ordering key, waiting for room if the BLOCK policy is set
      */
     public boolean submit(Job job) {
         try {
-            boolean added = sequentialQueue.offer(job);
+            Lane lane = laneFor(job.getOrderingKey());
+            boolean added = blockWhenFull
+                ? lane.queue.offer(job, QUEUE_BLOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                : lane.queue.offer(job);
             if (added) {
                 totalJobs.incrementAndGet();
-                Logger.debug("Sequential job queued: {}", job);
+                Logger.debug("Sequential job queued on lane {}: {}", lane.index, job);
             } else {
+                rejectedJobs.incrementAndGet();
                 Logger.warn("Sequential queue is full, rejected job: {}", job);
             }
             return added;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedJobs.incrementAndGet();
+            return false;
         } catch (Exception e) {
             Logger.error("Failed to submit sequential job: {}", e.getMessage(), e);
             return false;
@@ -68,8 +107,10 @@ public class SequentialJobQueue {
     public void start() {
         if (running.compareAndSet(false, true)) {
             Logger.info("Starting SequentialJobQueue processing system...");
-            singleWorker.execute(new SequentialJobWorker());
-            Logger.info("SequentialJobQueue started with single worker thread");
+            for (Lane lane : lanes) {
+                lane.worker.execute(new SequentialJobWorker(lane));
+            }
+            Logger.info("SequentialJobQueue started with {} lane worker threads", lanes.size());
         }
     }
     
@@ -81,16 +122,24 @@ public class SequentialJobQueue {
         if (running.compareAndSet(true, false)) {
             Logger.info("Shutting down SequentialJobQueue processing system...");
             
-            singleWorker.shutdown();
+            for (Lane lane : lanes) {
+                lane.worker.shutdown();
+            }
             
             try {
-                // Wait for current job to complete (up to 60 seconds)
-                if (!singleWorker.awaitTermination(60, TimeUnit.SECONDS)) {
-                    Logger.warn("Sequential worker did not terminate gracefully, forcing shutdown");
-                    singleWorker.shutdownNow();
+                // Wait for current jobs to complete (up to 60 seconds)
+                long deadline = System.currentTimeMillis() + 60000;
+                for (Lane lane : lanes) {
+                    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    if (!lane.worker.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                        Logger.warn("Sequential lane {} worker did not terminate gracefully, forcing shutdown", lane.index);
+                        lane.worker.shutdownNow();
+                    }
                 }
             } catch (InterruptedException e) {
-                singleWorker.shutdownNow();
+                for (Lane lane : lanes) {
+                    lane.worker.shutdownNow();
+                }
                 Thread.currentThread().interrupt();
             }
             
@@ -102,44 +151,117 @@ public class SequentialJobQueue {
      * Get queue statistics
      */
     public Map<String, Object> getStatistics() {
+        List<Map<String, Object>> laneStats = new ArrayList<>();
+        for (Lane lane : lanes) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("lane", lane.index);
+            stats.put("queueSize", lane.queue.size());
+            stats.put("remainingCapacity", lane.queue.remainingCapacity());
+            stats.put("processingJob", lane.processingJob.get());
+            stats.put("completedJobs", lane.completedJobs.get());
+            laneStats.add(stats);
+        }
+        
         return Map.of(
             "totalJobs", totalJobs.get(),
             "completedJobs", completedJobs.get(),
             "failedJobs", failedJobs.get(),
             "retriedJobs", retriedJobs.get(),
-            "queueSize", sequentialQueue.size(),
-            "processingJob", processingJob.get(),
+            "rejectedJobs", rejectedJobs.get(),
+            "queueSize", getQueueSize(),
+            "processingJob", isProcessingJob(),
+            "laneCount", getLaneCount(),
+            "lanes", laneStats,
             "running", running.get()
         );
     }
     
     /**
-     * Get current queue size
+     * Get current queue size across all lanes
      */
     public int getQueueSize() {
-        return sequentialQueue.size();
+        return lanes.stream().mapToInt(lane -> lane.queue.size()).sum();
+    }
+    
+    /**
+     * Get the number of ordered lanes
+     */
+    public int getLaneCount() {
+        return lanes.size();
     }
     
     /**
-     * Check if currently processing a job
+     * Check if any lane is currently processing a job
      */
     public boolean isProcessingJob() {
-        return processingJob.get();
+        return lanes.stream().anyMatch(lane -> lane.processingJob.get());
+    }
+    
+    /**
+     * Get the lane index an ordering key is assigned to
+     * The same key always maps to the same lane for the lifetime of the queue
+     */
+    public int getLaneIndex(String orderingKey) {
+        return laneFor(orderingKey).index;
+    }
+    
+    /**
+     * Get how many more jobs the lane owning the given ordering key can accept
+     */
+    public int getRemainingCapacity(String orderingKey) {
+        return laneFor(orderingKey).queue.remainingCapacity();
+    }
+    
+    private Lane laneFor(String orderingKey) {
+        String key = orderingKey != null && !orderingKey.isEmpty() ? orderingKey : DEFAULT_ORDERING_KEY;
+        return lanes.get(Math.floorMod(spread(key.hashCode()), lanes.size()));
+    }
+    
+    /**
+     * Mix the hash bits so keys with similar hash codes spread over the lanes
+     */
+    private static int spread(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+    
+    /**
+     * A single ordered lane: one FIFO queue drained by one worker thread
+     */
+    private static class Lane {
+        final int index;
+        final BlockingQueue<Job> queue = new LinkedBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
+        final ExecutorService worker;
+        final AtomicBoolean processingJob = new AtomicBoolean(false);
+        final AtomicInteger completedJobs = new AtomicInteger(0);
+        
+        Lane(int index) {
+            this.index = index;
+            this.worker = Executors.newSingleThreadExecutor(
+                r -> new Thread(r, "sequential-job-worker-" + index));
+        }
     }
     
     /**
-     * Worker thread that processes jobs sequentially
+     * Worker thread that processes the jobs of one lane sequentially
      */
     private class SequentialJobWorker implements Runnable {
+        private final Lane lane;
+        
+        SequentialJobWorker(Lane lane) {
+            this.lane = lane;
+        }
+        
         @Override
         public void run() {
-            Thread.currentThread().setName("sequential-job-worker");
-            Logger.info("Sequential job worker started");
+            Logger.info("Sequential job worker started for lane {}", lane.index);
             
             while (running.get()) {
                 try {
                     // Wait for next job (with timeout to check running status)
-                    Job job = sequentialQueue.poll(1, TimeUnit.SECONDS);
+                    Job job = lane.queue.poll(1, TimeUnit.SECONDS);
                     if (job != null) {
                         processJob(job);
                     }
@@ -152,20 +274,25 @@ public class SequentialJobQueue {
                 }
             }
             
-            Logger.info("Sequential job worker stopped");
+            Logger.info("Sequential job worker stopped for lane {}", lane.index);
         }
         
         private void processJob(Job job) {
-            processingJob.set(true);
+            lane.processingJob.set(true);
             
             try {
                 Logger.debug("Processing sequential job: {}", job);
                 
-                updateJobStatus(job.getId(), Freyr.JobStatus.PROCESSING, null, Instant.now().toEpochMilli(), null);
+                if (!leaseManager.acquireForProcessing(job.getId())) {
+                    Logger.warn("Skipping sequential job {}: lease lost or job already taken", job.getId());
+                    return;
+                }
                 job.execute();
                 updateJobStatus(job.getId(), Freyr.JobStatus.COMPLETED, null, null, Instant.now().toEpochMilli());
+                workflowCoordinator.onJobCompleted(job);
                 
                 completedJobs.incrementAndGet();
+                lane.completedJobs.incrementAndGet();
                 Logger.debug("Completed sequential job: {}", job.getId());
                 
             } catch (Exception e) {
@@ -177,7 +304,10 @@ public class SequentialJobQueue {
                 
                 // Schedule for retry
                 if (decision.shouldRetry()) {
-                    retryManager.scheduleRetry(job.getId(), decision.getRetryDelayMs(), e);
+                    long nextRetryAt = retryManager.scheduleRetry(job.getId(), decision.getRetryDelayMs(), e);
+                    if (nextRetryAt > 0) {
+                        retryScheduler.schedule(job.getId(), nextRetryAt);
+                    }
                     retriedJobs.incrementAndGet();
                     Logger.info("Sequential job {} scheduled for retry: {}", job.getId(), decision.getReason());
                 } else {
@@ -189,7 +319,7 @@ public class SequentialJobQueue {
                 }
                 
             } finally {
-                processingJob.set(false);
+                lane.processingJob.set(false);
             }
         }
         
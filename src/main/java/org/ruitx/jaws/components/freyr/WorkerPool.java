@@ -0,0 +1,547 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.interfaces.Job;
+import org.tinylog.Logger;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_ADMISSION_POLICY;
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_AGING_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_BLOCK_TIMEOUT_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.QUEUE_DISPATCH;
+
+/**
+ * WorkerPool - A named bulkhead for parallel jobs
+ *
+ * Each pool owns its own priority queue, its own workers and its own statistics,
+ * so a burst of one job type can only exhaust the workers of the pool it is routed to.
+ *
+ * PLATFORM threads suit CPU-bound work (sized to the cores available),
+ * VIRTUAL threads suit IO-bound work that mostly waits on sockets or sleeps.
+ *
+ * The queue is bounded by its capacity and the AdmissionPolicy decides what happens
+ * when it is full (reject, block for a while, or shed the lowest priority job).
+ *
+ * Jobs age while they wait: each one is ordered by a virtual deadline of
+ * createdAt + priority * agingMs, so a waiting job gains one priority level every agingMs
+ * and a steady stream of high priority jobs can't starve low priority ones.
+ * The deadline is fixed at enqueue time, so the heap stays O(log n) with no re-sorting.
+ *
+ * With STEALING dispatch every worker owns a shard (its own heap), submitters spread jobs
+ * across shards preferring idle workers, and a worker with an empty shard steals the head
+ * of another one. Priority order is kept per shard, so it is approximate across the pool,
+ * but submitters and workers no longer all contend on one queue lock.
+ * SHARED dispatch keeps a single heap polled by every worker.
+ */
+public class WorkerPool {
+
+    public static final String DEFAULT_POOL = "default";
+
+    // Strict priority order, then FIFO among equal priorities
+    private static final Comparator<JobInstance> BY_PRIORITY =
+        Comparator.comparingInt((JobInstance ji) -> ji.job.getPriority()).thenComparingLong(ji -> ji.sequence);
+
+    // How long an idle worker parks on its own shard before trying to steal again
+    private static final long STEAL_INTERVAL_MS = 20;
+    private static final long SHARED_POLL_MS = 1000;
+
+    private final String name;
+    private final int concurrency;
+    private final ThreadType threadType;
+    private final int capacity;
+    private final AdmissionPolicy admissionPolicy;
+    private final long blockTimeoutMs;
+    private final long agingMs;
+    private final DispatchMode dispatchMode;
+    private final Shard[] shards;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger nextWorker = new AtomicInteger(0);
+    
+    // Admission control, the shards are unbounded so capacity is enforced on this counter.
+    // The lock is only taken when the pool is full.
+    private final AtomicInteger queuedJobs = new AtomicInteger(0);
+    private final ReentrantLock admissionLock = new ReentrantLock();
+    private final Condition notFull = admissionLock.newCondition();
+    private final AtomicLong sequence = new AtomicLong(0);
+
+    // Statistics
+    private final AtomicInteger activeWorkers = new AtomicInteger(0);
+    private final AtomicInteger totalJobs = new AtomicInteger(0);
+    private final AtomicInteger completedJobs = new AtomicInteger(0);
+    private final AtomicInteger failedJobs = new AtomicInteger(0);
+    private final AtomicInteger rejectedJobs = new AtomicInteger(0);
+    private final AtomicInteger shedJobs = new AtomicInteger(0);
+    private final AtomicLong totalWaitMs = new AtomicLong(0);
+    private final AtomicLong maxWaitMs = new AtomicLong(0);
+    private final AtomicInteger dequeuedJobs = new AtomicInteger(0);
+    private final AtomicLong stolenJobs = new AtomicLong(0);
+
+    public WorkerPool(String name, int concurrency, ThreadType threadType, int capacity) {
+        this(name, concurrency, threadType, capacity,
+             AdmissionPolicy.fromString(QUEUE_ADMISSION_POLICY), QUEUE_BLOCK_TIMEOUT_MS, QUEUE_AGING_MS);
+    }
+
+    public WorkerPool(String name, int concurrency, ThreadType threadType, int capacity,
+                      AdmissionPolicy admissionPolicy, long blockTimeoutMs, long agingMs) {
+        this(name, concurrency, threadType, capacity, admissionPolicy, blockTimeoutMs, agingMs,
+             DispatchMode.fromString(QUEUE_DISPATCH));
+    }
+
+    public WorkerPool(String name, int concurrency, ThreadType threadType, int capacity,
+                      AdmissionPolicy admissionPolicy, long blockTimeoutMs, long agingMs,
+                      DispatchMode dispatchMode) {
+        this.name = name;
+        this.concurrency = Math.max(1, concurrency);
+        if (threadType == ThreadType.VIRTUAL) {
+            // JAWS targets Java 17, virtual threads only arrive with Java 21
+            Logger.warn("WorkerPool '{}': virtual threads need Java 21, using platform threads", name);
+        }
+        this.threadType = ThreadType.PLATFORM;
+        this.capacity = Math.max(1, capacity);
+        this.admissionPolicy = admissionPolicy != null ? admissionPolicy : AdmissionPolicy.REJECT;
+        this.blockTimeoutMs = Math.max(0, blockTimeoutMs);
+        this.agingMs = agingMs;
+        this.dispatchMode = dispatchMode != null ? dispatchMode : DispatchMode.STEALING;
+        Comparator<JobInstance> order = agingMs > 0
+            ? Comparator.comparingLong((JobInstance ji) -> ji.deadline).thenComparingLong(ji -> ji.sequence)
+            : BY_PRIORITY;
+
+        int shardCount = this.dispatchMode == DispatchMode.STEALING ? this.concurrency : 1;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(order, Math.min(this.capacity / shardCount + 1, 1024),
+                                  this.admissionPolicy == AdmissionPolicy.SHED_LOWEST);
+        }
+        this.executor = Executors.newFixedThreadPool(this.concurrency, createThreadFactory());
+
+        Logger.info("WorkerPool '{}' initialized with {} {} workers, {} dispatch, capacity {} and {} admission", 
+                   name, this.concurrency, this.threadType, this.dispatchMode, this.capacity, this.admissionPolicy);
+    }
+
+    /**
+     * Parse a pool definition in the form name:threads:type (e.g. "io:32:platform")
+     */
+    public static WorkerPool fromDefinition(String definition, int capacity) {
+        String[] parts = definition.trim().split(":");
+        if (parts.length < 2 || parts[0].isBlank()) {
+            throw new IllegalArgumentException("Invalid worker pool definition: " + definition);
+        }
+
+        int threads = Integer.parseInt(parts[1].trim());
+        ThreadType type = parts.length > 2 ? ThreadType.valueOf(parts[2].trim().toUpperCase()) : ThreadType.PLATFORM;
+        return new WorkerPool(parts[0].trim(), threads, type, capacity);
+    }
+
+    /**
+     * Queue a job for one of this pool's workers, applying the admission policy when the pool is full
+     *
+     * @return the job that was shed to make room for this one, or null if none was
+     * @throws QueueFullException if the job could not be admitted
+     */
+    public Job submit(Job job) {
+        if (tryReserveSlot()) {
+            offer(job);
+            return null;
+        }
+
+        admissionLock.lock();
+        try {
+            Job shed = makeRoom(job);
+            offer(job);
+            return shed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedJobs.incrementAndGet();
+            throw new QueueFullException(name, getRetryAfterSeconds());
+        } finally {
+            admissionLock.unlock();
+        }
+    }
+
+    /**
+     * Queue a job that was already admitted once (reloaded or retried), ignoring the capacity
+     */
+    public void restore(Job job) {
+        queuedJobs.incrementAndGet();
+        offer(job);
+    }
+
+    /**
+     * Estimate, in seconds, how long a rejected caller should wait before trying again
+     */
+    public long getRetryAfterSeconds() {
+        int dequeued = dequeuedJobs.get();
+        long averageWaitMs = dequeued > 0 ? totalWaitMs.get() / dequeued : 1000;
+        return Math.max(1, Math.min(60, (averageWaitMs + 999) / 1000));
+    }
+
+    private boolean tryReserveSlot() {
+        int queued;
+        do {
+            queued = queuedJobs.get();
+            if (queued >= capacity) {
+                return false;
+            }
+        } while (!queuedJobs.compareAndSet(queued, queued + 1));
+        return true;
+    }
+
+    // Called with the admission lock held once the pool was found full, returns holding a slot
+    private Job makeRoom(Job job) throws InterruptedException {
+        if (tryReserveSlot()) {
+            return null; // Room was freed meanwhile
+        }
+        switch (admissionPolicy) {
+            case BLOCK -> {
+                long remainingNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+                while (!tryReserveSlot()) {
+                    if (remainingNanos <= 0) {
+                        rejectedJobs.incrementAndGet();
+                        throw new QueueFullException(name, getRetryAfterSeconds());
+                    }
+                    remainingNanos = notFull.awaitNanos(remainingNanos);
+                }
+                return null;
+            }
+            case SHED_LOWEST -> {
+                // Lowest priority is the highest priority value, newest first among equals
+                Shard victimShard = null;
+                JobInstance victim = null;
+                for (Shard shard : shards) {
+                    JobInstance candidate = shard.lowestPriority();
+                    if (candidate != null && (victim == null || BY_PRIORITY.compare(candidate, victim) > 0)) {
+                        victim = candidate;
+                        victimShard = shard;
+                    }
+                }
+                if (victim == null || victim.job.getPriority() <= job.getPriority() || !victimShard.remove(victim)) {
+                    rejectedJobs.incrementAndGet();
+                    throw new QueueFullException(name, getRetryAfterSeconds());
+                }
+                // The victim's slot is handed over to the new job
+                victimShard.size.decrementAndGet();
+                shedJobs.incrementAndGet();
+                return victim.job;
+            }
+            default -> {
+                rejectedJobs.incrementAndGet();
+                throw new QueueFullException(name, getRetryAfterSeconds());
+            }
+        }
+    }
+
+    /**
+     * Start the pool workers, each one handing jobs to the given processor
+     */
+    public void start(JobProcessor processor) {
+        if (running.compareAndSet(false, true)) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(new PoolWorker(processor, i % shards.length));
+            }
+            Logger.info("WorkerPool '{}' started with {} {} workers", name, concurrency, threadType);
+        }
+    }
+
+    /**
+     * Stop the pool, waiting up to the given time for in-flight jobs
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        if (running.compareAndSet(true, false)) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(timeout, unit)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            Logger.info("WorkerPool '{}' shutdown complete", name);
+        }
+    }
+
+    /**
+     * Get pool statistics
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threadType", threadType.name());
+        stats.put("concurrency", concurrency);
+        stats.put("activeWorkers", activeWorkers.get());
+        stats.put("queueSize", queuedJobs.get());
+        stats.put("capacity", capacity);
+        stats.put("dispatchMode", dispatchMode.name());
+        stats.put("shards", shards.length);
+        stats.put("stolenJobs", stolenJobs.get());
+        stats.put("admissionPolicy", admissionPolicy.name());
+        stats.put("agingMs", agingMs);
+        stats.put("rejectedJobs", rejectedJobs.get());
+        stats.put("shedJobs", shedJobs.get());
+        int dequeued = dequeuedJobs.get();
+        stats.put("avgWaitMs", dequeued > 0 ? totalWaitMs.get() / dequeued : 0);
+        stats.put("maxWaitMs", maxWaitMs.get());
+        stats.put("totalJobs", totalJobs.get());
+        stats.put("completedJobs", completedJobs.get());
+        stats.put("failedJobs", failedJobs.get());
+        stats.put("running", running.get());
+        return stats;
+    }
+
+    public String getName() { return name; }
+    public int getConcurrency() { return concurrency; }
+    public ThreadType getThreadType() { return threadType; }
+    public int getQueueSize() { return queuedJobs.get(); }
+    public DispatchMode getDispatchMode() { return dispatchMode; }
+    public int getCapacity() { return capacity; }
+    public AdmissionPolicy getAdmissionPolicy() { return admissionPolicy; }
+    public long getAgingMs() { return agingMs; }
+    public int getActiveWorkers() { return activeWorkers.get(); }
+
+    private ThreadFactory createThreadFactory() {
+        String prefix = "job-worker-" + name + "-";
+        AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> new Thread(runnable, prefix + counter.getAndIncrement());
+    }
+
+    // The caller already holds a slot in queuedJobs
+    private void offer(Job job) {
+        long now = Instant.now().toEpochMilli();
+        long deadline = agingMs > 0 ? now + job.getPriority() * agingMs : now;
+        JobInstance jobInstance = new JobInstance(job, now, deadline, sequence.getAndIncrement());
+
+        Shard shard = chooseShard();
+        shard.size.incrementAndGet();
+        shard.offer(jobInstance);
+        totalJobs.incrementAndGet();
+    }
+
+    /**
+     * Pick two shards at random and keep the better one (idle worker first, then shortest),
+     * which spreads load evenly without looking at every shard
+     */
+    private Shard chooseShard() {
+        if (shards.length == 1) {
+            return shards[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shard first = shards[random.nextInt(shards.length)];
+        Shard second = shards[random.nextInt(shards.length)];
+        if (first.idle != second.idle) {
+            return first.idle ? first : second;
+        }
+        return first.size.get() <= second.size.get() ? first : second;
+    }
+
+    private JobInstance steal(int homeShard) {
+        int start = ThreadLocalRandom.current().nextInt(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            int index = (start + i) % shards.length;
+            if (index == homeShard || shards[index].size.get() == 0) {
+                continue;
+            }
+            JobInstance jobInstance = shards[index].poll();
+            if (jobInstance != null) {
+                shards[index].size.decrementAndGet();
+                stolenJobs.incrementAndGet();
+                return jobInstance;
+            }
+        }
+        return null;
+    }
+
+    private void onDequeued(JobInstance jobInstance) {
+        queuedJobs.decrementAndGet();
+        long waitMs = Instant.now().toEpochMilli() - jobInstance.createdAt;
+        totalWaitMs.addAndGet(waitMs);
+        maxWaitMs.accumulateAndGet(waitMs, Math::max);
+        dequeuedJobs.incrementAndGet();
+
+        if (admissionPolicy == AdmissionPolicy.BLOCK) {
+            admissionLock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                admissionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Thread type used by the pool workers
+     * VIRTUAL is kept for the pool definitions, it runs on platform threads until JAWS moves to Java 21.
+     */
+    public enum ThreadType {
+        PLATFORM, VIRTUAL
+    }
+
+    /**
+     * How jobs are handed to the pool workers
+     */
+    public enum DispatchMode {
+        SHARED, STEALING;
+
+        public static DispatchMode fromString(String value) {
+            return value != null && value.trim().equalsIgnoreCase(SHARED.name()) ? SHARED : STEALING;
+        }
+    }
+
+    /**
+     * Callback used by the workers to run a job, returns true if the job completed
+     */
+    @FunctionalInterface
+    public interface JobProcessor {
+        boolean process(Job job);
+    }
+
+    /**
+     * Internal job instance wrapper
+     */
+    private static class JobInstance {
+        final Job job;
+        final long createdAt;
+        final long deadline;
+        final long sequence;
+
+        JobInstance(Job job, long createdAt, long deadline, long sequence) {
+            this.job = job;
+            this.createdAt = createdAt;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A worker's own heap, with a lock-free size so submitters and thieves can skip it cheaply
+     *
+     * With SHED_LOWEST the jobs are also kept sorted by priority, so the job to shed is found
+     * in O(log n). The heap is ordered by deadline and can't give it without a full scan.
+     * A job enters the sorted set before the heap and leaves it after, so the set never
+     * holds a job no longer queued.
+     */
+    private static class Shard {
+        final PriorityBlockingQueue<JobInstance> heap;
+        final ConcurrentSkipListSet<JobInstance> byPriority;
+        final AtomicInteger size = new AtomicInteger(0);
+        volatile boolean idle = true;
+
+        Shard(Comparator<JobInstance> order, int initialCapacity, boolean trackPriority) {
+            this.heap = new PriorityBlockingQueue<>(Math.max(1, initialCapacity), order);
+            this.byPriority = trackPriority ? new ConcurrentSkipListSet<>(BY_PRIORITY) : null;
+        }
+
+        void offer(JobInstance jobInstance) {
+            if (byPriority != null) {
+                byPriority.add(jobInstance);
+            }
+            heap.offer(jobInstance);
+        }
+
+        JobInstance poll() {
+            return untrack(heap.poll());
+        }
+
+        JobInstance poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return untrack(heap.poll(timeout, unit));
+        }
+
+        boolean remove(JobInstance jobInstance) {
+            if (!heap.remove(jobInstance)) {
+                return false; // Taken by a worker meanwhile
+            }
+            untrack(jobInstance);
+            return true;
+        }
+
+        JobInstance lowestPriority() {
+            if (byPriority == null) {
+                return null;
+            }
+            try {
+                return byPriority.last();
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        }
+
+        private JobInstance untrack(JobInstance jobInstance) {
+            if (jobInstance != null && byPriority != null) {
+                byPriority.remove(jobInstance);
+            }
+            return jobInstance;
+        }
+    }
+
+    /**
+     * Worker that drains its home shard and steals from the others when it runs dry
+     */
+    private class PoolWorker implements Runnable {
+        private final JobProcessor processor;
+        private final int homeShard;
+
+        PoolWorker(JobProcessor processor, int homeShard) {
+            this.processor = processor;
+            this.homeShard = homeShard;
+        }
+
+        private JobInstance nextJob() throws InterruptedException {
+            Shard home = shards[homeShard];
+            JobInstance jobInstance = home.poll();
+            if (jobInstance == null && shards.length > 1) {
+                jobInstance = steal(homeShard);
+                if (jobInstance != null) {
+                    return jobInstance;
+                }
+            }
+            if (jobInstance == null) {
+                home.idle = true;
+                try {
+                    jobInstance = home.poll(shards.length > 1 ? STEAL_INTERVAL_MS : SHARED_POLL_MS,
+                                                 TimeUnit.MILLISECONDS);
+                } finally {
+                    home.idle = false;
+                }
+            }
+            if (jobInstance != null) {
+                home.size.decrementAndGet();
+            }
+            return jobInstance;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                try {
+                    JobInstance jobInstance = nextJob();
+                    if (jobInstance == null) {
+                        continue;
+                    }
+                    onDequeued(jobInstance);
+
+                    activeWorkers.incrementAndGet();
+                    try {
+                        if (processor.process(jobInstance.job)) {
+                            completedJobs.incrementAndGet();
+                        } else {
+                            failedJobs.incrementAndGet();
+                        }
+                    } finally {
+                        activeWorkers.decrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    Logger.error("WorkerPool '{}' worker error: {}", name, e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
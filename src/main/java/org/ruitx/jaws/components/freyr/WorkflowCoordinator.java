@@ -0,0 +1,303 @@
+package org.ruitx.jaws.components.freyr;
+
+import org.ruitx.jaws.components.Mimir;
+import org.ruitx.jaws.components.Odin;
+import org.ruitx.jaws.interfaces.Job;
+import org.ruitx.jaws.types.Row;
+import org.tinylog.Logger;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * WorkflowCoordinator - Starts workflow jobs once their parents complete
+ *
+ * The dependency graph of the waiting jobs is kept in memory (children per parent and
+ * a count of parents still running per child), so a completed job releases its children
+ * without scanning the database. The same graph is persisted in JOB_DEPENDENCIES, which is
+ * used to rebuild it on startup and for parents this node didn't know about (workflows
+ * submitted by another process).
+ *
+ * Released jobs move from WAITING to PENDING, leased to this node, with the results of
+ * their parents added to the payload, and are queued right away.
+ */
+public class WorkflowCoordinator {
+
+    public static final String INSERT_DEPENDENCY_SQL =
+        "INSERT INTO JOB_DEPENDENCIES (job_id, parent_id, satisfied) VALUES (?, ?, 0)";
+
+    private final Mimir mimir = new Mimir();
+    private final JobRegistry jobRegistry;
+    private final JobLeaseManager leaseManager;
+    private final Predicate<Job> requeue;
+
+    private final Map<String, Set<String>> childrenByParent = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> remainingParents = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final AtomicInteger submittedWorkflows = new AtomicInteger(0);
+    private final AtomicInteger releasedJobs = new AtomicInteger(0);
+    private final AtomicInteger cancelledJobs = new AtomicInteger(0);
+
+    /**
+     * @param requeue queues a persisted job on this node, returns false if it couldn't
+     */
+    public WorkflowCoordinator(JobRegistry jobRegistry, JobLeaseManager leaseManager, Predicate<Job> requeue) {
+        this.jobRegistry = jobRegistry;
+        this.leaseManager = leaseManager;
+        this.requeue = requeue;
+        ensureSchema();
+    }
+
+    /**
+     * Track the waiting jobs of a workflow that was just persisted
+     */
+    public void register(JobWorkflow workflow) {
+        for (Job job : workflow.getJobs()) {
+            List<String> parents = workflow.getParentIds(job.getId());
+            if (parents.isEmpty()) {
+                continue;
+            }
+            remainingParents.put(job.getId(), new AtomicInteger(parents.size()));
+            for (String parentId : parents) {
+                childrenByParent.computeIfAbsent(parentId, k -> ConcurrentHashMap.newKeySet()).add(job.getId());
+            }
+        }
+        submittedWorkflows.incrementAndGet();
+    }
+
+    /**
+     * Rebuild the graph of the waiting jobs from the database
+     * Jobs whose parents all completed meanwhile are released, jobs with a failed parent are cancelled.
+     */
+    public void loadWaitingJobs() {
+        try {
+            List<Row> rows = mimir.getRows("""
+                SELECT d.job_id, d.parent_id, d.satisfied, p.status AS parent_status
+                FROM JOB_DEPENDENCIES d
+                JOIN JOBS j ON j.id = d.job_id
+                LEFT JOIN JOBS p ON p.id = d.parent_id
+                WHERE j.status = 'WAITING'
+                """);
+
+            Map<String, Integer> pending = new HashMap<>();
+            Set<String> failedParents = new HashSet<>();
+            for (Row row : rows) {
+                String jobId = row.getString("job_id").orElse("");
+                String parentId = row.getString("parent_id").orElse("");
+                String parentStatus = row.getString("parent_status").orElse("COMPLETED");
+                boolean satisfied = row.getInt("satisfied").orElse(0) == 1 || "COMPLETED".equals(parentStatus);
+
+                pending.merge(jobId, satisfied ? 0 : 1, Integer::sum);
+                if ("FAILED".equals(parentStatus) || "DEAD_LETTER".equals(parentStatus)) {
+                    failedParents.add(parentId);
+                } else if (!satisfied) {
+                    childrenByParent.computeIfAbsent(parentId, k -> ConcurrentHashMap.newKeySet()).add(jobId);
+                }
+            }
+
+            for (String parentId : failedParents) {
+                onJobFailed(parentId, "parent failed before restart");
+            }
+            int released = 0;
+            for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+                if (entry.getValue() == 0) {
+                    released += release(entry.getKey()) ? 1 : 0;
+                } else {
+                    remainingParents.putIfAbsent(entry.getKey(), new AtomicInteger(entry.getValue()));
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                Logger.info("Loaded {} waiting workflow jobs, released {}", pending.size(), released);
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to load waiting workflow jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A job completed: release the children that were only waiting for it
+     */
+    public void onJobCompleted(Job job) {
+        if (job.getWorkflowId() == null) {
+            return;
+        }
+        String parentId = job.getId();
+        try {
+            mimir.executeSql("UPDATE JOB_DEPENDENCIES SET satisfied = 1 WHERE parent_id = ?", parentId);
+
+            Set<String> children = childrenByParent.remove(parentId);
+            if (children == null) {
+                // Not tracked here (submitted by another node), ask the database
+                for (Row row : mimir.getRows("SELECT job_id FROM JOB_DEPENDENCIES WHERE parent_id = ?", parentId)) {
+                    String childId = row.getString("job_id").orElse("");
+                    if (countUnsatisfied(childId) == 0) {
+                        release(childId);
+                    }
+                }
+                return;
+            }
+
+            for (String childId : children) {
+                AtomicInteger remaining = remainingParents.get(childId);
+                boolean ready = remaining != null ? remaining.decrementAndGet() <= 0 : countUnsatisfied(childId) == 0;
+                if (ready) {
+                    remainingParents.remove(childId);
+                    release(childId);
+                }
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to propagate completion of job {}: {}", parentId, e.getMessage());
+        }
+    }
+
+    /**
+     * A job failed for good: fail every job waiting on it, directly or not
+     */
+    public void onJobFailed(String jobId, String reason) {
+        try {
+            long now = Instant.now().toEpochMilli();
+            Deque<String> failed = new ArrayDeque<>(List.of(jobId));
+            while (!failed.isEmpty()) {
+                String parentId = failed.poll();
+                childrenByParent.remove(parentId);
+                for (Row row : mimir.getRows("SELECT job_id FROM JOB_DEPENDENCIES WHERE parent_id = ?", parentId)) {
+                    String childId = row.getString("job_id").orElse("");
+                    int updated = mimir.executeSql(
+                        "UPDATE JOBS SET status = ?, error_message = ?, completed_at = ? WHERE id = ? AND status = ?",
+                        Freyr.JobStatus.FAILED.name(), "Parent job " + parentId + " failed: " + reason, now,
+                        childId, Freyr.JobStatus.WAITING.name());
+                    if (updated > 0) {
+                        remainingParents.remove(childId);
+                        cancelledJobs.incrementAndGet();
+                        failed.add(childId);
+                        Logger.warn("Workflow job {} cancelled, parent job {} failed", childId, parentId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to propagate failure of job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("submittedWorkflows", submittedWorkflows.get());
+        stats.put("waitingJobs", remainingParents.size());
+        stats.put("releasedJobs", releasedJobs.get());
+        stats.put("cancelledJobs", cancelledJobs.get());
+        return stats;
+    }
+
+    /**
+     * Move a waiting job to PENDING, with its parents' results, and queue it on this node
+     * Only one node wins the WAITING -> PENDING update, the others skip the job.
+     */
+    private boolean release(String jobId) {
+        try {
+            Row row = mimir.getRow("SELECT type, payload FROM JOBS WHERE id = ? AND status = ?",
+                                   jobId, Freyr.JobStatus.WAITING.name());
+            if (row == null) {
+                return false;
+            }
+
+            String jobType = row.getString("type").orElse("");
+            Map<String, Object> payload = PayloadCodecs.decode(row.get("payload"));
+            payload.put(JobWorkflow.PARENT_RESULTS_KEY, getParentResults(jobId));
+            Job job = jobRegistry.createJob(jobType, jobId, payload);
+
+            int updated = mimir.executeSql(
+                "UPDATE JOBS SET status = ?, payload = ?, owner = ?, lease_until = ? WHERE id = ? AND status = ?",
+                Freyr.JobStatus.PENDING.name(),
+                PayloadCodecs.encode(payload, job != null ? job.getPayloadCodec() : null),
+                leaseManager.getNodeId(), leaseManager.newLeaseUntil(), jobId, Freyr.JobStatus.WAITING.name());
+            if (updated == 0) {
+                return false;
+            }
+
+            if (job == null || !requeue.test(job)) {
+                // Leave it to the claim cycle of whichever node can run it
+                leaseManager.release(jobId);
+                Logger.warn("Released workflow job {} could not be queued here", jobId);
+                return false;
+            }
+
+            releasedJobs.incrementAndGet();
+            Logger.debug("Released workflow job {}", jobId);
+            return true;
+        } catch (Exception e) {
+            Logger.error("Failed to release workflow job {}: {}", jobId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get the results of a job's parents, parsed as JSON when possible (null when a parent stored none)
+     */
+    private Map<String, Object> getParentResults(String jobId) {
+        Map<String, Object> results = new HashMap<>();
+        for (Row row : mimir.getRows("""
+                SELECT d.parent_id, r.body
+                FROM JOB_DEPENDENCIES d
+                LEFT JOIN JOB_RESULTS r ON r.job_id = d.parent_id
+                WHERE d.job_id = ?
+                """, jobId)) {
+            String parentId = row.getString("parent_id").orElse("");
+            String body = row.getString("body").orElse(null);
+            Object result = body;
+            if (body != null) {
+                try {
+                    result = Odin.getMapper().readValue(body, Object.class);
+                } catch (Exception e) {
+                    // Not JSON, keep the raw body
+                }
+            }
+            results.put(parentId, result);
+        }
+        return results;
+    }
+
+    private int countUnsatisfied(String jobId) {
+        Row row = mimir.getRow("SELECT COUNT(*) AS pending FROM JOB_DEPENDENCIES WHERE job_id = ? AND satisfied = 0", jobId);
+        return row != null ? row.getInt("pending").orElse(0) : 0;
+    }
+
+    /**
+     * Add the workflow tables and columns to a database created before they existed
+     */
+    private void ensureSchema() {
+        try {
+            if (!mimir.hasTable("JOBS")) {
+                return;
+            }
+            if (!mimir.hasColumn("JOBS", "workflow_id")) {
+                mimir.executeSql("ALTER TABLE JOBS ADD COLUMN workflow_id TEXT");
+                mimir.executeSql("CREATE INDEX IF NOT EXISTS idx_jobs_workflow_id ON JOBS (workflow_id)");
+            }
+            if (!mimir.hasTable("JOB_DEPENDENCIES")) {
+                mimir.executeSql("""
+                    CREATE TABLE IF NOT EXISTS JOB_DEPENDENCIES (
+                        job_id     TEXT    NOT NULL,
+                        parent_id  TEXT    NOT NULL,
+                        satisfied  INTEGER DEFAULT 0,
+                        PRIMARY KEY (job_id, parent_id)
+                    )
+                    """);
+                mimir.executeSql("CREATE INDEX IF NOT EXISTS idx_job_dependencies_parent_id ON JOB_DEPENDENCIES (parent_id)");
+                Logger.info("Added workflow tables to the database");
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to add workflow tables to the database: {}", e.getMessage());
+        }
+    }
+}
@@ -19,17 +19,41 @@ public class ApplicationConfig {
     public static final String DEFAULT_CUSTOM_PAGE_PATH_404 = "";
     public static final String DEFAULT_DATABASE_PATH = "src/main/resources/db.db";
     public static final String DEFAULT_DATABASE_SCHEMA_PATH = "src/main/resources/sql/create_schema_v1.sql";
+    public static final String DEFAULT_STATIC_CACHE_CONTROL = "**:no-cache";
 
     // Freyr
     public static final int DEFAULT_WORKER_THREADS =  Runtime.getRuntime().availableProcessors();
     public static final int DEFAULT_QUEUE_CAPACITY = 10000;
     public static final long DEFAULT_CLEANUP_INTERVAL_MS = 300000; // 5 minutes
+    public static final String DEFAULT_WORKER_POOLS = "cpu:" + DEFAULT_WORKER_THREADS + ":platform,io:64:platform";
+    public static final String DEFAULT_WORKER_POOL_ROUTES = "";
+    public static final int DEFAULT_SEQUENTIAL_LANES = 4;
+    public static final String DEFAULT_QUEUE_ADMISSION_POLICY = "REJECT";
+    public static final long DEFAULT_QUEUE_BLOCK_TIMEOUT_MS = 1000;
+    public static final long DEFAULT_QUEUE_AGING_MS = 1000;
+    public static final String DEFAULT_QUEUE_DISPATCH = "STEALING";
+    public static final String DEFAULT_NODE_ID = "";
+    public static final long DEFAULT_LEASE_MS = 30000;
+    public static final long DEFAULT_CLAIM_INTERVAL_MS = 2000;
+    public static final int DEFAULT_CLAIM_BATCH_SIZE = 100;
+    public static final String DEFAULT_PAYLOAD_CODEC = "JSON";
+    public static final int DEFAULT_PAYLOAD_COMPRESS_THRESHOLD = 4096;
 
     // JawsLogger 
     public static final String DEFAULT_DB_LEVEL = "INFO";
     public static final int DEFAULT_BATCH_SIZE = 1000;
     public static final long DEFAULT_FLUSH_INTERVAL_MS = 5000;
     public static final int DEFAULT_BUFFER_CAPACITY = 10000;
+    public static final String DEFAULT_LOG_OVERFLOW_POLICY = "DROP";
+    public static final long DEFAULT_LOG_BLOCK_TIMEOUT_MS = 100;
+    public static final String DEFAULT_LOG_CALLER = "CLASS,WARN:FULL,ERROR:FULL";
+    public static final int DEFAULT_LOG_RETENTION_DAYS = 14;
+    public static final int DEFAULT_LOG_TAIL_CAPACITY = 1024;
+    public static final String DEFAULT_LOG_RATE_LIMIT = "";
+    public static final String DEFAULT_LOG_SAMPLING = "";
+    public static final long DEFAULT_LOG_SUPPRESSED_SUMMARY_MS = 60000;
+    public static final int DEFAULT_LOG_ARCHIVE_AFTER_DAYS = 0;
+    public static final String DEFAULT_LOG_ARCHIVE_PATH = "src/main/resources/logs-archive";
 
     // RateLimiter
     public static final int DEFAULT_RATE_LIMIT_MAX_REQUESTS = 100;
@@ -46,17 +70,49 @@ public class ApplicationConfig {
     public static final String JWT_SECRET;
     public static final boolean HERMOD_DEVELOPMENT_MODE;
     public static final long HERMOD_TEMPLATE_CACHE_TTL;
+    public static final boolean HERMOD_WARMUP;
+    public static final String HERMOD_WARMUP_PAGES;
+    public static final int HERMOD_WARMUP_RENDERS;
+    public static final long STATIC_CACHE_MAX_BYTES;
+    public static final long STATIC_CACHE_MAX_FILE_BYTES;
+    public static final String STATIC_CACHE_CONTROL;
+    public static final boolean STATIC_PRECOMPRESS;
+    public static final int COMPRESSION_MIN_BYTES;
+    public static final int COMPRESSION_LEVEL;
 
     // Freyr
     public static final int WORKER_THREADS;
     public static final int QUEUE_CAPACITY;
     public static final long CLEANUP_INTERVAL_MS;
+    public static final String WORKER_POOLS;
+    public static final String WORKER_POOL_ROUTES;
+    public static final int SEQUENTIAL_LANES;
+    public static final String QUEUE_ADMISSION_POLICY;
+    public static final long QUEUE_BLOCK_TIMEOUT_MS;
+    public static final long QUEUE_AGING_MS;
+    public static final String QUEUE_DISPATCH;
+    public static final String NODE_ID;
+    public static final long LEASE_MS;
+    public static final long CLAIM_INTERVAL_MS;
+    public static final int CLAIM_BATCH_SIZE;
+    public static final String PAYLOAD_CODEC;
+    public static final int PAYLOAD_COMPRESS_THRESHOLD;
 
     // JawsLogger
     public static final String DB_LEVEL;
     public static final int BATCH_SIZE;
     public static final long FLUSH_INTERVAL_MS;
     public static final int BUFFER_CAPACITY;
+    public static final String LOG_OVERFLOW_POLICY;
+    public static final long LOG_BLOCK_TIMEOUT_MS;
+    public static final String LOG_CALLER;
+    public static final int LOG_RETENTION_DAYS;
+    public static final int LOG_TAIL_CAPACITY;
+    public static final String LOG_RATE_LIMIT;
+    public static final String LOG_SAMPLING;
+    public static final long LOG_SUPPRESSED_SUMMARY_MS;
+    public static final int LOG_ARCHIVE_AFTER_DAYS;
+    public static final String LOG_ARCHIVE_PATH;
 
     // RateLimiter
     public static final int RATE_LIMIT_MAX_REQUESTS;
@@ -83,17 +139,49 @@ public class ApplicationConfig {
         JWT_SECRET = getJWTSecretValue();
         HERMOD_DEVELOPMENT_MODE = getHermodDevelopmentModeValue();
         HERMOD_TEMPLATE_CACHE_TTL = getHermodTemplateCacheTtlValue();
+        HERMOD_WARMUP = getHermodWarmupValue();
+        HERMOD_WARMUP_PAGES = getHermodWarmupPagesValue();
+        HERMOD_WARMUP_RENDERS = getHermodWarmupRendersValue();
+        STATIC_CACHE_MAX_BYTES = getStaticCacheMaxBytesValue();
+        STATIC_CACHE_MAX_FILE_BYTES = getStaticCacheMaxFileBytesValue();
+        STATIC_CACHE_CONTROL = getStaticCacheControlValue();
+        STATIC_PRECOMPRESS = getStaticPrecompressValue();
+        COMPRESSION_MIN_BYTES = getCompressionMinBytesValue();
+        COMPRESSION_LEVEL = getCompressionLevelValue();
         
         // Initialize Freyr configuration
         WORKER_THREADS = getWorkerThreadsValue();
         QUEUE_CAPACITY = getQueueCapacityValue();
         CLEANUP_INTERVAL_MS = getCleanupIntervalMsValue();
+        WORKER_POOLS = getWorkerPoolsValue();
+        WORKER_POOL_ROUTES = getWorkerPoolRoutesValue();
+        SEQUENTIAL_LANES = getSequentialLanesValue();
+        QUEUE_ADMISSION_POLICY = getQueueAdmissionPolicyValue();
+        QUEUE_BLOCK_TIMEOUT_MS = getQueueBlockTimeoutMsValue();
+        QUEUE_AGING_MS = getQueueAgingMsValue();
+        QUEUE_DISPATCH = getQueueDispatchValue();
+        NODE_ID = getNodeIdValue();
+        LEASE_MS = getLeaseMsValue();
+        CLAIM_INTERVAL_MS = getClaimIntervalMsValue();
+        CLAIM_BATCH_SIZE = getClaimBatchSizeValue();
+        PAYLOAD_CODEC = getPayloadCodecValue();
+        PAYLOAD_COMPRESS_THRESHOLD = getPayloadCompressThresholdValue();
         
         // Initialize JawsLogger configuration
         DB_LEVEL = getDbLevelValue();
         BATCH_SIZE = getBatchSizeValue();
         FLUSH_INTERVAL_MS = getFlushIntervalMsValue();
         BUFFER_CAPACITY = getBufferCapacityValue();
+        LOG_OVERFLOW_POLICY = getLogOverflowPolicyValue();
+        LOG_BLOCK_TIMEOUT_MS = getLogBlockTimeoutMsValue();
+        LOG_CALLER = getLogCallerValue();
+        LOG_RETENTION_DAYS = getLogRetentionDaysValue();
+        LOG_TAIL_CAPACITY = getLogTailCapacityValue();
+        LOG_RATE_LIMIT = getLogRateLimitValue();
+        LOG_SAMPLING = getLogSamplingValue();
+        LOG_SUPPRESSED_SUMMARY_MS = getLogSuppressedSummaryMsValue();
+        LOG_ARCHIVE_AFTER_DAYS = getLogArchiveAfterDaysValue();
+        LOG_ARCHIVE_PATH = getLogArchivePathValue();
         
         // Initialize RateLimiter configuration
         RATE_LIMIT_MAX_REQUESTS = getRateLimitMaxRequestsValue();
@@ -111,13 +199,45 @@ public class ApplicationConfig {
         JawsLogger.info("JWT_SECRET: [REDACTED]");
         JawsLogger.info("HERMOD_DEVELOPMENT_MODE: " + HERMOD_DEVELOPMENT_MODE);
         JawsLogger.info("HERMOD_TEMPLATE_CACHE_TTL: " + HERMOD_TEMPLATE_CACHE_TTL);
+        JawsLogger.info("HERMOD_WARMUP: " + HERMOD_WARMUP);
+        JawsLogger.info("HERMOD_WARMUP_PAGES: " + HERMOD_WARMUP_PAGES);
+        JawsLogger.info("HERMOD_WARMUP_RENDERS: " + HERMOD_WARMUP_RENDERS);
+        JawsLogger.info("STATIC_CACHE_MAX_BYTES: " + STATIC_CACHE_MAX_BYTES);
+        JawsLogger.info("STATIC_CACHE_MAX_FILE_BYTES: " + STATIC_CACHE_MAX_FILE_BYTES);
+        JawsLogger.info("STATIC_CACHE_CONTROL: " + STATIC_CACHE_CONTROL);
+        JawsLogger.info("STATIC_PRECOMPRESS: " + STATIC_PRECOMPRESS);
+        JawsLogger.info("COMPRESSION_MIN_BYTES: " + COMPRESSION_MIN_BYTES);
+        JawsLogger.info("COMPRESSION_LEVEL: " + COMPRESSION_LEVEL);
         JawsLogger.info("WORKER_THREADS: " + WORKER_THREADS);
         JawsLogger.info("QUEUE_CAPACITY: " + QUEUE_CAPACITY);
         JawsLogger.info("CLEANUP_INTERVAL_MS: " + CLEANUP_INTERVAL_MS);
+        JawsLogger.info("WORKER_POOLS: " + WORKER_POOLS);
+        JawsLogger.info("WORKER_POOL_ROUTES: " + WORKER_POOL_ROUTES);
+        JawsLogger.info("SEQUENTIAL_LANES: " + SEQUENTIAL_LANES);
+        JawsLogger.info("QUEUE_ADMISSION_POLICY: " + QUEUE_ADMISSION_POLICY);
+        JawsLogger.info("QUEUE_BLOCK_TIMEOUT_MS: " + QUEUE_BLOCK_TIMEOUT_MS);
+        JawsLogger.info("QUEUE_AGING_MS: " + QUEUE_AGING_MS);
+        JawsLogger.info("QUEUE_DISPATCH: " + QUEUE_DISPATCH);
+        JawsLogger.info("NODE_ID: " + NODE_ID);
+        JawsLogger.info("LEASE_MS: " + LEASE_MS);
+        JawsLogger.info("CLAIM_INTERVAL_MS: " + CLAIM_INTERVAL_MS);
+        JawsLogger.info("CLAIM_BATCH_SIZE: " + CLAIM_BATCH_SIZE);
+        JawsLogger.info("PAYLOAD_CODEC: " + PAYLOAD_CODEC);
+        JawsLogger.info("PAYLOAD_COMPRESS_THRESHOLD: " + PAYLOAD_COMPRESS_THRESHOLD);
         JawsLogger.info("DB_LEVEL: " + DB_LEVEL);
         JawsLogger.info("BATCH_SIZE: " + BATCH_SIZE);
         JawsLogger.info("FLUSH_INTERVAL_MS: " + FLUSH_INTERVAL_MS);
         JawsLogger.info("BUFFER_CAPACITY: " + BUFFER_CAPACITY);
+        JawsLogger.info("LOG_OVERFLOW_POLICY: " + LOG_OVERFLOW_POLICY);
+        JawsLogger.info("LOG_BLOCK_TIMEOUT_MS: " + LOG_BLOCK_TIMEOUT_MS);
+        JawsLogger.info("LOG_CALLER: " + LOG_CALLER);
+        JawsLogger.info("LOG_RETENTION_DAYS: " + LOG_RETENTION_DAYS);
+        JawsLogger.info("LOG_TAIL_CAPACITY: " + LOG_TAIL_CAPACITY);
+        JawsLogger.info("LOG_RATE_LIMIT: " + LOG_RATE_LIMIT);
+        JawsLogger.info("LOG_SAMPLING: " + LOG_SAMPLING);
+        JawsLogger.info("LOG_SUPPRESSED_SUMMARY_MS: " + LOG_SUPPRESSED_SUMMARY_MS);
+        JawsLogger.info("LOG_ARCHIVE_AFTER_DAYS: " + LOG_ARCHIVE_AFTER_DAYS);
+        JawsLogger.info("LOG_ARCHIVE_PATH: " + LOG_ARCHIVE_PATH);
         JawsLogger.info("RATE_LIMIT_MAX_REQUESTS: " + RATE_LIMIT_MAX_REQUESTS);
         JawsLogger.info("RATE_LIMIT_WINDOW_MS: " + RATE_LIMIT_WINDOW_MS);
         JawsLogger.info("--------------------------------");
@@ -200,6 +320,49 @@ public class ApplicationConfig {
         return Long.parseLong(ttl);
     }
 
+    private static boolean getHermodWarmupValue() {
+        String warmup = getConfigValue("HERMOD_WARMUP", "hermod.warmup", "true");
+        return Boolean.parseBoolean(warmup);
+    }
+
+    private static String getHermodWarmupPagesValue() {
+        return getConfigValue("HERMOD_WARMUP_PAGES", "hermod.warmup.pages", "");
+    }
+
+    private static int getHermodWarmupRendersValue() {
+        String renders = getConfigValue("HERMOD_WARMUP_RENDERS", "hermod.warmup.renders", "20");
+        return Integer.parseInt(renders);
+    }
+
+    private static long getStaticCacheMaxBytesValue() {
+        String maxBytes = getConfigValue("STATIC_CACHE_MAX_BYTES", "static.cache.max_bytes", "33554432");
+        return Long.parseLong(maxBytes);
+    }
+
+    private static long getStaticCacheMaxFileBytesValue() {
+        String maxFileBytes = getConfigValue("STATIC_CACHE_MAX_FILE_BYTES", "static.cache.max_file_bytes", "1048576");
+        return Long.parseLong(maxFileBytes);
+    }
+
+    private static String getStaticCacheControlValue() {
+        return getConfigValue("STATIC_CACHE_CONTROL", "static.cache_control", DEFAULT_STATIC_CACHE_CONTROL);
+    }
+
+    private static boolean getStaticPrecompressValue() {
+        String precompress = getConfigValue("STATIC_PRECOMPRESS", "static.precompress", "true");
+        return Boolean.parseBoolean(precompress);
+    }
+
+    private static int getCompressionMinBytesValue() {
+        String minBytes = getConfigValue("COMPRESSION_MIN_BYTES", "compression.min_bytes", "1024");
+        return Integer.parseInt(minBytes);
+    }
+
+    private static int getCompressionLevelValue() {
+        String level = getConfigValue("COMPRESSION_LEVEL", "compression.level", "6");
+        return Math.max(1, Math.min(9, Integer.parseInt(level)));
+    }
+
     private static int getWorkerThreadsValue() {
         String envValue = System.getenv("WORKER_THREADS");
         if (envValue != null) {
@@ -266,6 +429,184 @@ public class ApplicationConfig {
         return DEFAULT_CLEANUP_INTERVAL_MS;
     }
 
+    private static String getWorkerPoolsValue() {
+        return getConfigValue("WORKER_POOLS", "freyr.pools", DEFAULT_WORKER_POOLS);
+    }
+
+    private static String getWorkerPoolRoutesValue() {
+        return getConfigValue("WORKER_POOL_ROUTES", "freyr.pools.routes", DEFAULT_WORKER_POOL_ROUTES);
+    }
+
+    private static int getSequentialLanesValue() {
+        String envValue = System.getenv("SEQUENTIAL_LANES");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid SEQUENTIAL_LANES environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.sequential.lanes");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.sequential.lanes in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_SEQUENTIAL_LANES;
+    }
+
+    private static String getQueueAdmissionPolicyValue() {
+        return getConfigValue("QUEUE_ADMISSION_POLICY", "freyr.queue.policy", DEFAULT_QUEUE_ADMISSION_POLICY);
+    }
+
+    private static long getQueueBlockTimeoutMsValue() {
+        String envValue = System.getenv("QUEUE_BLOCK_TIMEOUT_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid QUEUE_BLOCK_TIMEOUT_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.queue.block_timeout_ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.queue.block_timeout_ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_QUEUE_BLOCK_TIMEOUT_MS;
+    }
+
+    private static long getQueueAgingMsValue() {
+        String envValue = System.getenv("QUEUE_AGING_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid QUEUE_AGING_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.queue.aging_ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.queue.aging_ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_QUEUE_AGING_MS;
+    }
+
+    private static String getQueueDispatchValue() {
+        return getConfigValue("QUEUE_DISPATCH", "freyr.queue.dispatch", DEFAULT_QUEUE_DISPATCH);
+    }
+
+    private static String getNodeIdValue() {
+        return getConfigValue("NODE_ID", "freyr.node.id", DEFAULT_NODE_ID);
+    }
+
+    private static long getLeaseMsValue() {
+        String envValue = System.getenv("LEASE_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LEASE_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.lease.ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.lease.ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LEASE_MS;
+    }
+
+    private static long getClaimIntervalMsValue() {
+        String envValue = System.getenv("CLAIM_INTERVAL_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid CLAIM_INTERVAL_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.claim.interval_ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.claim.interval_ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_CLAIM_INTERVAL_MS;
+    }
+
+    private static int getClaimBatchSizeValue() {
+        String envValue = System.getenv("CLAIM_BATCH_SIZE");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid CLAIM_BATCH_SIZE environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.claim.batch_size");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.claim.batch_size in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_CLAIM_BATCH_SIZE;
+    }
+
+    private static String getPayloadCodecValue() {
+        return getConfigValue("PAYLOAD_CODEC", "freyr.payload.codec", DEFAULT_PAYLOAD_CODEC);
+    }
+
+    private static int getPayloadCompressThresholdValue() {
+        String envValue = System.getenv("PAYLOAD_COMPRESS_THRESHOLD");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid PAYLOAD_COMPRESS_THRESHOLD environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("freyr.payload.compress_threshold");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid freyr.payload.compress_threshold in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_PAYLOAD_COMPRESS_THRESHOLD;
+    }
+
     private static String getDbLevelValue() {
         String envValue = System.getenv("DB_LEVEL");
         if (envValue != null) {
@@ -346,6 +687,136 @@ public class ApplicationConfig {
         return DEFAULT_BUFFER_CAPACITY;
     }
 
+    private static String getLogOverflowPolicyValue() {
+        return getConfigValue("LOG_OVERFLOW_POLICY", "jawsLogger.overflow_policy", DEFAULT_LOG_OVERFLOW_POLICY);
+    }
+
+    private static String getLogCallerValue() {
+        return getConfigValue("LOG_CALLER", "jawsLogger.caller", DEFAULT_LOG_CALLER);
+    }
+
+    private static int getLogRetentionDaysValue() {
+        String envValue = System.getenv("LOG_RETENTION_DAYS");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LOG_RETENTION_DAYS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("jawsLogger.retention_days");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid jawsLogger.retention_days in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LOG_RETENTION_DAYS;
+    }
+
+    private static int getLogTailCapacityValue() {
+        String envValue = System.getenv("LOG_TAIL_CAPACITY");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LOG_TAIL_CAPACITY environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("jawsLogger.tail_capacity");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid jawsLogger.tail_capacity in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LOG_TAIL_CAPACITY;
+    }
+
+    private static String getLogRateLimitValue() {
+        return getConfigValue("LOG_RATE_LIMIT", "jawsLogger.rate_limit", DEFAULT_LOG_RATE_LIMIT);
+    }
+
+    private static String getLogSamplingValue() {
+        return getConfigValue("LOG_SAMPLING", "jawsLogger.sampling", DEFAULT_LOG_SAMPLING);
+    }
+
+    private static long getLogSuppressedSummaryMsValue() {
+        String envValue = System.getenv("LOG_SUPPRESSED_SUMMARY_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LOG_SUPPRESSED_SUMMARY_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("jawsLogger.suppressed_summary_ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid jawsLogger.suppressed_summary_ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LOG_SUPPRESSED_SUMMARY_MS;
+    }
+
+    private static int getLogArchiveAfterDaysValue() {
+        String envValue = System.getenv("LOG_ARCHIVE_AFTER_DAYS");
+        if (envValue != null) {
+            try {
+                return Integer.parseInt(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LOG_ARCHIVE_AFTER_DAYS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("jawsLogger.archive_after_days");
+        if (propValue != null) {
+            try {
+                return Integer.parseInt(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid jawsLogger.archive_after_days in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LOG_ARCHIVE_AFTER_DAYS;
+    }
+
+    private static String getLogArchivePathValue() {
+        return getConfigValue("LOG_ARCHIVE_PATH", "jawsLogger.archive_path", DEFAULT_LOG_ARCHIVE_PATH);
+    }
+
+    private static long getLogBlockTimeoutMsValue() {
+        String envValue = System.getenv("LOG_BLOCK_TIMEOUT_MS");
+        if (envValue != null) {
+            try {
+                return Long.parseLong(envValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid LOG_BLOCK_TIMEOUT_MS environment variable value: " + envValue);
+            }
+        }
+
+        String propValue = properties.getProperty("jawsLogger.block_timeout_ms");
+        if (propValue != null) {
+            try {
+                return Long.parseLong(propValue);
+            } catch (NumberFormatException e) {
+                JawsLogger.warn("Invalid jawsLogger.block_timeout_ms in properties file: " + propValue);
+            }
+        }
+
+        return DEFAULT_LOG_BLOCK_TIMEOUT_MS;
+    }
+
     private static int getRateLimitMaxRequestsValue() {
         String envValue = System.getenv("RATE_LIMIT_MAX_REQUESTS");
         if (envValue != null) {
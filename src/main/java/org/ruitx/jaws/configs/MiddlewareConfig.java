@@ -2,6 +2,7 @@ package org.ruitx.jaws.configs;
 
 import org.ruitx.jaws.interfaces.Middleware;
 import org.ruitx.jaws.middleware.AuthMiddleware;
+import org.ruitx.jaws.middleware.CompressionMiddleware;
 import org.ruitx.jaws.middleware.CorsMiddleware;
 import org.ruitx.jaws.middleware.LoggingMiddleware;
 import org.ruitx.jaws.middleware.RateLimiterMiddleware;
@@ -24,6 +25,7 @@ public class MiddlewareConfig {
             new RateLimiterMiddleware(2),
             new CorsMiddleware(3),
             new AuthMiddleware(4),
-            new RequestValidationMiddleware(5)
+            new RequestValidationMiddleware(5),
+            new CompressionMiddleware(6)
     );
 } 
\ No newline at end of file
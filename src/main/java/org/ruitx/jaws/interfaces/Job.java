@@ -3,6 +3,8 @@ package org.ruitx.jaws.interfaces;
 import java.util.Map;
 
 import org.ruitx.jaws.components.freyr.ExecutionMode;
+import org.ruitx.jaws.components.freyr.PayloadCodec;
+import org.ruitx.jaws.components.freyr.PayloadCodecs;
 
 /**
  * Core interface for background jobs.
@@ -51,6 +53,44 @@ public interface Job {
         return ExecutionMode.DEFAULT;
     }
     
+    /**
+     * Ordering key for SEQUENTIAL jobs
+     * Jobs sharing a key run one at a time in submission order, jobs with different
+     * keys may run in parallel. Null means the default key (global FIFO order).
+     */
+    default String getOrderingKey() {
+        Object orderingKey = getPayload().get("orderingKey");
+        return orderingKey != null ? orderingKey.toString() : null;
+    }
+    
+    /**
+     * Idempotency key, optional
+     * While a job with the same key is still live (pending, processing or waiting for a retry),
+     * submitting another one returns the ID of the live job instead of creating a new one.
+     * Null means the job is never deduplicated.
+     */
+    default String getIdempotencyKey() {
+        Object idempotencyKey = getPayload().get("idempotencyKey");
+        return idempotencyKey != null ? idempotencyKey.toString() : null;
+    }
+    
+    /**
+     * Workflow this job belongs to, set by JobWorkflow when the job is added to one
+     * Null for standalone jobs.
+     */
+    default String getWorkflowId() {
+        Object workflowId = getPayload().get("workflowId");
+        return workflowId != null ? workflowId.toString() : null;
+    }
+    
+    /**
+     * Codec used to store the payload in the database (freyr.payload.codec by default)
+     * Jobs with large payloads can use PayloadCodecs.BINARY, which is smaller and faster to decode.
+     */
+    default PayloadCodec getPayloadCodec() {
+        return PayloadCodecs.getDefault();
+    }
+    
     /**
      * Execute the job logic.
      * 
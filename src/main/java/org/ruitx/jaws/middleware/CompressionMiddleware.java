@@ -0,0 +1,346 @@
+package org.ruitx.jaws.middleware;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.ruitx.jaws.components.Yggdrasill;
+import org.ruitx.jaws.interfaces.Middleware;
+import org.ruitx.jaws.interfaces.MiddlewareChain;
+import org.ruitx.jaws.utils.Compression;
+import org.ruitx.jaws.utils.JawsLogger;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.COMPRESSION_LEVEL;
+import static org.ruitx.jaws.configs.ApplicationConfig.COMPRESSION_MIN_BYTES;
+import static org.ruitx.jaws.strings.HttpHeaders.ACCEPT_ENCODING;
+import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_ENCODING;
+import static org.ruitx.jaws.strings.HttpHeaders.CONTENT_LENGTH;
+import static org.ruitx.jaws.strings.HttpHeaders.VARY;
+
+/**
+ * CompressionMiddleware gzips dynamic responses (HTML, JSON, ...) for clients that accept it.
+ * The body is held back until it reaches compression.min_bytes: smaller responses go out as
+ * they are when the request completes, larger ones are compressed while they are written,
+ * with a Deflater from a shared pool.
+ * Responses that already have a Content-Length or Content-Encoding (static files, which have
+ * their own precompressed variants) and content types not worth compressing pass through.
+ * So do asynchronous responses: once a request goes async (or its stream gets a WriteListener)
+ * before compression has started, what was held back is sent as it is and the rest goes straight
+ * to the container.
+ */
+public class CompressionMiddleware implements Middleware {
+
+    private int order = 10;
+
+    public CompressionMiddleware(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public boolean handle(Yggdrasill.RequestContext context, MiddlewareChain chain) {
+        try {
+            HttpServletRequest request = context.getRequest();
+            String acceptEncoding = request.getHeader(ACCEPT_ENCODING.getHeaderName());
+            if (!"HEAD".equals(request.getMethod()) && request.getDispatcherType() != DispatcherType.ASYNC
+                && !request.isAsyncStarted() && Compression.accepts(acceptEncoding, "gzip")) {
+                GzipResponse response = new GzipResponse(request, context.getResponse());
+                context.setResponse(response);
+                context.onComplete(response::finish);
+            }
+            return chain.next();
+
+        } catch (Exception e) {
+            JawsLogger.error("Error in CompressionMiddleware: {}", e.getMessage(), e);
+            return chain.next(); // Continue on error
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * A response that decides whether to compress when its body is first asked for
+     */
+    private static final class GzipResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private GzipStream stream;
+        private PrintWriter writer;
+        private boolean passThrough = false;
+
+        private GzipResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null && !passThrough && !startCompressing()) {
+                passThrough = true;
+            }
+            return passThrough ? super.getOutputStream() : stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null && stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            if (writer == null && !passThrough) {
+                if (startCompressing()) {
+                    writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+                } else {
+                    passThrough = true;
+                }
+            }
+            return passThrough ? super.getWriter() : writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            if (stream == null) {
+                super.setContentLength(length);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (stream == null) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+                if (stream.isBuffering()) {
+                    // Still deciding, committing now would fix the headers
+                    return;
+                }
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream != null && stream.isBuffering()) {
+                stream.count = 0;
+                return;
+            }
+            super.resetBuffer();
+        }
+
+        private boolean startCompressing() {
+            int status = getStatus();
+            if (isCommitted() || request.isAsyncStarted() || status < 200 || status == SC_NO_CONTENT || status == SC_PARTIAL_CONTENT
+                || status == SC_NOT_MODIFIED) {
+                return false;
+            }
+            if (getHeader(CONTENT_ENCODING.getHeaderName()) != null || containsHeader(CONTENT_LENGTH.getHeaderName())
+                || !Compression.isCompressible(getContentType())) {
+                return false;
+            }
+            stream = new GzipStream(request, (HttpServletResponse) getResponse());
+            return true;
+        }
+
+        /**
+         * Send what is left once the request has been processed
+         * An asynchronous response is still being written, it is finished when its stream is closed.
+         */
+        private void finish() {
+            if (stream == null) {
+                return;
+            }
+            boolean async = request.isAsyncStarted();
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                if (!async) {
+                    stream.finish();
+                } else if (stream.isCompressing()) {
+                    stream.flush();
+                } else {
+                    stream.sendBuffered();
+                }
+            } catch (IOException e) {
+                // Mostly clients going away before the end of the response
+                JawsLogger.debug("CompressionMiddleware: Failed to finish response: {}", e.getMessage());
+            } finally {
+                if (!async) {
+                    stream.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers the first compression.min_bytes, then gzips everything to the real output
+     */
+    private static final class GzipStream extends ServletOutputStream {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final byte[] buffer = new byte[Math.max(1, COMPRESSION_MIN_BYTES)];
+        private int count = 0;
+        private Deflater deflater;
+        private Compression.GzipOutputStream gzip;
+        private ServletOutputStream direct; // Set once compression was given up, writes go straight to it
+        private boolean finished = false;
+
+        private GzipStream(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        private boolean isCompressing() {
+            return gzip != null;
+        }
+
+        private boolean isBuffering() {
+            return gzip == null && direct == null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("Response already finished");
+            }
+            if (gzip != null) {
+                gzip.write(b, off, len);
+            } else if (direct != null) {
+                direct.write(b, off, len);
+            } else if (count + len < buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+            } else {
+                response.setHeader(CONTENT_ENCODING.getHeaderName(), "gzip");
+                String vary = response.getHeader(VARY.getHeaderName());
+                if (vary == null) {
+                    response.setHeader(VARY.getHeaderName(), ACCEPT_ENCODING.getHeaderName());
+                } else if (!vary.toLowerCase(Locale.ROOT).contains("accept-encoding")) {
+                    response.setHeader(VARY.getHeaderName(), vary + ", " + ACCEPT_ENCODING.getHeaderName());
+                }
+                deflater = Compression.borrowDeflater(COMPRESSION_LEVEL);
+                gzip = new Compression.GzipOutputStream(response.getOutputStream(), deflater, true);
+                gzip.write(buffer, 0, count);
+                gzip.write(b, off, len);
+                count = 0;
+            }
+        }
+
+        /**
+         * Sends what has been compressed so far, a body still under the threshold waits for finish
+         */
+        @Override
+        public void flush() throws IOException {
+            if (gzip != null) {
+                gzip.flush();
+            } else if (direct != null) {
+                direct.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Give up on compressing, send what was held back as it is and the rest straight through
+         */
+        private void sendBuffered() throws IOException {
+            if (gzip != null || direct != null) {
+                return;
+            }
+            direct = response.getOutputStream();
+            direct.write(buffer, 0, count);
+            count = 0;
+        }
+
+        private void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (gzip != null) {
+                gzip.finish();
+            } else if (direct != null) {
+                direct.close();
+                return;
+            } else {
+                response.setContentLength(count);
+                response.getOutputStream().write(buffer, 0, count);
+            }
+            response.getOutputStream().flush();
+        }
+
+        private void release() {
+            if (deflater != null) {
+                Compression.releaseDeflater(deflater);
+                deflater = null;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return direct == null || direct.isReady();
+        }
+
+        /**
+         * Before compression starts the stream steps aside and the container drives the listener.
+         * Compressed writes block, so the stream is always ready and the listener is called once.
+         */
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            if (listener == null) {
+                throw new NullPointerException("WriteListener is null");
+            }
+            if (!request.isAsyncStarted()) {
+                throw new IllegalStateException("Non-blocking writes need an asynchronous request");
+            }
+            if (gzip == null) {
+                try {
+                    sendBuffered();
+                } catch (IOException e) {
+                    listener.onError(e);
+                    return;
+                }
+                direct.setWriteListener(listener);
+                return;
+            }
+            request.getAsyncContext().start(() -> {
+                try {
+                    listener.onWritePossible();
+                } catch (Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+    }
+}
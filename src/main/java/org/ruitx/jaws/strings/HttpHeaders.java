@@ -8,6 +8,7 @@ public enum HttpHeaders {
     ACCEPT_DATETIME("Accept-Datetime"),
     ACCEPT_ENCODING("Accept-Encoding"),
     ACCEPT_LANGUAGE("Accept-Language"),
+    ACCEPT_RANGES("Accept-Ranges"),
     ACCESS_CONTROL_REQUEST_METHOD("Access-Control-Request-Method"),
     ACCESS_CONTROL_REQUEST_HEADERS("Access-Control-Request-Headers"),
     AUTHORIZATION("Authorization"),
@@ -15,9 +16,11 @@ public enum HttpHeaders {
     CONNECTION("Connection"),
     CONTENT_ENCODING("Content-Encoding"),
     CONTENT_LENGTH("Content-Length"),
+    CONTENT_RANGE("Content-Range"),
     CONTENT_TYPE("Content-Type"),
     COOKIE("Cookie"),
     DATE("Date"),
+    ETAG("ETag"),
     EXPECT("Expect"),
     FORWARDED("Forwarded"),
     FROM("From"),
@@ -27,12 +30,16 @@ public enum HttpHeaders {
     IF_NONE_MATCH("If-None-Match"),
     IF_RANGE("If-Range"),
     IF_UNMODIFIED_SINCE("If-Unmodified-Since"),
+    LAST_MODIFIED("Last-Modified"),
+    RANGE("Range"),
     TE("TE"),
     USER_AGENT("User-Agent"),
     UPGRADE("Upgrade"),
+    VARY("Vary"),
     VIA("Via"),
     WARNING("Warning"),
     LOCATION("Location"),
+    RETRY_AFTER("Retry-After"),
     SERVER("Server"),
     SET_COOKIE("Set-Cookie");
 
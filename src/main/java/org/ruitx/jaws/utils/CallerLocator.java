@@ -0,0 +1,125 @@
+package org.ruitx.jaws.utils;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * CallerLocator - Finds the code that called a logger
+ *
+ * Uses a StackWalker, which materializes frames lazily and stops at the first frame
+ * outside the logger, instead of Thread.getStackTrace(), which captures and fills in
+ * the whole stack on every call. How much is captured is chosen per level:
+ * <ul>
+ *   <li>OFF: nothing, no stack walk at all</li>
+ *   <li>CLASS: the caller's class</li>
+ *   <li>FULL: class, method and line number (line numbers are the expensive part)</li>
+ * </ul>
+ * Levels are configured as "MODE" for every level, or as "LEVEL:MODE" pairs, applied
+ * in order, e.g. "CLASS,WARN:FULL,ERROR:FULL".
+ */
+public class CallerLocator {
+
+    public enum Mode {
+        OFF,
+        CLASS,
+        FULL
+    }
+
+    public record Caller(String className, String methodName, int lineNumber) {
+        public static final Caller NONE = new Caller(null, null, 0);
+        public static final Caller UNKNOWN = new Caller("Unknown", "unknown", 0);
+    }
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR
+    }
+
+    // The caller is never far from the top, don't walk deep stacks (frameworks, filters) to the bottom
+    private static final int MAX_DEPTH = 32;
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final String loggerClassName;
+    private final Map<Level, Mode> modes = new EnumMap<>(Level.class);
+
+    /**
+     * @param loggerClass frames of this class are skipped
+     * @param config per level modes, see the class comment
+     */
+    public CallerLocator(Class<?> loggerClass, String config) {
+        this.loggerClassName = loggerClass.getName();
+        for (Level level : Level.values()) {
+            modes.put(level, Mode.FULL);
+        }
+        parse(config);
+    }
+
+    public Mode getMode(String level) {
+        return toLevel(level).map(modes::get).orElse(Mode.FULL);
+    }
+
+    /**
+     * Find the caller of a log call at the given level
+     */
+    public Caller locate(String level) {
+        return locate(getMode(level));
+    }
+
+    public Caller locate(Mode mode) {
+        if (mode == Mode.OFF) {
+            return Caller.NONE;
+        }
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+            .limit(MAX_DEPTH)
+            .filter(f -> !f.getClassName().equals(loggerClassName) && !f.getClassName().equals(CallerLocator.class.getName()))
+            .findFirst());
+        if (frame.isEmpty()) {
+            return Caller.UNKNOWN;
+        }
+        StackWalker.StackFrame caller = frame.get();
+        return mode == Mode.CLASS
+            ? new Caller(caller.getClassName(), null, 0)
+            : new Caller(caller.getClassName(), caller.getMethodName(), caller.getLineNumber());
+    }
+
+    public Map<Level, Mode> getModes() {
+        return new EnumMap<>(modes);
+    }
+
+    private void parse(String config) {
+        if (config == null || config.isBlank()) {
+            return;
+        }
+        for (String part : config.split(",")) {
+            String[] pieces = part.trim().split(":");
+            if (pieces.length == 1) {
+                Optional<Mode> mode = toMode(pieces[0]);
+                mode.ifPresent(m -> modes.replaceAll((level, old) -> m));
+            } else if (pieces.length == 2) {
+                Optional<Level> level = toLevel(pieces[0]);
+                Optional<Mode> mode = toMode(pieces[1]);
+                if (level.isPresent() && mode.isPresent()) {
+                    modes.put(level.get(), mode.get());
+                }
+            }
+        }
+    }
+
+    private static Optional<Level> toLevel(String value) {
+        try {
+            return Optional.of(Level.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Mode> toMode(String value) {
+        try {
+            return Optional.of(Mode.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.ruitx.jaws.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compression - HTTP content coding helpers shared by the static files and the gzip middleware
+ *
+ * Deflaters hold native memory and are slow to create, the ones compressing responses are
+ * pooled: borrowed for a response, reset and returned once it is finished.
+ */
+public final class Compression {
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private Compression() {
+    }
+
+    /**
+     * Check whether a content type is worth compressing (text, JSON, JavaScript, XML, SVG)
+     * Server-sent events are left alone, they have to reach the client as they are written.
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon).trim();
+        }
+        if (type.equals("text/event-stream")) {
+            return false;
+        }
+        return type.startsWith("text/")
+            || type.contains("json")
+            || type.contains("javascript")
+            || type.contains("xml");
+    }
+
+    /**
+     * Check whether an Accept-Encoding header allows a content coding
+     * "coding;q=0" refuses it, "*" stands for every coding not listed.
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] pieces = part.split(";");
+            String name = pieces[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < pieces.length; i++) {
+                String parameter = pieces[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (name.equals(coding)) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    /**
+     * Take a raw (nowrap) Deflater from the pool, or a new one when it is empty
+     */
+    public static Deflater borrowDeflater(int level) {
+        Deflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            return new Deflater(level, true);
+        }
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    /**
+     * Give a Deflater back, it is reset for the next response (or freed when the pool is full)
+     */
+    public static void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!DEFLATERS.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Gzip a whole array
+     */
+    public static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        Deflater deflater = new Deflater(level, true);
+        try (GzipOutputStream gzip = new GzipOutputStream(out, deflater, false)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to gzip content", e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A gzip stream (RFC 1952) around a Deflater it doesn't own: finish writes the trailer
+     * and leaves the Deflater to whoever borrowed it.
+     */
+    public static final class GzipOutputStream extends DeflaterOutputStream {
+        private final CRC32 crc = new CRC32();
+        private boolean finished = false;
+
+        /**
+         * @param syncFlush whether flush() sends everything written so far (costs some ratio)
+         */
+        public GzipOutputStream(OutputStream out, Deflater deflater, boolean syncFlush) throws IOException {
+            super(out, deflater, 8192, syncFlush);
+            // Magic, deflate, no flags, no mtime, no extra flags, unknown OS
+            out.write(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            super.finish();
+            long value = crc.getValue();
+            int size = (int) def.getBytesRead();
+            out.write(new byte[]{
+                (byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24),
+                (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Unlike DeflaterOutputStream, never ends the Deflater
+            finish();
+            out.close();
+        }
+    }
+}
@@ -1,43 +1,58 @@
 package org.ruitx.jaws.utils;
 
 import org.ruitx.jaws.components.Mimir;
-import org.ruitx.jaws.components.freyr.Freyr;
-import org.ruitx.www.jobs.BatchLogWriterJob;
 import org.tinylog.Logger;
 
 import static org.ruitx.jaws.configs.ApplicationConfig.BATCH_SIZE;
 import static org.ruitx.jaws.configs.ApplicationConfig.FLUSH_INTERVAL_MS;
 import static org.ruitx.jaws.configs.ApplicationConfig.BUFFER_CAPACITY;
 import static org.ruitx.jaws.configs.ApplicationConfig.DB_LEVEL;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_CALLER;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_BLOCK_TIMEOUT_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_OVERFLOW_POLICY;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_RETENTION_DAYS;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_TAIL_CAPACITY;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_RATE_LIMIT;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_SAMPLING;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_SUPPRESSED_SUMMARY_MS;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_ARCHIVE_AFTER_DAYS;
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_ARCHIVE_PATH;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * JawsLogger - Log utility with asynchronous batch database logging
- * Wraps TinyLog's Logger class and adds high-performance database logging capabilities through Freyr job system.
+ * Wraps TinyLog's Logger class and adds database logging through a dedicated LogWriter thread:
+ * entries go to a lock-free ring buffer and are inserted in batches into the logs database,
+ * in one table per day (see LogPartitions). Busy call sites can be rate limited and sampled
+ * on their way to the database (see LogLimiter), the console output is not affected.
  */
 public class JawsLogger {
     
-    // Batch logging configuration
-    //private static final int BATCH_SIZE = 1000;                   // Submit job when buffer reaches this size 
-    //private static final long FLUSH_INTERVAL_MS = 5000;           // Submit job every 500ms for faster processing 
-    //private static final int BUFFER_CAPACITY = 10000;             // Maximum buffer size before dropping logs
-    
-    // Dedicated Mimir instance for logs database (fallback only)
+    // Dedicated Mimir instance for logs database
     private static final Mimir logsDb;
+    private static final LogPartitions logPartitions;
+    // Recent committed entries for live viewers (backoffice log tail)
+    private static final LogTail logTail = new LogTail(LOG_TAIL_CAPACITY);
     private static final boolean dbAvailable;
     
+    // Lowest level saved to the database (jawsLogger.db.level)
+    private static final int dbLevelPriority = getLogLevelPriority(DB_LEVEL);
+    
+    // Caller capture per level (jawsLogger.caller)
+    private static final CallerLocator callerLocator = new CallerLocator(JawsLogger.class, LOG_CALLER);
+    
+    // Rate limiting and sampling per call site (jawsLogger.rate_limit, jawsLogger.sampling)
+    private static final LogLimiter logLimiter = new LogLimiter(LOG_RATE_LIMIT, LOG_SAMPLING);
+    
     // Batch processing components
-    private static final BlockingQueue<LogEntry> logBuffer = new LinkedBlockingQueue<>(BUFFER_CAPACITY);
-    private static final AtomicInteger bufferSize = new AtomicInteger(0);
-    private static final ScheduledExecutorService batchScheduler = Executors.newSingleThreadScheduledExecutor(
-        r -> new Thread(r, "jaws-logger-batch-scheduler"));
+    private static final LogWriter logWriter;
     private static volatile boolean batchingEnabled = true;
         
     static {
         Mimir tempDb = null;
+        LogPartitions tempPartitions = null;
         boolean tempDbAvailable = false;
         
         try {
@@ -52,6 +67,11 @@ public class JawsLogger {
             tempDb.executeSql("PRAGMA temp_store=memory"); // Store temp tables in memory
             tempDb.executeSql("PRAGMA busy_timeout=5000"); // 5 second timeout for BUSY errors
             
+            // Entries are stored per day, split a LOG_ENTRIES table left by an older version
+            tempPartitions = new LogPartitions(tempDb, new LogArchive(LOG_ARCHIVE_PATH));
+            tempPartitions.migrateLegacyTable(LOG_RETENTION_DAYS);
+            tempPartitions.ensureSearchIndexes();
+            
             tempDbAvailable = true;
             Logger.info("JawsLogger: Database logging initialized successfully with WAL mode");
         } catch (Exception e) {
@@ -59,31 +79,45 @@ public class JawsLogger {
         }
         
         logsDb = tempDb;
+        logPartitions = tempPartitions;
+        
+        // Start the writer thread, it flushes on its own every FLUSH_INTERVAL_MS or when a batch is full
+        LogWriter tempWriter = null;
+        if (tempDbAvailable) {
+            tempWriter = new LogWriter(logsDb, logPartitions, logTail, BUFFER_CAPACITY, BATCH_SIZE, FLUSH_INTERVAL_MS,
+                                       LogWriter.OverflowPolicy.fromString(LOG_OVERFLOW_POLICY), LOG_BLOCK_TIMEOUT_MS);
+            Logger.info("JawsLogger: Batch logging enabled (batch_size={}, flush_interval={}ms, capacity={}, overflow={})", 
+                       BATCH_SIZE, FLUSH_INTERVAL_MS, tempWriter.getCapacity(), tempWriter.getOverflowPolicy());
+        }
+        logWriter = tempWriter;
         dbAvailable = tempDbAvailable;
         
-        // Start the batch scheduler for time-based flushing
-        if (dbAvailable) {
-            batchScheduler.scheduleAtFixedRate(JawsLogger::flushBufferIfNeeded, 
-                                             FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, 
-                                             TimeUnit.MILLISECONDS);
-            Logger.info("JawsLogger: Batch logging enabled (batch_size={}, flush_interval={}ms)", 
-                       BATCH_SIZE, FLUSH_INTERVAL_MS);
+        // Save what the limiter suppressed as summary entries every LOG_SUPPRESSED_SUMMARY_MS
+        ScheduledExecutorService tempSummaries = null;
+        if (logWriter != null && logLimiter.isEnabled()) {
+            long period = Math.max(1000, LOG_SUPPRESSED_SUMMARY_MS);
+            tempSummaries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jaws-log-summaries");
+                thread.setDaemon(true);
+                return thread;
+            });
+            tempSummaries.scheduleAtFixedRate(() -> writeSuppressedSummaries(period), period, period, TimeUnit.MILLISECONDS);
+            Logger.info("JawsLogger: Call site limits enabled (rate_limit={}, sampling={}, summaries every {}ms)",
+                       LOG_RATE_LIMIT, LOG_SAMPLING, period);
         }
+        ScheduledExecutorService summaryScheduler = tempSummaries;
         
         // Shutdown hook to flush remaining logs
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            batchingEnabled = false;
-            flushBufferForce();
-            batchScheduler.shutdown();
-            try {
-                if (!batchScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    batchScheduler.shutdownNow();
+        if (logWriter != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (summaryScheduler != null) {
+                    summaryScheduler.shutdownNow();
+                    writeSuppressedSummaries(Math.max(1000, LOG_SUPPRESSED_SUMMARY_MS));
                 }
-            } catch (InterruptedException e) {
-                batchScheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }));
+                batchingEnabled = false;
+                logWriter.shutdown(5, TimeUnit.SECONDS);
+            }));
+        }
     }
     
     // ============================================================================
@@ -97,7 +131,7 @@ public class JawsLogger {
     
     public static void trace(String message, Object... arguments) {
         Logger.trace(message, arguments);
-        queueLogEntry("TRACE", formatMessage(message, arguments), null);
+        queueLogEntry("TRACE", message, arguments, null);
     }
     
     public static void trace(Throwable exception) {
@@ -112,7 +146,7 @@ public class JawsLogger {
     
     public static void trace(Throwable exception, String message, Object... arguments) {
         Logger.trace(exception, message, arguments);
-        queueLogEntry("TRACE", formatMessage(message, arguments), exception);
+        queueLogEntry("TRACE", message, arguments, exception);
     }
     
     // ============================================================================
@@ -126,7 +160,7 @@ public class JawsLogger {
     
     public static void debug(String message, Object... arguments) {
         Logger.debug(message, arguments);
-        queueLogEntry("DEBUG", formatMessage(message, arguments), null);
+        queueLogEntry("DEBUG", message, arguments, null);
     }
     
     public static void debug(Throwable exception) {
@@ -141,7 +175,7 @@ public class JawsLogger {
     
     public static void debug(Throwable exception, String message, Object... arguments) {
         Logger.debug(exception, message, arguments);
-        queueLogEntry("DEBUG", formatMessage(message, arguments), exception);
+        queueLogEntry("DEBUG", message, arguments, exception);
     }
     
     // ============================================================================
@@ -155,7 +189,7 @@ public class JawsLogger {
     
     public static void info(String message, Object... arguments) {
         Logger.info(message, arguments);
-        queueLogEntry("INFO", formatMessage(message, arguments), null);
+        queueLogEntry("INFO", message, arguments, null);
     }
     
     public static void info(Throwable exception) {
@@ -170,7 +204,7 @@ public class JawsLogger {
     
     public static void info(Throwable exception, String message, Object... arguments) {
         Logger.info(exception, message, arguments);
-        queueLogEntry("INFO", formatMessage(message, arguments), exception);
+        queueLogEntry("INFO", message, arguments, exception);
     }
     
     // ============================================================================
@@ -184,7 +218,7 @@ public class JawsLogger {
     
     public static void warn(String message, Object... arguments) {
         Logger.warn(message, arguments);
-        queueLogEntry("WARN", formatMessage(message, arguments), null);
+        queueLogEntry("WARN", message, arguments, null);
     }
     
     public static void warn(Throwable exception) {
@@ -199,7 +233,7 @@ public class JawsLogger {
     
     public static void warn(Throwable exception, String message, Object... arguments) {
         Logger.warn(exception, message, arguments);
-        queueLogEntry("WARN", formatMessage(message, arguments), exception);
+        queueLogEntry("WARN", message, arguments, exception);
     }
     
     // ============================================================================
@@ -213,7 +247,7 @@ public class JawsLogger {
     
     public static void error(String message, Object... arguments) {
         Logger.error(message, arguments);
-        queueLogEntry("ERROR", formatMessage(message, arguments), null);
+        queueLogEntry("ERROR", message, arguments, null);
     }
     
     public static void error(Throwable exception) {
@@ -228,7 +262,7 @@ public class JawsLogger {
     
     public static void error(Throwable exception, String message, Object... arguments) {
         Logger.error(exception, message, arguments);
-        queueLogEntry("ERROR", formatMessage(message, arguments), exception);
+        queueLogEntry("ERROR", message, arguments, exception);
     }
     
     // ============================================================================
@@ -249,12 +283,48 @@ public class JawsLogger {
         return dbAvailable ? logsDb.getDatabasePath() : null;
     }
     
+    /**
+     * Get the day partitions of the logs database (null when database logging is unavailable)
+     */
+    public static LogPartitions getLogPartitions() {
+        return dbAvailable ? logPartitions : null;
+    }
+    
+    /**
+     * Get the recent entries written to the database, for live viewers
+     */
+    public static LogTail getLogTail() {
+        return logTail;
+    }
+    
+    /**
+     * Drop the log partitions older than jawsLogger.retention_days
+     * Run periodically by Norns.
+     *
+     * @return the number of partitions dropped
+     */
+    public static int applyRetention() {
+        return dbAvailable ? logPartitions.dropExpired(LOG_RETENTION_DAYS) : 0;
+    }
+    
+    /**
+     * Move the partitions older than jawsLogger.archive_after_days to compressed archive files
+     * Run periodically by Norns.
+     *
+     * @return the number of partitions archived
+     */
+    public static int archiveColdPartitions() {
+        return dbAvailable ? logPartitions.archiveClosed(LOG_ARCHIVE_AFTER_DAYS) : 0;
+    }
+    
     /**
      * Force flush any remaining log entries in the buffer
-     * Useful for testing or shutdown scenarios
+     * Waits until everything logged so far has been written. Useful for testing or shutdown scenarios
      */
     public static void forceFlush() {
-        flushBufferForce();
+        if (logWriter != null) {
+            logWriter.flush(5, TimeUnit.SECONDS);
+        }
     }
     
     /**
@@ -262,12 +332,17 @@ public class JawsLogger {
      */
     public static Map<String, Object> getBufferStatistics() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("bufferSize", bufferSize.get());
-        stats.put("bufferCapacity", BUFFER_CAPACITY);
+        stats.put("bufferSize", logWriter != null ? logWriter.getBufferSize() : 0);
+        stats.put("bufferCapacity", logWriter != null ? logWriter.getCapacity() : BUFFER_CAPACITY);
         stats.put("batchSize", BATCH_SIZE);
         stats.put("flushIntervalMs", FLUSH_INTERVAL_MS);
         stats.put("batchingEnabled", batchingEnabled);
         stats.put("dbAvailable", dbAvailable);
+        if (logWriter != null) {
+            stats.putAll(logWriter.getStatistics());
+        }
+        stats.putAll(logTail.getStatistics());
+        stats.putAll(logLimiter.getStatistics());
         return stats;
     }
     
@@ -279,15 +354,16 @@ public class JawsLogger {
      * Check if a log level should be saved to the database based on configured DB_LEVEL
      */
     private static boolean shouldLogToDatabase(String level) {
-        int levelPriority = getLogLevelPriority(level);
-        int configuredPriority = getLogLevelPriority(DB_LEVEL);
-        return levelPriority >= configuredPriority;
+        return getLogLevelPriority(level) >= dbLevelPriority;
     }
     
     /**
      * Get numeric priority for log level (higher number = higher priority)
      */
     private static int getLogLevelPriority(String level) {
+        if (level == null) {
+            return 0;
+        }
         switch (level.toUpperCase()) {
             case "TRACE": return 1;
             case "DEBUG": return 2;
@@ -302,7 +378,14 @@ public class JawsLogger {
      * Queue a log entry for batch processing
      */
     private static void queueLogEntry(String level, String message, Throwable exception) {
-        if (!dbAvailable || !batchingEnabled) {
+        queueLogEntry(level, message, null, exception);
+    }
+
+    /**
+     * Queue a log entry for batch processing, the message is formatted later on the writer thread
+     */
+    private static void queueLogEntry(String level, String message, Object[] arguments, Throwable exception) {
+        if (!dbAvailable || !batchingEnabled || logWriter == null) {
             return; // Skip queuing if database unavailable or batching disabled
         }
         
@@ -311,9 +394,19 @@ public class JawsLogger {
             return; // Skip queuing if level is below configured DB_LEVEL
         }
         
+        if (message == null) {
+            // Exceptions without a message are logged under their class name
+            message = exception != null ? exception.getClass().getName() : "";
+        }
+        
         try {
-            // Get caller information
-            CallerInfo caller = getCallerInfo();
+            // Get caller information, as much as configured for this level
+            CallerLocator.Caller caller = callerLocator.locate(level);
+            
+            // Keep hot call sites from flooding the database, suppressed entries end up in a summary
+            if (!logLimiter.allow(level, caller.className(), message)) {
+                return;
+            }
             
             // Get current thread info
             Thread currentThread = Thread.currentThread();
@@ -329,36 +422,17 @@ public class JawsLogger {
             LogEntry logEntry = new LogEntry(
                 System.currentTimeMillis(),
                 level,
-                caller.className,
+                caller.className(),
                 threadName,
                 message,
+                snapshotArguments(arguments),
                 exceptionStr,
-                caller.methodName,
-                caller.lineNumber
+                caller.methodName(),
+                caller.lineNumber()
             );
             
-            // Try to add to buffer (non-blocking)
-            boolean added = logBuffer.offer(logEntry);
-            if (added) {
-                int currentSize = bufferSize.incrementAndGet();
-                
-                // Check if we should flush based on size
-                if (currentSize >= BATCH_SIZE) {
-                    flushBuffer();
-                }
-            } else {
-                // Buffer is full - try to flush it first, then drop if still full
-                flushBuffer();
-                
-                // Try one more time after flush
-                boolean retryAdded = logBuffer.offer(logEntry);
-                if (!retryAdded) {
-                    // Still full - drop this log entry but don't spam warnings
-                    if (Math.random() < 0.01) { // Only warn 1% of the time to avoid log spam
-                        Logger.warn("JawsLogger: Log buffer consistently full, dropping log entries");
-                    }
-                }
-            }
+            // Hand it to the writer thread, dropped entries are counted there
+            logWriter.offer(logEntry);
             
         } catch (Exception e) {
             // Avoid infinite recursion - don't use JawsLogger here
@@ -367,149 +441,15 @@ public class JawsLogger {
     }
     
     /**
-     * Flush the buffer by submitting a batch job (if buffer has entries)
-     */
-    private static void flushBufferIfNeeded() {
-        if (bufferSize.get() > 0) {
-            flushBuffer();
-        }
-    }
-    
-    /**
-     * Flush the buffer by submitting a batch job
+     * Hand the limiter's summaries of suppressed entries to the writer thread
      */
-    private static void flushBuffer() {
-        if (!batchingEnabled) {
-            return;
-        }
-        
-        List<LogEntry> batch = drainBuffer();
-        if (!batch.isEmpty()) {
-            submitBatchJob(batch);
-        }
-    }
-    
-    /**
-     * Force flush the buffer (used during shutdown)
-     */
-    private static void flushBufferForce() {
-        List<LogEntry> batch = drainBuffer();
-        if (!batch.isEmpty()) {
-            // During shutdown, try job submission first, then fallback to direct DB write
-            try {
-                submitBatchJob(batch);
-            } catch (Exception e) {
-                Logger.warn("JawsLogger: Failed to submit batch job during shutdown, writing directly to DB");
-                writeBatchDirectly(batch);
-            }
-        }
-    }
-    
-    /**
-     * Drain the buffer and return all log entries
-     */
-    private static List<LogEntry> drainBuffer() {
-        List<LogEntry> batch = new ArrayList<>();
-        LogEntry entry;
-        
-        // Drain all entries from buffer
-        while ((entry = logBuffer.poll()) != null) {
-            batch.add(entry);
-            bufferSize.decrementAndGet();
-        }
-        
-        return batch;
-    }
-    
-    /**
-     * Submit a batch job to Freyr
-     */
-    private static void submitBatchJob(List<LogEntry> batch) {
+    private static void writeSuppressedSummaries(long periodMs) {
         try {
-            // Convert LogEntry objects to Maps for job payload
-            List<Map<String, Object>> logEntryMaps = new ArrayList<>();
-            for (LogEntry entry : batch) {
-                Map<String, Object> entryMap = new HashMap<>();
-                entryMap.put("timestamp", entry.getTimestamp());
-                entryMap.put("level", entry.getLevel());
-                entryMap.put("logger", entry.getLogger());
-                entryMap.put("thread", entry.getThread());
-                entryMap.put("message", entry.getMessage());
-                entryMap.put("exception", entry.getException());
-                entryMap.put("method", entry.getMethod());
-                entryMap.put("lineNumber", entry.getLineNumber());
-                logEntryMaps.add(entryMap);
+            for (LogEntry summary : logLimiter.drainSummaries(periodMs)) {
+                logWriter.offer(summary);
             }
-            
-            // Create job payload
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("logEntries", logEntryMaps);
-            
-            // Submit to Freyr
-            BatchLogWriterJob job = new BatchLogWriterJob(payload);
-            Freyr.getInstance().submit(job);
-            
-            Logger.debug("JawsLogger: Submitted batch job with {} log entries", batch.size());
-            
         } catch (Exception e) {
-            Logger.error("JawsLogger: Failed to submit batch logging job: {}", e.getMessage());
-            // Fallback to direct database write
-            writeBatchDirectly(batch);
-        }
-    }
-    
-    /**
-     * Fallback method to write logs directly to database (bypassing job system)
-     */
-    private static void writeBatchDirectly(List<LogEntry> batch) {
-        if (logsDb == null) {
-            return;
-        }
-        
-        int maxRetries = 3;
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try {
-                for (LogEntry entry : batch) {
-                    logsDb.executeSql(
-                        "INSERT INTO LOG_ENTRIES (timestamp, level, logger, thread, message, exception, method, line) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
-                        entry.getTimestamp(),
-                        entry.getLevel(),
-                        entry.getLogger(),
-                        entry.getThread(),
-                        entry.getMessage(),
-                        entry.getException(),
-                        entry.getMethod(),
-                        entry.getLineNumber()
-                    );
-                }
-                Logger.debug("JawsLogger: Direct database write completed for {} entries", batch.size());
-                return; // Success - exit retry loop
-                
-            } catch (Exception e) {
-                boolean isBusyError = e.getMessage() != null && 
-                    (e.getMessage().contains("SQLITE_BUSY") || e.getMessage().contains("database is locked"));
-                
-                if (isBusyError && attempt < maxRetries) {
-                    // Exponential backoff: 50ms, 200ms, 800ms
-                    long delayMs = 50L * (long) Math.pow(4, attempt);
-                    try {
-                        Thread.sleep(delayMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        Logger.warn("JawsLogger: Retry interrupted, dropping {} log entries", batch.size());
-                        return;
-                    }
-                    Logger.debug("JawsLogger: Database busy, retrying in {}ms (attempt {}/{})", delayMs, attempt + 1, maxRetries);
-                } else {
-                    // Final attempt failed or non-retryable error
-                    if (isBusyError) {
-                        Logger.warn("JawsLogger: Database busy after {} retries, dropping {} log entries", maxRetries, batch.size());
-                    } else {
-                        Logger.error("JawsLogger: Failed to write logs directly to database: {}", e.getMessage());
-                    }
-                    return;
-                }
-            }
+            Logger.warn("JawsLogger: Failed to write suppressed entry summaries: {}", e.getMessage());
         }
     }
     
@@ -518,52 +458,29 @@ public class JawsLogger {
     // ============================================================================
     
     /**
-     * Format message with arguments using simple placeholder replacement
+     * Make the arguments safe to format later on another thread
+     * Immutable values are kept as they are, anything else is turned into its string now,
+     * so the entry shows the value it had when it was logged.
      */
-    private static String formatMessage(String message, Object... arguments) {
-        if (arguments == null || arguments.length == 0) {
-            return message;
+    private static Object[] snapshotArguments(Object[] arguments) {
+        if (arguments == null) {
+            return null;
         }
-        
-        try {
-            // Simple {} placeholder replacement
-            String result = message;
-            for (Object arg : arguments) {
-                if (result.contains("{}")) {
-                    String replacement = arg != null ? arg.toString() : "null";
-                    result = result.replaceFirst("\\{\\}", replacement);
-                }
+        Object[] snapshot = arguments;
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            if (argument == null || argument instanceof String || argument instanceof Integer || argument instanceof Long
+                    || argument instanceof Double || argument instanceof Float || argument instanceof Short
+                    || argument instanceof Byte || argument instanceof Boolean || argument instanceof Character
+                    || argument instanceof Enum<?>) {
+                continue;
             }
-            return result;
-        } catch (Exception e) {
-            // If formatting fails, return original message
-            return message + " [formatting failed]";
-        }
-    }
-    
-    /**
-     * Get caller information from stack trace
-     */
-    private static CallerInfo getCallerInfo() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        
-        // Find the first non-JawsLogger caller
-        for (int i = 2; i < stackTrace.length; i++) { // Skip getStackTrace() and getCallerInfo()
-            StackTraceElement element = stackTrace[i];
-            String className = element.getClassName();
-            
-            // Skip JawsLogger methods
-            if (!className.equals(JawsLogger.class.getName())) {
-                return new CallerInfo(
-                    className,
-                    element.getMethodName(),
-                    element.getLineNumber()
-                );
+            if (snapshot == arguments) {
+                snapshot = arguments.clone();
             }
+            snapshot[i] = String.valueOf(argument);
         }
-        
-        // Fallback if no caller found
-        return new CallerInfo("Unknown", "unknown", 0);
+        return snapshot;
     }
     
     /**
@@ -583,19 +500,4 @@ public class JawsLogger {
             return exception.toString();
         }
     }
-    
-    /**
-     * Helper class to store caller information
-     */
-    private static class CallerInfo {
-        final String className;
-        final String methodName;
-        final int lineNumber;
-        
-        CallerInfo(String className, String methodName, int lineNumber) {
-            this.className = className;
-            this.methodName = methodName;
-            this.lineNumber = lineNumber;
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,519 @@
+package org.ruitx.jaws.utils;
+
+import org.ruitx.jaws.types.Row;
+import org.tinylog.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * LogArchive - Compressed files holding the log entries of days moved out of the logs database
+ *
+ * Each day is one file (LOG_ENTRIES_yyyyMMdd.lga) made of blocks of up to BLOCK_ENTRIES entries,
+ * followed by an index and a footer:
+ * <pre>
+ *   MAGIC, day
+ *   block*           deflated, one column after the other (ids, timestamps, levels, ..., messages, exceptions)
+ *   index            per block: offset, length, entries, first and last id, min and max timestamp, levels present
+ *   index offset, MAGIC
+ * </pre>
+ * A query reads the index, skips the blocks outside its time range or without its level, and
+ * inflates only the others. Within a block the small columns come first, so the messages and
+ * exceptions of entries that don't match are skipped without being decoded.
+ *
+ * Levels are stored as their index in LEVELS. Any other level (or none) is stored as OTHER_LEVEL,
+ * with its text kept in a last column written only for those entries.
+ *
+ * Entries keep their partition ID, so "yyyyMMdd-id" still finds them once archived.
+ */
+public class LogArchive {
+
+    public static final String FILE_SUFFIX = ".lga";
+
+    private static final int MAGIC = 0x4A4C4131; // "JLA1"
+    private static final int BLOCK_ENTRIES = 4096;
+    private static final int INDEX_ENTRY_BYTES = 8 + 4 + 4 + 8 + 8 + 8 + 8 + 4;
+    private static final int FOOTER_BYTES = 8 + 4;
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    private static final int OTHER_LEVEL = 0xFF;
+    private static final int OTHER_LEVEL_BIT = 1 << 31;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path directory;
+
+    /**
+     * Supplies the entries of a day in id order, BLOCK_ENTRIES at a time (empty once done)
+     */
+    @FunctionalInterface
+    public interface EntrySource {
+        List<Row> next(long afterId, int limit);
+    }
+
+    private record Block(long offset, int length, int entries, long firstId, long lastId,
+                         long minTimestamp, long maxTimestamp, int levels) {
+    }
+
+    public LogArchive(String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public String getDirectory() {
+        return directory.toString();
+    }
+
+    /**
+     * Get the file holding the entries of a day
+     */
+    public Path fileOf(long day) {
+        return directory.resolve(LogPartitions.TABLE_PREFIX + LocalDate.ofEpochDay(day).format(DAY_FORMAT) + FILE_SUFFIX);
+    }
+
+    public boolean contains(long day) {
+        return Files.isRegularFile(fileOf(day));
+    }
+
+    /**
+     * Get the archived days, oldest first
+     */
+    public List<Long> listDays() {
+        List<Long> days = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return days;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                .filter(name -> name.matches(LogPartitions.TABLE_PREFIX + "\\d{8}\\" + FILE_SUFFIX))
+                .map(name -> name.substring(LogPartitions.TABLE_PREFIX.length(), LogPartitions.TABLE_PREFIX.length() + 8))
+                .sorted()
+                .forEach(day -> days.add(LocalDate.parse(day, DAY_FORMAT).toEpochDay()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list the log archive " + directory, e);
+        }
+        return days;
+    }
+
+    /**
+     * Write the entries of a day to its archive file
+     * The file is written aside and moved in place once complete, a day is never half archived.
+     *
+     * @return the number of entries archived
+     */
+    public long write(long day, EntrySource source) {
+        Path file = fileOf(day);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 0;
+        try {
+            Files.createDirectories(directory);
+            List<Block> blocks = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(12).putInt(MAGIC).putLong(day).flip();
+                writeFully(channel, header);
+
+                long afterId = 0;
+                List<Row> rows;
+                while (!(rows = source.next(afterId, BLOCK_ENTRIES)).isEmpty()) {
+                    Block block = writeBlock(channel, rows);
+                    blocks.add(block);
+                    written += rows.size();
+                    afterId = block.lastId();
+                }
+
+                long indexOffset = channel.position();
+                ByteBuffer index = ByteBuffer.allocate(4 + blocks.size() * INDEX_ENTRY_BYTES + FOOTER_BYTES);
+                index.putInt(blocks.size());
+                for (Block block : blocks) {
+                    index.putLong(block.offset()).putInt(block.length()).putInt(block.entries())
+                        .putLong(block.firstId()).putLong(block.lastId())
+                        .putLong(block.minTimestamp()).putLong(block.maxTimestamp()).putInt(block.levels());
+                }
+                index.putLong(indexOffset).putInt(MAGIC).flip();
+                writeFully(channel, index);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left for the next attempt to overwrite
+            }
+            throw new RuntimeException("Failed to archive the log entries of " + LocalDate.ofEpochDay(day), e);
+        }
+        return written;
+    }
+
+    /**
+     * Delete the archives of the days before a given one
+     *
+     * @return the number of files deleted
+     */
+    public int deleteBefore(long firstKept) {
+        int deleted = 0;
+        for (long day : listDays()) {
+            if (day >= firstKept) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(fileOf(day));
+                deleted++;
+            } catch (IOException e) {
+                Logger.warn("JawsLogger: Failed to delete log archive {}: {}", fileOf(day), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Get the archived entries of a day logged between two timestamps, newest first
+     * Blocks are read from the newest, stopping once the limit is reached and no older block
+     * can hold a newer entry.
+     *
+     * @param level  exact level to match, or null
+     * @param logger part of the logger name to match (case insensitive, like LIKE), or null
+     * @param match  extra test on the decoded entries (search terms), or null
+     */
+    public List<Row> findEntries(long day, long from, long to, String level, String logger,
+                                 Predicate<Row> match, int limit) {
+        List<Row> entries = new ArrayList<>();
+        if (limit <= 0 || !contains(day)) {
+            return entries;
+        }
+        String levelFilter = level != null && !level.isEmpty() ? level : null;
+        int levelBit = levelFilter != null ? levelBit(levelCode(levelFilter)) : 0;
+        String loggerPart = logger != null && !logger.isEmpty() ? logger.toLowerCase(Locale.ROOT) : null;
+
+        try (FileChannel channel = FileChannel.open(fileOf(day), StandardOpenOption.READ)) {
+            List<Block> blocks = readIndex(channel);
+            long oldestKept = Long.MAX_VALUE;
+            for (int i = blocks.size() - 1; i >= 0; i--) {
+                Block block = blocks.get(i);
+                if (entries.size() >= limit && block.maxTimestamp() < oldestKept) {
+                    break;
+                }
+                if (block.maxTimestamp() < from || block.minTimestamp() > to
+                        || (levelBit != 0 && (block.levels() & levelBit) == 0)) {
+                    continue;
+                }
+                for (Row row : readBlock(channel, day, block, from, to, levelFilter, loggerPart)) {
+                    if (match == null || match.test(row)) {
+                        entries.add(row);
+                        oldestKept = Math.min(oldestKept, row.getLong("timestamp").orElse(0L));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log archive " + fileOf(day), e);
+        }
+
+        entries.sort((a, b) -> Long.compare(b.getLong("timestamp").orElse(0L), a.getLong("timestamp").orElse(0L)));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Get one archived entry by its partition ID, only its block is inflated
+     *
+     * @return the entry, or null if the day isn't archived or has no such entry
+     */
+    public Row findEntry(long day, long id) {
+        if (!contains(day)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(fileOf(day), StandardOpenOption.READ)) {
+            for (Block block : readIndex(channel)) {
+                if (id < block.firstId() || id > block.lastId()) {
+                    continue;
+                }
+                for (Row row : readBlock(channel, day, block, Long.MIN_VALUE, Long.MAX_VALUE, null, null)) {
+                    if (row.getLong("id").orElse(0L) == id) {
+                        return row;
+                    }
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log archive " + fileOf(day), e);
+        }
+    }
+
+    private Block writeBlock(FileChannel channel, List<Row> rows) throws IOException {
+        int size = rows.size();
+        long[] ids = new long[size];
+        long[] timestamps = new long[size];
+        int[] levelCodes = new int[size];
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        int levels = 0;
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            ids[i] = row.getLong("id").orElse(0L);
+            timestamps[i] = row.getLong("timestamp").orElse(0L);
+            minTimestamp = Math.min(minTimestamp, timestamps[i]);
+            maxTimestamp = Math.max(maxTimestamp, timestamps[i]);
+            levelCodes[i] = levelCode(row.getString("level").orElse(null));
+            levels |= levelBit(levelCodes[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192))) {
+            writeVarLong(out, size);
+            long previous = 0;
+            for (long id : ids) {
+                writeVarLong(out, id - previous);
+                previous = id;
+            }
+            previous = 0;
+            for (long timestamp : timestamps) {
+                writeVarLong(out, zigZag(timestamp - previous));
+                previous = timestamp;
+            }
+            for (int levelCode : levelCodes) {
+                out.writeByte(levelCode);
+            }
+            for (int i = 0; i < size; i++) {
+                writeVarLong(out, zigZag(rows.get(i).getLong("created_at").orElse(timestamps[i]) - timestamps[i]));
+            }
+            for (int i = 0; i < size; i++) {
+                writeVarLong(out, zigZag(rows.get(i).getLong("line").orElse(0L)));
+            }
+            for (String column : new String[]{"logger", "thread", "method", "message", "exception"}) {
+                for (Row row : rows) {
+                    writeString(out, row.getString(column).orElse(null));
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                if (levelCodes[i] == OTHER_LEVEL) {
+                    writeString(out, rows.get(i).getString("level").orElse(null));
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+
+        long offset = channel.position();
+        writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+        return new Block(offset, bytes.size(), size, ids[0], ids[size - 1], minTimestamp, maxTimestamp, levels);
+    }
+
+    private List<Block> readIndex(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer footer = readAt(channel, fileSize - FOOTER_BYTES, FOOTER_BYTES);
+        long indexOffset = footer.getLong();
+        if (footer.getInt() != MAGIC || indexOffset < 12 || indexOffset > fileSize - FOOTER_BYTES - 4) {
+            throw new IOException("Not a log archive, or an incomplete one");
+        }
+
+        ByteBuffer index = readAt(channel, indexOffset, (int) (fileSize - FOOTER_BYTES - indexOffset));
+        int count = index.getInt();
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new Block(index.getLong(), index.getInt(), index.getInt(), index.getLong(), index.getLong(),
+                                 index.getLong(), index.getLong(), index.getInt()));
+        }
+        return blocks;
+    }
+
+    /**
+     * Inflate a block and decode the entries matching the time range, level and logger
+     */
+    private List<Row> readBlock(FileChannel channel, long day, Block block, long from, long to,
+                                String level, String loggerPart) throws IOException {
+        int levelCode = level != null ? levelCode(level) : -1;
+        ByteBuffer compressed = readAt(channel, block.offset(), block.length());
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(compressed.array(), compressed.arrayOffset(), block.length())))) {
+            int size = (int) readVarLong(in);
+            long[] ids = new long[size];
+            long[] timestamps = new long[size];
+            int[] levels = new int[size];
+            long[] createdAt = new long[size];
+            long[] lines = new long[size];
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += readVarLong(in);
+                ids[i] = previous;
+            }
+            previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += unZigZag(readVarLong(in));
+                timestamps[i] = previous;
+            }
+            for (int i = 0; i < size; i++) {
+                levels[i] = in.readUnsignedByte();
+            }
+            for (int i = 0; i < size; i++) {
+                createdAt[i] = timestamps[i] + unZigZag(readVarLong(in));
+            }
+            for (int i = 0; i < size; i++) {
+                lines[i] = unZigZag(readVarLong(in));
+            }
+
+            boolean[] selected = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                selected[i] = timestamps[i] >= from && timestamps[i] <= to && (levelCode < 0 || levels[i] == levelCode);
+            }
+            String[] loggers = readColumn(in, selected);
+            if (loggerPart != null) {
+                for (int i = 0; i < size; i++) {
+                    selected[i] &= loggers[i] != null && loggers[i].toLowerCase(Locale.ROOT).contains(loggerPart);
+                }
+            }
+            String[] threads = readColumn(in, selected);
+            String[] methods = readColumn(in, selected);
+            String[] messages = readColumn(in, selected);
+            String[] exceptions = readColumn(in, selected);
+            String[] otherLevels = new String[size];
+            for (int i = 0; i < size; i++) {
+                if (levels[i] == OTHER_LEVEL) {
+                    otherLevels[i] = readString(in, selected[i]);
+                    selected[i] &= levelCode != OTHER_LEVEL || level.equals(otherLevels[i]);
+                }
+            }
+
+            String dayId = LocalDate.ofEpochDay(day).format(DAY_FORMAT) + "-";
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (!selected[i]) {
+                    continue;
+                }
+                Map<String, Object> data = new HashMap<>();
+                data.put("entry_id", dayId + ids[i]);
+                data.put("id", ids[i]);
+                data.put("timestamp", timestamps[i]);
+                data.put("level", levels[i] < LEVELS.length ? LEVELS[levels[i]] : otherLevels[i]);
+                data.put("logger", loggers[i]);
+                data.put("thread", threads[i]);
+                data.put("message", messages[i]);
+                data.put("exception", exceptions[i]);
+                data.put("method", methods[i]);
+                data.put("line", (int) lines[i]);
+                data.put("created_at", createdAt[i]);
+                rows.add(new Row(data));
+            }
+            return rows;
+        }
+    }
+
+    // Strings of the entries not selected are skipped without being decoded
+    private static String[] readColumn(DataInputStream in, boolean[] selected) throws IOException {
+        String[] values = new String[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            values[i] = readString(in, selected[i]);
+        }
+        return values;
+    }
+
+    private static String readString(DataInputStream in, boolean decode) throws IOException {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (!decode) {
+            in.skipNBytes(length);
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > channel.size()) {
+            throw new IOException("Log archive block out of bounds");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Length + 1 so null (0) and empty (1) differ
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed log archive block");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int levelCode(String level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equals(level)) {
+                return i;
+            }
+        }
+        return OTHER_LEVEL;
+    }
+
+    private static int levelBit(int levelCode) {
+        return levelCode == OTHER_LEVEL ? OTHER_LEVEL_BIT : 1 << levelCode;
+    }
+}
@@ -2,29 +2,81 @@ package org.ruitx.jaws.utils;
 
 /**
  * LogEntry - Represents a single log entry for batch processing
+ * 
+ * The message can be kept as a template with "{}" placeholders and its arguments,
+ * formatted only when the entry is written (on the LogWriter thread), so the logging
+ * thread never builds the string.
  */
 public class LogEntry {
     private final long timestamp;
     private final String level;
     private final String logger;
     private final String thread;
-    private final String message;
+    private final String template;
+    private final Object[] arguments;
     private final String exception;
     private final String method;
     private final int lineNumber;
     private final long createdAt;
+    private String message;
     
     public LogEntry(long timestamp, String level, String logger, String thread, 
                    String message, String exception, String method, int lineNumber) {
+        this(timestamp, level, logger, thread, message, null, exception, method, lineNumber);
+    }
+    
+    /**
+     * Entry with a deferred message: the template is formatted with the arguments when first needed
+     * Arguments must not change after this call, pass immutable values or their toString().
+     */
+    public LogEntry(long timestamp, String level, String logger, String thread, 
+                   String template, Object[] arguments, String exception, String method, int lineNumber) {
         this.timestamp = timestamp;
         this.level = level;
         this.logger = logger;
         this.thread = thread;
-        this.message = message;
+        // The message column is NOT NULL, an entry without one is stored with an empty message
+        this.template = template != null ? template : "";
+        this.arguments = arguments;
         this.exception = exception;
         this.method = method;
         this.lineNumber = lineNumber;
         this.createdAt = System.currentTimeMillis();
+        if (arguments == null || arguments.length == 0) {
+            this.message = this.template;
+        }
+    }
+    
+    /**
+     * Get the message, formatting it on first use
+     */
+    public String getMessage() {
+        if (message == null && template != null) {
+            message = formatMessage(new StringBuilder(template.length() + 32));
+        }
+        return message;
+    }
+    
+    /**
+     * Get the message, formatting it into the given builder (cleared first) if not done yet
+     * Lets the writer thread reuse one builder for every entry.
+     */
+    public String formatMessage(StringBuilder builder) {
+        if (message != null || template == null) {
+            return message;
+        }
+        builder.setLength(0);
+        int argumentIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argumentIndex < arguments.length && (placeholder = template.indexOf("{}", start)) >= 0) {
+            builder.append(template, start, placeholder);
+            builder.append(arguments[argumentIndex++]);
+            start = placeholder + 2;
+        }
+        builder.append(template, start, template.length());
+        message = builder.toString();
+        return message;
     }
     
     // Getters
@@ -32,7 +84,6 @@ public class LogEntry {
     public String getLevel() { return level; }
     public String getLogger() { return logger; }
     public String getThread() { return thread; }
-    public String getMessage() { return message; }
     public String getException() { return exception; }
     public String getMethod() { return method; }
     public int getLineNumber() { return lineNumber; }
@@ -41,6 +92,6 @@ public class LogEntry {
     @Override
     public String toString() {
         return String.format("[%s] %s - %s (%s:%d)", 
-                           level, logger, message, method, lineNumber);
+                           level, logger, getMessage(), method, lineNumber);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,242 @@
+package org.ruitx.jaws.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LogLimiter - Bounds how many entries each call site sends to the logs database
+ *
+ * A call site is a level, a logger and a message template. Each one gets a token bucket
+ * (RATE entries per second, bursts of up to BURST) and can be sampled, keeping only a
+ * fraction of its entries. Both are configured per level:
+ * <ul>
+ *   <li>rate limit: "RATE[/BURST]" for every level or "LEVEL:RATE[/BURST]" pairs, e.g. "TRACE:10/100,INFO:50/500"</li>
+ *   <li>sampling: "RATE" or "LEVEL:RATE" pairs with the fraction kept, e.g. "TRACE:0.1,DEBUG:0.5"</li>
+ * </ul>
+ * Levels without a setting are not limited. Suppressed entries are counted per call site
+ * and turned into summary entries (see drainSummaries), so a flood shows up as one line
+ * with a count instead of disappearing.
+ */
+public class LogLimiter {
+
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR"};
+    // Past this many tracked call sites (messages built by concatenation), new ones share a bucket per level
+    private static final int MAX_SITES = 10_000;
+    private static final String OVERFLOW_SITE = "*";
+
+    private final double[] ratePerSecond = new double[LEVELS.length];
+    private final double[] burst = new double[LEVELS.length];
+    private final double[] sampleRate = new double[LEVELS.length];
+    private final boolean enabled;
+
+    private final Map<SiteKey, Site> sites = new ConcurrentHashMap<>();
+
+    // Statistics
+    private final AtomicLong rateLimited = new AtomicLong(0);
+    private final AtomicLong sampledOut = new AtomicLong(0);
+    private final AtomicLong summaries = new AtomicLong(0);
+
+    private record SiteKey(int level, String logger, String template) {
+    }
+
+    private static final class Site {
+        private double tokens;
+        private long refilledAt;
+        private long lastSeen;
+        private long rateLimited;
+        private long sampledOut;
+
+        private Site(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+            this.lastSeen = now;
+        }
+    }
+
+    /**
+     * @param rateLimitConfig per level token buckets, see the class comment
+     * @param samplingConfig  per level sampling rates, see the class comment
+     */
+    public LogLimiter(String rateLimitConfig, String samplingConfig) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            sampleRate[i] = 1.0;
+        }
+        parseRateLimits(rateLimitConfig);
+        parseSampling(samplingConfig);
+
+        boolean any = false;
+        for (int i = 0; i < LEVELS.length; i++) {
+            any |= ratePerSecond[i] > 0 || sampleRate[i] < 1.0;
+        }
+        this.enabled = any;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Decide whether an entry from a call site goes to the database
+     * Entries that don't are counted for the next summary.
+     */
+    public boolean allow(String level, String logger, String template) {
+        int index = levelIndex(level);
+        if (index < 0 || (ratePerSecond[index] <= 0 && sampleRate[index] >= 1.0)) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        Site site = site(index, logger, template, now);
+        synchronized (site) {
+            site.lastSeen = now;
+            if (sampleRate[index] < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate[index]) {
+                site.sampledOut++;
+                sampledOut.incrementAndGet();
+                return false;
+            }
+            if (ratePerSecond[index] > 0) {
+                site.tokens = Math.min(burst[index], site.tokens + (now - site.refilledAt) * ratePerSecond[index] / 1e9);
+                site.refilledAt = now;
+                if (site.tokens < 1.0) {
+                    site.rateLimited++;
+                    rateLimited.incrementAndGet();
+                    return false;
+                }
+                site.tokens -= 1.0;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Turn the suppressed counts into one entry per call site and reset them
+     * Call sites idle since the previous call are forgotten.
+     *
+     * @param periodMs time since the previous call, shown in the summaries
+     */
+    public List<LogEntry> drainSummaries(long periodMs) {
+        List<LogEntry> entries = new ArrayList<>();
+        long now = System.nanoTime();
+        long idleSince = now - periodMs * 1_000_000L;
+        Iterator<Map.Entry<SiteKey, Site>> iterator = sites.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SiteKey, Site> entry = iterator.next();
+            SiteKey key = entry.getKey();
+            Site site = entry.getValue();
+            long limited;
+            long sampled;
+            synchronized (site) {
+                limited = site.rateLimited;
+                sampled = site.sampledOut;
+                site.rateLimited = 0;
+                site.sampledOut = 0;
+                if (limited == 0 && sampled == 0 && site.lastSeen - idleSince < 0) {
+                    iterator.remove();
+                    continue;
+                }
+            }
+            if (limited == 0 && sampled == 0) {
+                continue;
+            }
+
+            String message = "Suppressed " + (limited + sampled) + " log entries from this call site in the last " +
+                (periodMs / 1000) + "s (" + limited + " over the rate limit, " + sampled + " not sampled): " + key.template();
+            entries.add(new LogEntry(System.currentTimeMillis(), LEVELS[key.level()], key.logger(),
+                                     Thread.currentThread().getName(), message, null, null, 0));
+        }
+        summaries.addAndGet(entries.size());
+        return entries;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("rateLimited", rateLimited.get());
+        stats.put("sampledOut", sampledOut.get());
+        stats.put("suppressedSummaries", summaries.get());
+        stats.put("trackedCallSites", sites.size());
+        return stats;
+    }
+
+    private Site site(int level, String logger, String template, long now) {
+        SiteKey key = new SiteKey(level, logger != null ? logger : "", template != null ? template : "");
+        Site site = sites.get(key);
+        if (site != null) {
+            return site;
+        }
+        if (sites.size() >= MAX_SITES) {
+            key = new SiteKey(level, OVERFLOW_SITE, OVERFLOW_SITE);
+        }
+        return sites.computeIfAbsent(key, k -> new Site(burst[level], now));
+    }
+
+    private void parseRateLimits(String config) {
+        if (config == null || config.isBlank()) {
+            return;
+        }
+        for (String part : config.split(",")) {
+            String[] pieces = part.trim().split(":");
+            String value = pieces[pieces.length - 1].trim();
+            String[] rateAndBurst = value.split("/");
+            double rate;
+            double size;
+            try {
+                rate = Double.parseDouble(rateAndBurst[0].trim());
+                size = rateAndBurst.length > 1 ? Double.parseDouble(rateAndBurst[1].trim()) : rate;
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            for (int level : levelsOf(pieces)) {
+                ratePerSecond[level] = rate;
+                burst[level] = Math.max(1.0, size);
+            }
+        }
+    }
+
+    private void parseSampling(String config) {
+        if (config == null || config.isBlank()) {
+            return;
+        }
+        for (String part : config.split(",")) {
+            String[] pieces = part.trim().split(":");
+            double rate;
+            try {
+                rate = Double.parseDouble(pieces[pieces.length - 1].trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            for (int level : levelsOf(pieces)) {
+                sampleRate[level] = Math.max(0.0, Math.min(1.0, rate));
+            }
+        }
+    }
+
+    // "VALUE" applies to every level, "LEVEL:VALUE" to one
+    private static int[] levelsOf(String[] pieces) {
+        if (pieces.length == 1) {
+            return new int[]{0, 1, 2, 3, 4};
+        }
+        int level = pieces.length == 2 ? levelIndex(pieces[0].trim().toUpperCase(Locale.ROOT)) : -1;
+        return level >= 0 ? new int[]{level} : new int[0];
+    }
+
+    private static int levelIndex(String level) {
+        if (level == null) {
+            return -1;
+        }
+        return switch (level) {
+            case "TRACE" -> 0;
+            case "DEBUG" -> 1;
+            case "INFO" -> 2;
+            case "WARN" -> 3;
+            case "ERROR" -> 4;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,587 @@
+package org.ruitx.jaws.utils;
+
+import org.ruitx.jaws.components.Mimir;
+import org.ruitx.jaws.types.Row;
+import org.tinylog.Logger;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * LogPartitions - Day partitions of the log entries in the logs database
+ *
+ * Each UTC day gets its own table (LOG_ENTRIES_yyyyMMdd) with a single index on timestamp,
+ * so an insert only updates the table and that index, both appended at their right edge.
+ * Retention drops whole tables instead of deleting rows, and queries over a time range
+ * only read the tables of the days it covers.
+ *
+ * Every partition has an FTS5 index (LOG_SEARCH_yyyyMMdd) over message, logger and exception,
+ * filled by an insert trigger as the writer adds entries and dropped with its partition.
+ * It stores no copy of the text, it reads it from the partition.
+ *
+ * LOG_ENTRIES is a view over the most recent partitions, kept for ad-hoc queries; it is
+ * rebuilt whenever a partition is created or dropped. A LOG_ENTRIES table left by an older
+ * version is split into partitions (within retention) and replaced by the view on startup.
+ *
+ * Closed partitions can be moved to compressed files (see LogArchive) to keep the database
+ * small. findEntries, search and findEntry read the archived days as well; archived entries
+ * are searched by scanning them and come after the indexed matches (score 0).
+ */
+public class LogPartitions {
+
+    public static final String VIEW_NAME = "LOG_ENTRIES";
+    public static final String TABLE_PREFIX = "LOG_ENTRIES_";
+    public static final String SEARCH_PREFIX = "LOG_SEARCH_";
+
+    private static final long DAY_MS = 86_400_000L;
+    // SQLite refuses compound selects of more than 500 terms
+    private static final int MAX_VIEW_PARTITIONS = 500;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String COLUMNS = "id, timestamp, level, logger, thread, message, exception, method, line, created_at";
+
+    private final Mimir logsDb;
+    // Where closed partitions are archived, null to keep them in the database
+    private final LogArchive archive;
+    // Days whose table is known to exist, so the writer checks sqlite_master once per day
+    private final Set<Long> knownDays = ConcurrentHashMap.newKeySet();
+    // Archiving takes a while, it doesn't hold the lock the writer needs for new partitions
+    private final Object archiveLock = new Object();
+
+    public LogPartitions(Mimir logsDb) {
+        this(logsDb, null);
+    }
+
+    public LogPartitions(Mimir logsDb, LogArchive archive) {
+        this.logsDb = logsDb;
+        this.archive = archive;
+    }
+
+    /**
+     * Get the UTC day (days since the epoch) of a timestamp in epoch milliseconds
+     */
+    public static long dayOf(long timestamp) {
+        return Math.floorDiv(timestamp, DAY_MS);
+    }
+
+    /**
+     * Get the table holding the entries of a day
+     */
+    public static String tableName(long day) {
+        return TABLE_PREFIX + LocalDate.ofEpochDay(day).format(DAY_FORMAT);
+    }
+
+    /**
+     * Get the full-text index of a day
+     */
+    public static String searchTableName(long day) {
+        return SEARCH_PREFIX + LocalDate.ofEpochDay(day).format(DAY_FORMAT);
+    }
+
+    /**
+     * Create the table of a day if it doesn't exist yet
+     *
+     * @return the table name
+     */
+    public String ensurePartition(long day) {
+        String table = tableName(day);
+        if (knownDays.contains(day)) {
+            return table;
+        }
+        synchronized (this) {
+            if (!knownDays.contains(day)) {
+                if (!logsDb.hasTable(table)) {
+                    createPartition(table);
+                    rebuildView();
+                    Logger.info("JawsLogger: Created log partition {}", table);
+                }
+                knownDays.add(day);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Forget which partitions exist, they are checked again on the next write
+     */
+    public void invalidate() {
+        knownDays.clear();
+    }
+
+    /**
+     * Get the days that have a partition, oldest first
+     */
+    public List<Long> listPartitions() {
+        List<Long> days = new ArrayList<>();
+        for (Row row : logsDb.getRows(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name GLOB ? ORDER BY name",
+                TABLE_PREFIX + "[0-9][0-9][0-9][0-9][0-9][0-9][0-9][0-9]")) {
+            String name = row.getString("name").orElse("");
+            days.add(LocalDate.parse(name.substring(TABLE_PREFIX.length()), DAY_FORMAT).toEpochDay());
+        }
+        return days;
+    }
+
+    /**
+     * Drop the partitions older than the retention period
+     * Today's partition is always kept.
+     *
+     * @param retentionDays number of days kept, today included
+     * @return the number of partitions dropped
+     */
+    public synchronized int dropExpired(int retentionDays) {
+        long firstKept = dayOf(System.currentTimeMillis()) - Math.max(1, retentionDays) + 1;
+        if (archive != null) {
+            int deleted = archive.deleteBefore(firstKept);
+            if (deleted > 0) {
+                Logger.info("JawsLogger: Deleted {} log archives older than {} days", deleted, retentionDays);
+            }
+        }
+
+        List<Long> expired = listPartitions().stream().filter(day -> day < firstKept).toList();
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        try {
+            dropPartitions(expired);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to drop expired log partitions", e);
+        }
+
+        Logger.info("JawsLogger: Dropped {} log partitions older than {} days", expired.size(), retentionDays);
+        return expired.size();
+    }
+
+    /**
+     * Move the partitions older than a number of days to the archive
+     * Today's and yesterday's partitions always stay in the database, entries logged just
+     * before midnight can still be on their way. A day is dropped from the database only
+     * once its archive file is complete.
+     *
+     * @param archiveAfterDays number of days kept in the database, today included (0 to not archive)
+     * @return the number of partitions archived
+     */
+    public int archiveClosed(int archiveAfterDays) {
+        if (archive == null || archiveAfterDays <= 0) {
+            return 0;
+        }
+        long firstKept = dayOf(System.currentTimeMillis()) - Math.max(2, archiveAfterDays) + 1;
+        int archived = 0;
+        synchronized (archiveLock) {
+            for (long day : listPartitions()) {
+                if (day >= firstKept) {
+                    break;
+                }
+                String table = tableName(day);
+                try {
+                    long entries = archive.write(day, (afterId, limit) -> logsDb.getRows(
+                        "SELECT * FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?", afterId, limit));
+                    synchronized (this) {
+                        dropPartitions(List.of(day));
+                    }
+                    archived++;
+                    Logger.info("JawsLogger: Archived {} entries of log partition {} to {}", entries, table, archive.fileOf(day));
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to archive log partition " + table, e);
+                }
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Get the entries logged between two timestamps, newest first
+     * Only the partitions of the days between from and to are read, newest day first,
+     * stopping as soon as the limit is reached.
+     *
+     * @param level  exact level to match, or null
+     * @param logger part of the logger name to match, or null
+     */
+    public List<Row> findEntries(long from, long to, String level, String logger, int limit) {
+        List<Row> entries = new ArrayList<>();
+        if (limit <= 0 || from > to) {
+            return entries;
+        }
+
+        long firstDay = dayOf(from);
+        long lastDay = dayOf(to);
+        Set<Long> partitions = Set.copyOf(listPartitions());
+        List<Long> days = listDays(partitions);
+        for (int i = days.size() - 1; i >= 0 && entries.size() < limit; i--) {
+            long day = days.get(i);
+            if (day > lastDay) {
+                continue;
+            }
+            if (day < firstDay) {
+                break;
+            }
+            if (!partitions.contains(day)) {
+                entries.addAll(archive.findEntries(day, from, to, level, logger, null, limit - entries.size()));
+                continue;
+            }
+
+            StringBuilder sql = new StringBuilder("SELECT ")
+                .append(entryIdColumn(day)).append(", * FROM ").append(tableName(day))
+                .append(" WHERE timestamp BETWEEN ? AND ?");
+            List<Object> params = new ArrayList<>(List.of(from, to));
+            if (level != null && !level.isEmpty()) {
+                sql.append(" AND level = ?");
+                params.add(level);
+            }
+            if (logger != null && !logger.isEmpty()) {
+                sql.append(" AND logger LIKE ?");
+                params.add("%" + logger + "%");
+            }
+            sql.append(" ORDER BY timestamp DESC LIMIT ?");
+            params.add(limit - entries.size());
+
+            entries.addAll(logsDb.getRows(sql.toString(), params.toArray()));
+        }
+        return entries;
+    }
+
+    /**
+     * Full-text search of message, logger and exception, best matches first (bm25)
+     * Every partition between from and to gives its best matches after the cursor, the
+     * results are merged by score. Pass the cursor of the last entry of a page (see
+     * searchCursor) to get the next one; scores are read from the live index, so a page
+     * can shift slightly while today's partition grows.
+     *
+     * @param query  words to look for (all of them), a trailing * matches a prefix
+     * @param after  cursor of the last entry already shown, or null for the first page
+     */
+    public List<Row> search(String query, long from, long to, String level, String logger, String after, int limit) {
+        String match = toMatchExpression(query);
+        if (match == null || limit <= 0 || from > to) {
+            return List.of();
+        }
+
+        double afterScore = 0;
+        long afterDay = 0;
+        long afterId = 0;
+        boolean hasCursor = after != null && after.matches("-?[0-9.Ee+-]+\\|\\d{8}-\\d+");
+        if (hasCursor) {
+            int bar = after.indexOf('|');
+            afterScore = Double.parseDouble(after.substring(0, bar));
+            afterDay = LocalDate.parse(after.substring(bar + 1, bar + 9), DAY_FORMAT).toEpochDay();
+            afterId = Long.parseLong(after.substring(bar + 10));
+        }
+
+        long firstDay = dayOf(from);
+        long lastDay = dayOf(to);
+        List<Row> matches = new ArrayList<>();
+        Set<Long> partitions = Set.copyOf(listPartitions());
+        for (long day : listDays(partitions)) {
+            if (day < firstDay || day > lastDay) {
+                continue;
+            }
+            if (!partitions.contains(day)) {
+                // Not indexed anymore: scanned, unranked (score 0), newest first
+                if (hasCursor && (afterScore > 0 || (afterScore == 0 && day > afterDay))) {
+                    continue;
+                }
+                long afterIdInDay = hasCursor && afterScore == 0 && day == afterDay ? afterId : Long.MAX_VALUE;
+                Predicate<Row> terms = archiveMatcher(query);
+                for (Row row : archive.findEntries(day, from, to, level, logger,
+                        row -> row.getLong("id").orElse(0L) < afterIdInDay && terms.test(row), Integer.MAX_VALUE)) {
+                    row.data().put("score", 0.0);
+                    matches.add(row);
+                }
+                continue;
+            }
+            String table = tableName(day);
+            String search = searchTableName(day);
+
+            StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT ")
+                .append(entryIdColumn(day)).append(", e.*, s.rank AS score FROM ").append(search)
+                .append(" s JOIN ").append(table).append(" e ON e.id = s.rowid WHERE ").append(search)
+                .append(" MATCH ? AND e.timestamp BETWEEN ? AND ?");
+            List<Object> params = new ArrayList<>(List.of(match, from, to));
+            if (level != null && !level.isEmpty()) {
+                sql.append(" AND e.level = ?");
+                params.add(level);
+            }
+            if (logger != null && !logger.isEmpty()) {
+                sql.append(" AND e.logger LIKE ?");
+                params.add("%" + logger + "%");
+            }
+            sql.append(")");
+            if (hasCursor) {
+                // Order is score, then newest day, then newest id
+                if (day > afterDay) {
+                    sql.append(" WHERE score > ?");
+                    params.add(afterScore);
+                } else if (day < afterDay) {
+                    sql.append(" WHERE score >= ?");
+                    params.add(afterScore);
+                } else {
+                    sql.append(" WHERE score > ? OR (score = ? AND id < ?)");
+                    params.addAll(List.of(afterScore, afterScore, afterId));
+                }
+            }
+            sql.append(" ORDER BY score, id DESC LIMIT ?");
+            params.add(limit);
+
+            matches.addAll(logsDb.getRows(sql.toString(), params.toArray()));
+        }
+
+        matches.sort(Comparator
+            .comparingDouble((Row row) -> row.getDouble("score").orElse(0.0))
+            .thenComparing((Row row) -> row.getString("entry_id").orElse("").substring(0, 8), Comparator.reverseOrder())
+            .thenComparing((Row row) -> row.getLong("id").orElse(0L), Comparator.reverseOrder()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Get the cursor to pass to search for the page after this entry
+     */
+    public static String searchCursor(Row entry) {
+        return entry.getDouble("score").orElse(0.0) + "|" + entry.getString("entry_id").orElse("");
+    }
+
+    /**
+     * Build the full-text index of partitions created before they had one
+     */
+    public synchronized void ensureSearchIndexes() {
+        for (long day : listPartitions()) {
+            String search = searchTableName(day);
+            if (!logsDb.hasTable(search)) {
+                createSearchIndex(tableName(day), search);
+                logsDb.executeSql("INSERT INTO " + search + " (" + search + ") VALUES ('rebuild')");
+                Logger.info("JawsLogger: Built the full-text index of log partition {}", tableName(day));
+            }
+        }
+    }
+
+    /**
+     * Get an entry by the ID given to it by findEntries ("yyyyMMdd-id")
+     *
+     * @return the entry, or null if the ID is malformed or the entry doesn't exist (anymore)
+     */
+    public Row findEntry(String entryId) {
+        if (entryId == null || !entryId.matches("\\d{8}-\\d+")) {
+            return null;
+        }
+        try {
+            long day = LocalDate.parse(entryId.substring(0, 8), DAY_FORMAT).toEpochDay();
+            long id = Long.parseLong(entryId.substring(9));
+            String table = tableName(day);
+            if (!logsDb.hasTable(table)) {
+                return archive != null ? archive.findEntry(day, id) : null;
+            }
+            return logsDb.getRow("SELECT " + entryIdColumn(day) + ", * FROM " + table + " WHERE id = ?", id);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replace a LOG_ENTRIES table created by an older version with day partitions
+     * Entries older than the retention period are not copied. Also makes sure today's
+     * partition and the view exist.
+     */
+    public synchronized void migrateLegacyTable(int retentionDays) {
+        long today = dayOf(System.currentTimeMillis());
+        if (!logsDb.hasTable(VIEW_NAME)) {
+            ensurePartition(today);
+            return;
+        }
+
+        long firstKept = today - Math.max(1, retentionDays) + 1;
+        try {
+            logsDb.beginTransaction();
+            try {
+                int copied = 0;
+                for (Row row : logsDb.getRows(
+                        "SELECT DISTINCT timestamp / " + DAY_MS + " AS day FROM " + VIEW_NAME + " WHERE timestamp >= ?",
+                        firstKept * DAY_MS)) {
+                    long day = row.getLong("day").orElse(today);
+                    String table = tableName(day);
+                    if (!logsDb.hasTable(table)) {
+                        createPartition(table);
+                    }
+                    copied += logsDb.executeSql(
+                        "INSERT INTO " + table + " (timestamp, level, logger, thread, message, exception, method, line, created_at) " +
+                        "SELECT timestamp, level, logger, thread, message, exception, method, line, created_at FROM " + VIEW_NAME +
+                        " WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp",
+                        day * DAY_MS, (day + 1) * DAY_MS);
+                }
+                logsDb.executeSql("DROP TABLE " + VIEW_NAME);
+                if (!logsDb.hasTable(tableName(today))) {
+                    createPartition(tableName(today));
+                }
+                createView();
+                logsDb.commitTransaction();
+                Logger.info("JawsLogger: Moved {} log entries from the LOG_ENTRIES table to day partitions", copied);
+            } catch (Exception e) {
+                logsDb.rollbackTransaction();
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to split the LOG_ENTRIES table into day partitions", e);
+        }
+        knownDays.add(today);
+    }
+
+    /**
+     * Drop partitions and their indexes, in one transaction with the view update
+     */
+    private void dropPartitions(List<Long> days) throws SQLException {
+        logsDb.beginTransaction();
+        try {
+            for (long day : days) {
+                knownDays.remove(day);
+                logsDb.executeSql("DROP TABLE IF EXISTS " + searchTableName(day));
+                logsDb.executeSql("DROP TABLE IF EXISTS " + tableName(day));
+            }
+            createView();
+            logsDb.commitTransaction();
+        } catch (Exception e) {
+            logsDb.rollbackTransaction();
+            throw e;
+        }
+    }
+
+    // Days in the database or the archive, oldest first
+    private List<Long> listDays(Set<Long> partitions) {
+        if (archive == null) {
+            return partitions.stream().sorted().toList();
+        }
+        Set<Long> days = new TreeSet<>(partitions);
+        days.addAll(archive.listDays());
+        return new ArrayList<>(days);
+    }
+
+    /**
+     * The archive's stand-in for the full-text index: every word of the query has to appear
+     * in the message, logger or exception (case insensitive, a trailing * is ignored)
+     */
+    private static Predicate<Row> archiveMatcher(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            String term = word.endsWith("*") ? word.substring(0, word.length() - 1) : word;
+            if (!term.isEmpty()) {
+                terms.add(term.toLowerCase(Locale.ROOT));
+            }
+        }
+        return row -> {
+            String text = (row.getString("message").orElse("") + "\n" + row.getString("logger").orElse("") + "\n"
+                + row.getString("exception").orElse("")).toLowerCase(Locale.ROOT);
+            for (String term : terms) {
+                if (!text.contains(term)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private void createPartition(String table) {
+        logsDb.executeSql("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id          INTEGER PRIMARY KEY,
+                timestamp   INTEGER NOT NULL,
+                level       TEXT    NOT NULL,
+                logger      TEXT,
+                thread      TEXT,
+                message     TEXT    NOT NULL,
+                exception   TEXT,
+                method      TEXT,
+                line        INTEGER,
+                created_at  INTEGER NOT NULL DEFAULT (strftime('%%s', 'now') * 1000)
+            )
+            """.formatted(table));
+        logsDb.executeSql("CREATE INDEX IF NOT EXISTS idx_" + table.toLowerCase() + "_timestamp ON " + table + " (timestamp)");
+        createSearchIndex(table, SEARCH_PREFIX + table.substring(TABLE_PREFIX.length()));
+    }
+
+    private void createSearchIndex(String table, String search) {
+        logsDb.executeSql("CREATE VIRTUAL TABLE IF NOT EXISTS " + search +
+            " USING fts5(message, logger, exception, content='" + table + "', content_rowid='id')");
+        // Partitions are never updated and only dropped whole, inserts are all the index has to follow
+        logsDb.executeSql("CREATE TRIGGER IF NOT EXISTS trg_" + table.toLowerCase() + "_search AFTER INSERT ON " + table +
+            " BEGIN INSERT INTO " + search + " (rowid, message, logger, exception)" +
+            " VALUES (new.id, new.message, new.logger, new.exception); END");
+    }
+
+    /**
+     * Turn what a user typed into an FTS5 expression: every word quoted (no operators or
+     * syntax errors), all of them required, a trailing * kept as a prefix match
+     */
+    static String toMatchExpression(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            String term = prefix ? word.substring(0, word.length() - 1) : word;
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (!match.isEmpty()) {
+                match.append(' ');
+            }
+            match.append('"').append(term.replace("\"", "\"\"")).append('"');
+            if (prefix) {
+                match.append('*');
+            }
+        }
+        return match.isEmpty() ? null : match.toString();
+    }
+
+    private void rebuildView() {
+        try {
+            logsDb.beginTransaction();
+            try {
+                createView();
+                logsDb.commitTransaction();
+            } catch (Exception e) {
+                logsDb.rollbackTransaction();
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to rebuild the LOG_ENTRIES view", e);
+        }
+    }
+
+    /**
+     * (Re)create the LOG_ENTRIES view over the newest partitions, inside the caller's transaction
+     * Left alone while LOG_ENTRIES is still a table waiting to be migrated.
+     */
+    private void createView() {
+        if (logsDb.hasTable(VIEW_NAME)) {
+            return;
+        }
+        List<Long> days = listPartitions();
+        logsDb.executeSql("DROP VIEW IF EXISTS " + VIEW_NAME);
+        if (days.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("CREATE VIEW ").append(VIEW_NAME).append(" AS ");
+        List<Long> viewDays = days.subList(Math.max(0, days.size() - MAX_VIEW_PARTITIONS), days.size());
+        for (int i = viewDays.size() - 1; i >= 0; i--) {
+            long day = viewDays.get(i);
+            sql.append("SELECT ").append(entryIdColumn(day)).append(", ").append(COLUMNS)
+               .append(" FROM ").append(tableName(day));
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+        }
+        logsDb.executeSql(sql.toString());
+    }
+
+    // IDs are only unique within a partition, entry_id adds the day
+    private static String entryIdColumn(long day) {
+        return "'" + LocalDate.ofEpochDay(day).format(DAY_FORMAT) + "-' || id AS entry_id";
+    }
+}
@@ -0,0 +1,111 @@
+package org.ruitx.jaws.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LogRingBuffer - Bounded lock-free queue, many producers and a single consumer
+ *
+ * Every slot carries a sequence number telling whose turn it is: a producer claims the
+ * next position with one CAS on the tail, writes its element and publishes it by moving
+ * the slot's sequence forward; the consumer takes published slots in order and hands them
+ * back to the producers one lap ahead. Offering never blocks and never allocates.
+ *
+ * Only one thread may call {@link #drainTo(List, int)}.
+ */
+public class LogRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param minCapacity rounded up to the next power of two
+     */
+    public LogRingBuffer(int minCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // Another producer took this position, try the next one
+        }
+    }
+
+    /**
+     * Move up to max published elements to the given list (consumer thread only)
+     *
+     * @return the number of elements moved
+     */
+    public int drainTo(List<E> target, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break; // Empty, or the producer hasn't published this slot yet
+            }
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.lazySet(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements waiting (claimed positions not yet drained)
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head.get()));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Total number of positions handed to producers so far, used as a flush target
+     */
+    public long producedCount() {
+        return tail.get();
+    }
+
+    /**
+     * Total number of elements drained so far
+     */
+    public long consumedCount() {
+        return head.get();
+    }
+}
@@ -0,0 +1,152 @@
+package org.ruitx.jaws.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LogTail - The most recent log entries, kept in memory for live viewers
+ *
+ * The LogWriter publishes every batch here once it is committed. Each entry gets a
+ * sequence number; viewers read the entries after the last sequence they saw and wait
+ * for more, so any number of them can follow the logs without querying the database.
+ *
+ * The entries sit in a ring overwritten by newer ones: a viewer that falls more than
+ * the ring's capacity behind skips the entries it missed. Only the writer thread
+ * publishes, readers never block it.
+ */
+public class LogTail {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<LogEntry> entries;
+    // Sequence of the entry in each slot, -1 while the slot is being replaced
+    private final AtomicLongArray sequences;
+    private volatile long lastSequence = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    // Statistics
+    private final AtomicInteger subscribers = new AtomicInteger(0);
+
+    public LogTail(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, -1);
+        }
+    }
+
+    /**
+     * Add committed entries and wake up the waiting viewers (writer thread only)
+     */
+    public void publish(List<LogEntry> batch) {
+        long sequence = lastSequence;
+        for (LogEntry entry : batch) {
+            sequence++;
+            int slot = (int) (sequence & mask);
+            sequences.set(slot, -1);
+            entries.set(slot, entry);
+            sequences.set(slot, sequence);
+        }
+        lastSequence = sequence;
+
+        if (subscribers.get() > 0) {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Copy the entries published after a sequence, oldest first
+     * Entries already overwritten are skipped: the number skipped is the distance between
+     * the returned sequence and the given one, minus the entries copied.
+     *
+     * @return the sequence of the last entry read (or skipped), after if there was none
+     */
+    public long readAfter(long after, List<LogEntry> out, int max) {
+        long last = lastSequence;
+        long sequence = Math.max(after + 1, last - capacity + 1);
+        int copied = 0;
+        for (; sequence <= last && copied < max; sequence++) {
+            int slot = (int) (sequence & mask);
+            long before = sequences.get(slot);
+            LogEntry entry = entries.get(slot);
+            if (before != sequence || sequences.get(slot) != sequence) {
+                // Replaced while reading, the viewer is too far behind for this one
+                continue;
+            }
+            out.add(entry);
+            copied++;
+        }
+        return Math.max(after, sequence - 1);
+    }
+
+    /**
+     * Wait until an entry is published after the given sequence
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitAfter(long after, long timeout, TimeUnit unit) throws InterruptedException {
+        if (lastSequence > after) {
+            return true;
+        }
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (lastSequence <= after) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = published.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the sequence of the last published entry (0 before the first one)
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Count a viewer in, viewers are only woken up while at least one is counted
+     */
+    public void subscribe() {
+        subscribers.incrementAndGet();
+    }
+
+    public void unsubscribe() {
+        subscribers.decrementAndGet();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tailSubscribers", subscribers.get());
+        stats.put("tailCapacity", capacity);
+        stats.put("tailLastSequence", lastSequence);
+        return stats;
+    }
+}
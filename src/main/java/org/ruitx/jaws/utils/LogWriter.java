@@ -0,0 +1,394 @@
+package org.ruitx.jaws.utils;
+
+import org.ruitx.jaws.components.Mimir;
+import org.tinylog.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LogWriter - Dedicated thread writing log entries to the logs database
+ *
+ * Logging threads put entries in a lock-free ring buffer; a single writer thread drains
+ * it in batches and inserts them over one connection it keeps open, with a prepared
+ * statement reused for every batch. Nothing goes through Freyr, so logging adds no rows,
+ * status updates or queue traffic to the job system it observes.
+ *
+ * When the buffer is full the overflow policy decides: DROP discards the new entry,
+ * BLOCK waits for room up to a timeout and then discards it. Every discarded entry is
+ * counted.
+ *
+ * Entries go to the day partition of their timestamp (see LogPartitions); the statement is
+ * prepared again only when the day changes. Committed batches are published to the LogTail
+ * for live viewers.
+ */
+public class LogWriter {
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK;
+
+        public static OverflowPolicy fromString(String value) {
+            try {
+                return value != null ? valueOf(value.trim().toUpperCase()) : DROP;
+            } catch (IllegalArgumentException e) {
+                return DROP;
+            }
+        }
+    }
+
+    private static final String INSERT_SQL =
+        "INSERT INTO %s (timestamp, level, logger, thread, message, exception, method, line) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_WRITE_ATTEMPTS = 4;
+
+    private final Mimir logsDb;
+    private final LogPartitions partitions;
+    private final LogTail tail;
+    private final LogRingBuffer<LogEntry> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+    // Set by the writer thread while a drained batch is being inserted, so flush() waits for it
+    private volatile boolean writing;
+    private Connection connection;
+    private PreparedStatement insert;
+    // Day of the partition the insert statement targets
+    private long insertDay = Long.MIN_VALUE;
+    // Deferred messages are formatted here, on the writer thread
+    private final StringBuilder messageBuilder = new StringBuilder(256);
+
+    // Statistics
+    private final AtomicLong enqueued = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong failedBatches = new AtomicLong(0);
+    private final AtomicLong blockedOffers = new AtomicLong(0);
+
+    public LogWriter(Mimir logsDb, LogPartitions partitions, LogTail tail, int capacity, int batchSize, long flushIntervalMs,
+                     OverflowPolicy overflowPolicy, long blockTimeoutMs) {
+        this.logsDb = logsDb;
+        this.partitions = partitions;
+        this.tail = tail;
+        this.buffer = new LogRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMs));
+
+        this.writerThread = new Thread(this::run, "jaws-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue an entry for the writer thread
+     *
+     * @return false if the entry was dropped
+     */
+    public boolean offer(LogEntry entry) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (!buffer.offer(entry)) {
+            if (overflowPolicy != OverflowPolicy.BLOCK || !offerBlocking(entry)) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        enqueued.incrementAndGet();
+
+        // A full batch is waiting, don't let it sit until the next flush interval
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until every entry queued before this call has been written (or dropped by a failed write)
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        long target = buffer.producedCount();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (buffer.consumedCount() < target || writing) {
+            if (!writerThread.isAlive() || System.nanoTime() - deadline > 0) {
+                return buffer.consumedCount() >= target && !writing;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Write what is left and stop the writer thread
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        flush(timeout, unit);
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getBufferSize() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enqueued", enqueued.get());
+        stats.put("dropped", dropped.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("blockedOffers", blockedOffers.get());
+        stats.put("overflowPolicy", overflowPolicy.name());
+        return stats;
+    }
+
+    private void run() {
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            writing = true;
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                write(batch);
+                batch.clear();
+            }
+            writing = false;
+
+            // Keep draining while full batches are waiting, otherwise sleep until the next interval
+            if (drained < batchSize && running) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        closeConnection();
+    }
+
+    private boolean offerBlocking(LogEntry entry) {
+        blockedOffers.incrementAndGet();
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        LockSupport.unpark(writerThread);
+        while (System.nanoTime() - deadline < 0 && running) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insert a batch in one transaction, retrying while the database is busy
+     */
+    private void write(List<LogEntry> batch) {
+        // Partitions are created outside the insert transaction, a batch rarely spans two days
+        try {
+            long day = Long.MIN_VALUE;
+            for (LogEntry entry : batch) {
+                long entryDay = LogPartitions.dayOf(entry.getTimestamp());
+                if (entryDay != day) {
+                    partitions.ensurePartition(entryDay);
+                    day = entryDay;
+                }
+            }
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            dropped.addAndGet(batch.size());
+            Logger.warn("JawsLogger: Failed to create the log partitions for {} entries: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                ensureConnection();
+                for (LogEntry entry : batch) {
+                    long entryDay = LogPartitions.dayOf(entry.getTimestamp());
+                    if (entryDay != insertDay) {
+                        switchPartition(entryDay);
+                    }
+                    bind(entry);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+                if (tail != null) {
+                    tail.publish(batch);
+                }
+
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                return;
+            } catch (SQLException e) {
+                rollback();
+                if (isConstraintViolation(e)) {
+                    // One bad entry shouldn't cost the whole batch
+                    writeEachEntry(batch);
+                    return;
+                }
+                boolean busy = e.getMessage() != null &&
+                    (e.getMessage().contains("SQLITE_BUSY") || e.getMessage().contains("database is locked"));
+                if (!busy) {
+                    // The connection may be broken or the partition dropped, start over for the next batch
+                    closeConnection();
+                    partitions.invalidate();
+                }
+                if (!busy || attempt == MAX_WRITE_ATTEMPTS) {
+                    failedBatches.incrementAndGet();
+                    dropped.addAndGet(batch.size());
+                    Logger.warn("JawsLogger: Failed to write {} log entries: {}", batch.size(), e.getMessage());
+                    return;
+                }
+                // Exponential backoff: 50ms, 200ms, 800ms
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50L << (2 * (attempt - 1))));
+            }
+        }
+    }
+
+    /**
+     * Insert a batch that failed on a constraint one entry at a time, in one transaction
+     * Only the entries the database refuses are dropped.
+     */
+    private void writeEachEntry(List<LogEntry> batch) {
+        List<LogEntry> inserted = new ArrayList<>(batch.size());
+        int rejected = 0;
+        String reason = null;
+        try {
+            for (LogEntry entry : batch) {
+                long entryDay = LogPartitions.dayOf(entry.getTimestamp());
+                if (entryDay != insertDay) {
+                    switchPartition(entryDay);
+                }
+                bind(entry);
+                try {
+                    insert.executeUpdate();
+                    inserted.add(entry);
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    rejected++;
+                    reason = e.getMessage();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            closeConnection();
+            partitions.invalidate();
+            failedBatches.incrementAndGet();
+            dropped.addAndGet(batch.size());
+            Logger.warn("JawsLogger: Failed to write {} log entries one by one: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        if (tail != null && !inserted.isEmpty()) {
+            tail.publish(inserted);
+        }
+        written.addAndGet(inserted.size());
+        batches.incrementAndGet();
+        if (rejected > 0) {
+            dropped.addAndGet(rejected);
+            Logger.warn("JawsLogger: Dropped {} of {} log entries refused by the database: {}", rejected, batch.size(), reason);
+        }
+    }
+
+    private void bind(LogEntry entry) throws SQLException {
+        insert.setLong(1, entry.getTimestamp());
+        insert.setString(2, entry.getLevel());
+        insert.setString(3, entry.getLogger());
+        insert.setString(4, entry.getThread());
+        insert.setString(5, entry.formatMessage(messageBuilder));
+        if (entry.getException() != null) {
+            insert.setString(6, entry.getException());
+        } else {
+            insert.setNull(6, Types.VARCHAR);
+        }
+        insert.setString(7, entry.getMethod());
+        insert.setInt(8, entry.getLineNumber());
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+        return e.getMessage() != null && e.getMessage().contains("SQLITE_CONSTRAINT");
+    }
+
+    private void ensureConnection() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return;
+        }
+        connection = logsDb.getConnection();
+        connection.setAutoCommit(false);
+        insertDay = Long.MIN_VALUE;
+    }
+
+    /**
+     * Point the insert statement to another day, running what was batched for the previous one
+     */
+    private void switchPartition(long day) throws SQLException {
+        if (insert != null) {
+            insert.executeBatch();
+            insert.close();
+        }
+        insert = connection.prepareStatement(INSERT_SQL.formatted(LogPartitions.tableName(day)));
+        insertDay = day;
+    }
+
+    private void rollback() {
+        try {
+            if (insert != null) {
+                insert.clearBatch();
+            }
+            if (connection != null && !connection.isClosed()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            // The connection is closed on the next failure
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            if (insert != null) {
+                insert.close();
+            }
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            Logger.debug("JawsLogger: Failed to close the logs database connection: {}", e.getMessage());
+        } finally {
+            insert = null;
+            connection = null;
+            insertDay = Long.MIN_VALUE;
+        }
+    }
+}
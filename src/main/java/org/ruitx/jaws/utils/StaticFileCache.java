@@ -0,0 +1,448 @@
+package org.ruitx.jaws.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.COMPRESSION_MIN_BYTES;
+
+import static org.ruitx.jaws.configs.ApplicationConfig.STATIC_CACHE_CONTROL;
+import static org.ruitx.jaws.configs.ApplicationConfig.STATIC_CACHE_MAX_BYTES;
+import static org.ruitx.jaws.configs.ApplicationConfig.STATIC_CACHE_MAX_FILE_BYTES;
+
+/**
+ * StaticFileCache - What Yggdrasill needs to serve a static file, computed once per file
+ *
+ * Each file gets its content type, a strong ETag (hash of the content), its Last-Modified
+ * date, length and Cache-Control value (first matching static.cache_control rule). Files up to
+ * static.cache.max_file_bytes also keep their content, up to static.cache.max_bytes in total,
+ * least recently used first out. Larger files keep only the rest and are read from disk.
+ *
+ * Compressible files (text, JSON, JavaScript, XML, SVG) also get encoded variants, picked per
+ * request from Accept-Encoding (see StaticFile.negotiate): .br and .gz siblings at least as recent
+ * as the file (made by a build step or by precompress) are served as they are, otherwise files
+ * kept in memory are gzipped once here. Brotli is only ever served from siblings, the JDK has no
+ * encoder for it.
+ *
+ * Entries are never checked against the disk: Heimdall reports the changes in the www path
+ * (see invalidate), anything served from elsewhere stays as it was first read.
+ */
+public class StaticFileCache {
+
+    private static final StaticFileCache INSTANCE =
+        new StaticFileCache(STATIC_CACHE_MAX_BYTES, STATIC_CACHE_MAX_FILE_BYTES, STATIC_CACHE_CONTROL, COMPRESSION_MIN_BYTES);
+
+    // Content codings in order of preference, with the extension of their siblings
+    private static final String[][] CODINGS = {{"br", ".br"}, {"gzip", ".gz"}};
+    // A variant has to save at least this fraction of the file to be worth it
+    private static final double MAX_VARIANT_RATIO = 0.9;
+
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final long minCompressBytes;
+    private final List<CacheControlRule> cacheControlRules;
+
+    private final Map<Path, Slot> files = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong(0);
+    // Bumped on every invalidation, a file read before it isn't cached after it
+    private final AtomicLong generation = new AtomicLong(0);
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * A static file ready to be served
+     *
+     * @param content         the file content, or null when it is too large to be kept in memory
+     * @param contentEncoding the content coding of this variant, null for the file itself
+     * @param variants        the encoded variants of the file, by content coding
+     */
+    public record StaticFile(Path path, String contentType, String etag, long lastModified, long length,
+                             String cacheControl, byte[] content, String contentEncoding,
+                             Map<String, StaticFile> variants) {
+
+        /**
+         * Describe a file served from disk without caching or hashing it (uploads, generated files)
+         * The ETag comes from its size and modification time.
+         */
+        public static StaticFile of(Path file, String contentType, String cacheControl) throws IOException {
+            long length = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000 * 1000;
+            String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+            return new StaticFile(file, contentType != null ? contentType : "application/octet-stream",
+                                  etag, lastModified, length, cacheControl, null, null, Map.of());
+        }
+
+        /**
+         * Pick the variant to send for a request's Accept-Encoding, the file itself when the
+         * client accepts none of them
+         */
+        public StaticFile negotiate(String acceptEncoding) {
+            if (variants.isEmpty() || acceptEncoding == null) {
+                return this;
+            }
+            for (String[] coding : CODINGS) {
+                StaticFile variant = variants.get(coding[0]);
+                if (variant != null && Compression.accepts(acceptEncoding, coding[0])) {
+                    return variant;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Check a request's If-None-Match header ("*" or a list of ETags, weak ones included)
+         */
+        public boolean matchesEtag(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Check a request's If-Modified-Since date (epoch ms, -1 when absent)
+         */
+        public boolean notModifiedSince(long ifModifiedSince) {
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        }
+    }
+
+    private record CacheControlRule(PathMatcher matcher, String value) {
+    }
+
+    private static final class Slot {
+        private final StaticFile file;
+        private volatile long lastUsed;
+
+        private Slot(StaticFile file) {
+            this.file = file;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    public StaticFileCache(long maxBytes, long maxFileBytes, String cacheControl, long minCompressBytes) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+        this.minCompressBytes = minCompressBytes;
+        this.cacheControlRules = parseCacheControl(cacheControl);
+    }
+
+    public static StaticFileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a static file, reading and hashing it on the first request
+     *
+     * @param file         the file to serve
+     * @param relativePath its path relative to the www path, matched against the Cache-Control rules
+     */
+    public StaticFile get(Path file, String relativePath) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        Slot slot = files.get(key);
+        if (slot != null) {
+            slot.lastUsed = System.nanoTime();
+            hits.incrementAndGet();
+            return slot.file;
+        }
+
+        misses.incrementAndGet();
+        long readGeneration = generation.get();
+        StaticFile loaded = load(key, relativePath);
+        Slot previous = files.put(key, new Slot(loaded));
+        cachedBytes.addAndGet(size(loaded) - (previous != null ? size(previous.file) : 0));
+        if (generation.get() != readGeneration) {
+            // Changed while it was being read, let the next request read it again
+            remove(key);
+        } else if (cachedBytes.get() > maxBytes) {
+            evict();
+        }
+        return loaded;
+    }
+
+    /**
+     * Build the variants of the compressible files under a directory ahead of the first requests
+     * Files too large to be kept in memory get a .gz sibling on disk (unless they already have a
+     * fresh one), the others are loaded into the cache with their variants. HTML is left out,
+     * Hermod renders it on every request.
+     *
+     * @return the number of .gz siblings written
+     */
+    public int precompress(Path root) {
+        Path base = root.toAbsolutePath().normalize();
+        List<Path> candidates;
+        try (Stream<Path> walk = Files.walk(base)) {
+            candidates = walk.filter(Files::isRegularFile).filter(path -> {
+                String name = path.getFileName().toString();
+                return !name.endsWith(".gz") && !name.endsWith(".br") && !name.endsWith(".html") && !name.endsWith(".htm");
+            }).toList();
+        } catch (IOException e) {
+            JawsLogger.warn("Failed to list the static files in {}: {}", base, e.getMessage());
+            return 0;
+        }
+
+        int written = 0;
+        for (Path file : candidates) {
+            try {
+                long length = Files.size(file);
+                if (length < minCompressBytes || !Compression.isCompressible(Files.probeContentType(file))) {
+                    continue;
+                }
+                if (length > maxFileBytes) {
+                    if (writeGzipSibling(file)) {
+                        written++;
+                    }
+                } else {
+                    get(file, base.relativize(file).toString());
+                    if (cachedBytes.get() > maxBytes / 2) {
+                        // Leave the rest of the cache to the files actually requested
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                JawsLogger.warn("Failed to precompress {}: {}", file, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Forget a changed file, or everything under a changed directory
+     * A changed .gz or .br sibling counts as a change to its file.
+     */
+    public void invalidate(Path changed) {
+        generation.incrementAndGet();
+        String name = changed.getFileName() != null ? changed.getFileName().toString() : "";
+        if (name.endsWith(".gz") || name.endsWith(".br")) {
+            changed = changed.resolveSibling(name.substring(0, name.length() - 3));
+        }
+        Path prefix = changed.toAbsolutePath().normalize();
+        for (Path key : files.keySet()) {
+            if (key.startsWith(prefix)) {
+                remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        for (Path key : files.keySet()) {
+            remove(key);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("files", files.size());
+        stats.put("cachedBytes", cachedBytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private StaticFile load(Path file, String relativePath) throws IOException {
+        long length = Files.size(file);
+        // HTTP dates have a precision of one second
+        long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000 * 1000;
+        String contentType = Files.probeContentType(file);
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        }
+
+        MessageDigest digest = newDigest();
+        byte[] content = null;
+        if (length <= maxFileBytes) {
+            content = Files.readAllBytes(file);
+            length = content.length;
+            digest.update(content);
+        } else {
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()).substring(0, 22) + "\"";
+
+        String cacheControl = cacheControlFor(relativePath);
+        Map<String, StaticFile> variants = Map.of();
+        if (length >= minCompressBytes && Compression.isCompressible(contentType)) {
+            variants = loadVariants(file, contentType, etag, lastModified, length, cacheControl, content);
+        }
+        return new StaticFile(file, contentType, etag, lastModified, length, cacheControl, content, null, variants);
+    }
+
+    /**
+     * Collect the fresh siblings of a file, gzipping it in memory when it has no .gz sibling
+     * The ETag of a variant is the file's with the coding appended: each variant is a
+     * representation of its own for caches and range requests.
+     */
+    private Map<String, StaticFile> loadVariants(Path file, String contentType, String etag, long lastModified,
+                                                 long length, String cacheControl, byte[] content) throws IOException {
+        Map<String, StaticFile> variants = new LinkedHashMap<>();
+        long fileModified = Files.getLastModifiedTime(file).toMillis();
+        String tag = etag.substring(0, etag.length() - 1);
+        for (String[] coding : CODINGS) {
+            Path sibling = file.resolveSibling(file.getFileName() + coding[1]);
+            if (!Files.isRegularFile(sibling) || Files.getLastModifiedTime(sibling).toMillis() < fileModified) {
+                continue;
+            }
+            long siblingLength = Files.size(sibling);
+            if (siblingLength >= length * MAX_VARIANT_RATIO) {
+                continue;
+            }
+            byte[] siblingContent = siblingLength <= maxFileBytes ? Files.readAllBytes(sibling) : null;
+            variants.put(coding[0], new StaticFile(sibling, contentType, tag + "-" + coding[0] + "\"", lastModified,
+                                                   siblingContent != null ? siblingContent.length : siblingLength,
+                                                   cacheControl, siblingContent, coding[0], Map.of()));
+        }
+        if (!variants.containsKey("gzip") && content != null) {
+            byte[] gzipped = Compression.gzip(content, Deflater.BEST_COMPRESSION);
+            if (gzipped.length < length * MAX_VARIANT_RATIO) {
+                variants.put("gzip", new StaticFile(file, contentType, tag + "-gzip\"", lastModified, gzipped.length,
+                                                    cacheControl, gzipped, "gzip", Map.of()));
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Write file.gz next to a file, through a temporary file so it never shows up half written
+     *
+     * @return false if a fresh sibling was already there or gzip doesn't make the file smaller
+     */
+    private boolean writeGzipSibling(Path file) throws IOException {
+        Path sibling = file.resolveSibling(file.getFileName() + ".gz");
+        if (Files.isRegularFile(sibling)
+            && Files.getLastModifiedTime(sibling).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+            return false;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = new Compression.GzipOutputStream(Files.newOutputStream(temp), deflater, false)) {
+                in.transferTo(out);
+            }
+            if (Files.size(temp) >= Files.size(file) * MAX_VARIANT_RATIO) {
+                Files.delete(temp);
+                return false;
+            }
+            Files.move(temp, sibling, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            deflater.end();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String cacheControlFor(String relativePath) {
+        Path path = Path.of(relativePath.startsWith("/") ? relativePath.substring(1) : relativePath);
+        for (CacheControlRule rule : cacheControlRules) {
+            if (rule.matcher().matches(path)) {
+                return rule.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drop the least recently used files until the cached content fits again
+     */
+    private synchronized void evict() {
+        if (cachedBytes.get() <= maxBytes) {
+            return;
+        }
+        List<Map.Entry<Path, Slot>> byUse = new ArrayList<>(files.entrySet());
+        byUse.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        for (Map.Entry<Path, Slot> entry : byUse) {
+            if (cachedBytes.get() <= maxBytes) {
+                break;
+            }
+            if (size(entry.getValue().file) > 0 && remove(entry.getKey())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(Path key) {
+        Slot removed = files.remove(key);
+        if (removed != null) {
+            cachedBytes.addAndGet(-size(removed.file));
+        }
+        return removed != null;
+    }
+
+    private static long size(StaticFile file) {
+        long size = file.content() != null ? file.content().length : 0;
+        for (StaticFile variant : file.variants().values()) {
+            size += size(variant);
+        }
+        return size;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    // "glob:value|glob:value", the value is everything after the first ':'
+    private static List<CacheControlRule> parseCacheControl(String config) {
+        List<CacheControlRule> rules = new ArrayList<>();
+        if (config == null || config.isBlank()) {
+            return rules;
+        }
+        for (String part : config.split("\\|")) {
+            int colon = part.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String glob = part.substring(0, colon).trim();
+            String value = part.substring(colon + 1).trim();
+            try {
+                rules.add(new CacheControlRule(FileSystems.getDefault().getPathMatcher("glob:" + glob),
+                                               value.isEmpty() ? null : value));
+            } catch (IllegalArgumentException e) {
+                JawsLogger.warn("Invalid static.cache_control pattern: " + glob);
+            }
+        }
+        return rules;
+    }
+}
@@ -1,6 +1,7 @@
 package org.ruitx.www.controller;
 
 import org.ruitx.jaws.components.Bragi;
+import org.ruitx.jaws.components.Hermod;
 import org.ruitx.jaws.components.freyr.*;
 import org.ruitx.jaws.interfaces.AccessControl;
 import org.ruitx.jaws.interfaces.Route;
@@ -330,6 +331,7 @@ public class AdminController extends Bragi {
                 "successfulRetries", stats.getSuccessfulRetries(),
                 "failedRetries", stats.getFailedRetries(),
                 "movedToDeadLetter", stats.getMovedToDeadLetter(),
+                "pendingRetries", stats.getPendingRetries(),
                 "running", stats.isRunning()
             );
             
@@ -442,6 +444,18 @@ public class AdminController extends Bragi {
     // System Health & Diagnostics
     // ========================================
     
+    /**
+     * Readiness probe: 503 until the server has warmed its templates up, 200 afterwards
+     */
+    @Route(endpoint = API_ENDPOINT + "system/ready", method = GET, responseType = JSON)
+    public void getReadiness() {
+        if (!Hermod.isReady()) {
+            sendServiceUnavailableResponse("Warming up templates", 1);
+            return;
+        }
+        sendSucessfulResponse(OK, Hermod.getWarmupStatistics());
+    }
+
     /**
      * Get comprehensive system health overview
      */
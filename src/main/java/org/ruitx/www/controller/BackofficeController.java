@@ -4,12 +4,17 @@ import org.ruitx.jaws.components.Bragi;
 import org.ruitx.jaws.components.Hermod;
 import org.ruitx.jaws.components.Tyr;
 import org.ruitx.jaws.components.freyr.Freyr;
+import org.ruitx.jaws.components.freyr.PayloadCodecs;
 import org.ruitx.jaws.interfaces.AccessControl;
 import org.ruitx.jaws.interfaces.Route;
 import org.ruitx.jaws.strings.ResponseCode;
 import org.ruitx.jaws.types.APIResponse;
 import org.ruitx.jaws.utils.JawsLogger;
 import org.ruitx.jaws.utils.JawsUtils;
+import org.ruitx.jaws.utils.LogEntry;
+import org.ruitx.jaws.utils.LogArchive;
+import org.ruitx.jaws.utils.LogPartitions;
+import org.ruitx.jaws.utils.LogTail;
 import org.ruitx.www.dto.auth.UserCreateRequest;
 import org.ruitx.www.dto.auth.UserUpdateRequest;
 import org.ruitx.www.model.auth.User;
@@ -21,12 +26,21 @@ import org.ruitx.www.model.auth.UserRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import static org.ruitx.jaws.configs.ApplicationConfig.LOG_ARCHIVE_PATH;
 import static org.ruitx.jaws.strings.RequestType.GET;
 import static org.ruitx.jaws.strings.RequestType.POST;
 import static org.ruitx.jaws.strings.RequestType.PATCH;
@@ -46,13 +60,22 @@ public class BackofficeController extends Bragi {
     private static final String LOGS_PAGE = "backoffice/partials/logs.html";
     private static final String LOG_DETAILS_PAGE = "backoffice/partials/log-details.html";
     private static final String ROLES_PAGE = "backoffice/partials/roles.html";
+    // Live log stream: a comment is sent when nothing was logged for this long (below the connector idle timeout)
+    private static final long LOG_STREAM_HEARTBEAT_MS = 5000;
+    private static final int LOG_STREAM_MAX_EVENT_ENTRIES = 200;
     private static final Logger log = LoggerFactory.getLogger(BackofficeController.class);
+    // Writers of the live log streams, one thread per open viewer, reused once it leaves
+    private static final ExecutorService LOG_STREAM_WRITERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "log-tail-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final AuthRepo authRepo;
     private final AuthService authService;
     private final AuthorizationService authorizationService;
     private final Freyr jobQueue;
-    private final org.ruitx.jaws.components.Mimir logsDb;
+    private final LogPartitions logPartitions;
 
     public BackofficeController() {
         bodyHtmlPath = BODY_HTML_PATH;
@@ -60,7 +83,14 @@ public class BackofficeController extends Bragi {
         this.authService = new AuthService();
         this.authorizationService = new AuthorizationService();
         this.jobQueue = Freyr.getInstance();
-        this.logsDb = new org.ruitx.jaws.components.Mimir("src/main/resources/logs.db");
+        // Share the logger's partitions, they know about the archived days
+        LogPartitions partitions = JawsLogger.getLogPartitions();
+        if (partitions == null) {
+            // Database logging is unavailable, still show what the logs database and its archive hold
+            partitions = new LogPartitions(new org.ruitx.jaws.components.Mimir("src/main/resources/logs.db"),
+                                           new LogArchive(LOG_ARCHIVE_PATH));
+        }
+        this.logPartitions = partitions;
     }
 
     /**
@@ -98,7 +128,7 @@ public class BackofficeController extends Bragi {
 
         JawsLogger.info("BackofficeController: Rendering dashboard page");
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, DASHBOARD_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, DASHBOARD_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -110,7 +140,7 @@ public class BackofficeController extends Bragi {
         context.put("currentPage", "settings");
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, SETTINGS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, SETTINGS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -122,7 +152,7 @@ public class BackofficeController extends Bragi {
         context.put("currentPage", "users");
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, USERS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, USERS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -177,7 +207,7 @@ public class BackofficeController extends Bragi {
         context.put("currentPage", "profile");
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, USER_PROFILE_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, USER_PROFILE_PAGE);
     }
 
     @AccessControl(login = true)
@@ -212,7 +242,7 @@ public class BackofficeController extends Bragi {
         context.put("currentPage", "jobs");
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, JOBS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, JOBS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -226,7 +256,7 @@ public class BackofficeController extends Bragi {
 
         JawsLogger.info("BackofficeController: Rendering logs page");
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, LOGS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, LOGS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -236,7 +266,7 @@ public class BackofficeController extends Bragi {
         User user = authRepo.getUserById(Long.parseLong(Tyr.getUserIdFromJWT(getCurrentToken()))).get();
 
         // Get log details from database
-        org.ruitx.jaws.types.Row logRow = logsDb.getRow("SELECT * FROM LOG_ENTRIES WHERE id = ?", logId);
+        org.ruitx.jaws.types.Row logRow = logPartitions.findEntry(logId);
         if (logRow == null) {
             sendHTMLResponse(NOT_FOUND, "Log entry not found");
             return;
@@ -260,7 +290,7 @@ public class BackofficeController extends Bragi {
 
         JawsLogger.info("BackofficeController: Rendering log details page for log ID: {}", logId);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, LOG_DETAILS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, LOG_DETAILS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -288,7 +318,7 @@ public class BackofficeController extends Bragi {
         context.put("jobCurrentRetries", jobRow.getInt("current_retries").orElse(0).toString());
         context.put("jobTimeoutMs", jobRow.getLong("timeout_ms").orElse(30000L).toString());
         context.put("jobExecutionMode", jobRow.getString("execution_mode").orElse("PARALLEL"));
-        context.put("jobPayload", jobRow.getString("payload").orElse("{}"));
+        context.put("jobPayload", PayloadCodecs.toJson(jobRow.get("payload")));
         context.put("jobErrorMessage", jobRow.getString("error_message").orElse(""));
         context.put("jobClientId", jobRow.getString("client_id").orElse(""));
         context.put("jobUserId", jobRow.getString("user_id").orElse(""));
@@ -298,7 +328,7 @@ public class BackofficeController extends Bragi {
         
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, JOB_DETAILS_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, JOB_DETAILS_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -690,6 +720,13 @@ public class BackofficeController extends Bragi {
             String limitParam = getQueryParam("limit");
             String levelFilter = getQueryParam("level");
             String loggerFilter = getQueryParam("logger");
+            // Time range, as yyyy-MM-dd (UTC) or epoch milliseconds, only the matching day partitions are read
+            long from = parseLogTime(getQueryParam("from"), false, 0L);
+            long to = parseLogTime(getQueryParam("to"), true, Long.MAX_VALUE);
+            // Full-text search, best matches first, "after" is the cursor of the last entry already shown
+            String searchQuery = getQueryParam("q");
+            String after = getQueryParam("after");
+            boolean searching = searchQuery != null && !searchQuery.isBlank();
             
             int limit = 100; // Default limit for logs
             if (limitParam != null) {
@@ -700,28 +737,14 @@ public class BackofficeController extends Bragi {
                 }
             }
 
-            StringBuilder sql = new StringBuilder("SELECT * FROM LOG_ENTRIES WHERE 1=1");
-            List<Object> params = new ArrayList<>();
-
-            if (levelFilter != null && !levelFilter.isEmpty()) {
-                sql.append(" AND level = ?");
-                params.add(levelFilter);
-            }
-
-            if (loggerFilter != null && !loggerFilter.isEmpty()) {
-                sql.append(" AND logger LIKE ?");
-                params.add("%" + loggerFilter + "%");
-            }
-
-            sql.append(" ORDER BY timestamp DESC LIMIT ?");
-            params.add(limit);
-
-            List<org.ruitx.jaws.types.Row> logs = logsDb.getRows(sql.toString(), params.toArray());
+            List<org.ruitx.jaws.types.Row> logs = searching
+                ? logPartitions.search(searchQuery, from, to, levelFilter, loggerFilter, after, limit)
+                : logPartitions.findEntries(from, to, levelFilter, loggerFilter, limit);
 
             StringBuilder html = new StringBuilder();
             
-            // Check if logs list is empty and return appropriate message
-            if (logs.isEmpty()) {
+            // Check if logs list is empty and return appropriate message (past the last page of a search, append nothing)
+            if (logs.isEmpty() && (!searching || after == null)) {
                 html.append("<tr>")
                     .append("<td colspan=\"6\" class=\"px-6 py-4 text-center text-gray-500\">")
                     .append("<div class=\"flex flex-col items-center justify-center py-8\">")
@@ -742,62 +765,35 @@ public class BackofficeController extends Bragi {
             } else {
                 // Process logs normally
                 for (org.ruitx.jaws.types.Row logEntry : logs) {
-                    String level = logEntry.getString("level").orElse("UNKNOWN");
-                    String levelClass = getLogLevelClass(level);
-                    String message = logEntry.getString("message").orElse("");
-                    String logger = logEntry.getString("logger").orElse("Unknown");
-                    String method = logEntry.getString("method").orElse("");
-                    String thread = logEntry.getString("thread").orElse("");
-                    Long timestamp = logEntry.getLong("timestamp").orElse(0L);
-                    Integer lineNumber = logEntry.getInt("line").orElse(0);
-                    
-                    // Truncate long messages for table display
-                    String displayMessage = message.length() > 100 ? message.substring(0, 100) + "..." : message;
-                    
-                    // Extract class name from logger (remove package)
-                    String displayLogger = logger.contains(".") ? logger.substring(logger.lastIndexOf(".") + 1) : logger;
-                    
-                    html.append("<tr class=\"hover:bg-gray-50\">")
-                        .append("<td class=\"px-6 py-4 whitespace-nowrap\">")
-                        .append("<span class=\"px-2 py-1 text-xs font-medium rounded-full ").append(levelClass).append("\">")
-                        .append(level)
-                        .append("</span>")
-                        .append("</td>")
-                        .append("<td class=\"px-6 py-4\">")
-                        .append("<div class=\"text-sm text-gray-900 max-w-md\">")
-                        .append("<span title=\"").append(message.replace("\"", "&quot;")).append("\">")
-                        .append(displayMessage)
-                        .append("</span>")
-                        .append("</div>")
-                        .append("</td>")
-                        .append("<td class=\"px-6 py-4 whitespace-nowrap\">")
-                        .append("<div class=\"text-sm font-medium text-gray-900\">").append(displayLogger).append("</div>")
-                        .append("<div class=\"text-sm text-gray-500\">")
-                        .append(method).append(lineNumber > 0 ? ":" + lineNumber : "")
-                        .append("</div>")
-                        .append("</td>")
-                        .append("<td class=\"px-6 py-4 whitespace-nowrap text-sm text-gray-500\">")
-                        .append("<time datetime=\"").append(timestamp).append("\">")
-                        .append(JawsUtils.formatUnixTimestamp(timestamp, "yyyy-MM-dd HH:mm:ss"))
-                        .append("</time>")
-                        .append("</td>")
-                        .append("<td class=\"px-6 py-4 whitespace-nowrap text-sm text-gray-500\">")
-                        .append(thread)
-                        .append("</td>")
-                        .append("<td class=\"px-6 py-4 whitespace-nowrap text-right text-sm font-medium\">")
-                        .append("<div class=\"flex space-x-2 justify-end\">");
-                    
-                    // Add view details button for all logs
-                    html.append("<a href=\"/backoffice/logs/").append(logEntry.getInt("id").orElse(0)).append("\" ")
-                        .append("class=\"inline-flex items-center px-3 py-1.5 border border-transparent rounded-md text-xs font-medium text-white bg-primary-600 hover:bg-primary-700\" ")
-                        .append("title=\"View log details\">")
-                        .append("<svg class=\"h-3 w-3\" fill=\"none\" viewBox=\"0 0 24 24\" stroke-width=\"1.5\" stroke=\"currentColor\">")
-                        .append("<path stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"M2.036 12.322a1.012 1.012 0 010-.639C3.423 7.51 7.36 4.5 12 4.5c4.638 0 8.573 3.007 9.963 7.178.07.207.07.431 0 .639C20.577 16.49 16.64 19.5 12 19.5c-4.638 0-8.573-3.007-9.963-7.178z\" />")
-                        .append("<path stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"M15 12a3 3 0 11-6 0 3 3 0 016 0z\" />")
-                        .append("</svg>")
-                        .append("</a>");
-                    
-                    html.append("</div>")
+                    appendLogRow(html,
+                        logEntry.getString("entry_id").orElse(null),
+                        logEntry.getString("level").orElse("UNKNOWN"),
+                        logEntry.getString("message").orElse(""),
+                        logEntry.getString("logger").orElse("Unknown"),
+                        logEntry.getString("method").orElse(""),
+                        logEntry.getInt("line").orElse(0),
+                        logEntry.getLong("timestamp").orElse(0L),
+                        logEntry.getString("thread").orElse(""));
+                }
+
+                // Next page of a search: the row replaces itself with the entries after the last one
+                if (searching && logs.size() == limit) {
+                    StringBuilder nextUrl = new StringBuilder("/htmx/backoffice/logs?q=").append(urlEncode(searchQuery))
+                        .append("&after=").append(urlEncode(LogPartitions.searchCursor(logs.get(logs.size() - 1))))
+                        .append("&limit=").append(limit);
+                    for (String param : List.of("level", "logger", "from", "to")) {
+                        String value = getQueryParam(param);
+                        if (value != null && !value.isEmpty()) {
+                            nextUrl.append('&').append(param).append('=').append(urlEncode(value));
+                        }
+                    }
+                    html.append("<tr>")
+                        .append("<td colspan=\"6\" class=\"px-6 py-4 text-center\">")
+                        .append("<button class=\"inline-flex items-center px-3 py-1.5 border border-gray-300 rounded-md text-sm font-medium text-gray-700 bg-white hover:bg-gray-50\" ")
+                        .append("hx-get=\"").append(nextUrl.toString().replace("&", "&amp;")).append("\" ")
+                        .append("hx-target=\"closest tr\" hx-swap=\"outerHTML\">")
+                        .append("Load more")
+                        .append("</button>")
                         .append("</td>")
                         .append("</tr>");
                 }
@@ -810,6 +806,200 @@ public class BackofficeController extends Bragi {
         }
     }
 
+    @AccessControl(login = true, role = "admin")
+    @Route(endpoint = "/htmx/backoffice/logs/stream", method = GET)
+    public void streamLogs() {
+        LogTail tail = JawsLogger.getLogTail();
+        String levelFilter = getQueryParam("level");
+        String loggerFilter = getQueryParam("logger");
+
+        // Start with what gets logged from now on, or resume after the last entry a reconnecting browser received
+        long after = tail.getLastSequence();
+        String lastEventId = getRequestContext().getRequest().getHeader("Last-Event-ID");
+        if (lastEventId != null) {
+            try {
+                after = Math.min(after, Long.parseLong(lastEventId.trim()));
+            } catch (NumberFormatException e) {
+                // Not one of ours, start from now
+            }
+        }
+
+        HttpServletResponse response = getRequestContext().getResponse();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        // The response stays open after this method returns, a writer thread per viewer writes to it
+        AsyncContext async = getRequestContext().getRequest().startAsync();
+        async.setTimeout(0);
+        long start = after;
+        LOG_STREAM_WRITERS.execute(() -> streamLogEntries(async, tail, start, levelFilter, loggerFilter));
+        JawsLogger.debug("BackofficeController: Started a live log stream after entry {}", start);
+    }
+
+    /**
+     * Send every entry published to the tail after a sequence as server-sent events, until the viewer leaves
+     * Each event carries the new table rows (newest first) and the sequence of the last one as its ID.
+     */
+    private void streamLogEntries(AsyncContext async, LogTail tail, long after, String levelFilter, String loggerFilter) {
+        String loggerMatch = loggerFilter != null && !loggerFilter.isEmpty() ? loggerFilter.toLowerCase() : null;
+        String levelMatch = levelFilter != null && !levelFilter.isEmpty() ? levelFilter : null;
+        List<LogEntry> entries = new ArrayList<>();
+        StringBuilder rows = new StringBuilder(4096);
+        StringBuilder event = new StringBuilder(4096);
+
+        tail.subscribe();
+        try {
+            ServletOutputStream out = async.getResponse().getOutputStream();
+            out.write("retry: 3000\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            long cursor = after;
+            while (true) {
+                if (!tail.awaitAfter(cursor, LOG_STREAM_HEARTBEAT_MS, TimeUnit.MILLISECONDS)) {
+                    // Nothing logged for a while, keep the connection from hitting the idle timeout
+                    out.write(": ping\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    continue;
+                }
+
+                entries.clear();
+                long last = tail.readAfter(cursor, entries, LOG_STREAM_MAX_EVENT_ENTRIES);
+                long skipped = last - cursor - entries.size();
+                cursor = last;
+
+                rows.setLength(0);
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    LogEntry entry = entries.get(i);
+                    String logger = entry.getLogger() != null ? entry.getLogger() : "Unknown";
+                    if ((levelMatch != null && !levelMatch.equalsIgnoreCase(entry.getLevel())) ||
+                        (loggerMatch != null && !logger.toLowerCase().contains(loggerMatch))) {
+                        continue;
+                    }
+                    appendLogRow(rows, null, entry.getLevel(), entry.getMessage() != null ? entry.getMessage() : "",
+                                 logger, entry.getMethod() != null ? entry.getMethod() : "", entry.getLineNumber(),
+                                 entry.getTimestamp(), entry.getThread() != null ? entry.getThread() : "");
+                }
+
+                event.setLength(0);
+                if (skipped > 0) {
+                    event.append(": skipped ").append(skipped).append(" entries, the viewer fell behind\n\n");
+                }
+                if (!rows.isEmpty()) {
+                    // Line breaks inside messages would end the data field, continue it on the next line instead
+                    event.append("id: ").append(cursor).append('\n')
+                         .append("event: log\n")
+                         .append("data: ").append(rows.toString().replace("\r", "").replace("\n", "\ndata: "))
+                         .append("\n\n");
+                }
+                if (!event.isEmpty()) {
+                    out.write(event.toString().getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The viewer went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Live log stream stopped: {}", e.getMessage());
+        } finally {
+            tail.unsubscribe();
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container (connection closed)
+            }
+        }
+    }
+
+    /**
+     * Append a log entry as a row of the logs table
+     *
+     * @param entryId ID of the entry in the database (yyyyMMdd-id), or null to leave out the details link
+     */
+    private void appendLogRow(StringBuilder html, String entryId, String level, String message, String logger,
+                              String method, int lineNumber, long timestamp, String thread) {
+        String levelClass = getLogLevelClass(level);
+
+        // Truncate long messages for table display
+        String displayMessage = message.length() > 100 ? message.substring(0, 100) + "..." : message;
+
+        // Extract class name from logger (remove package)
+        String displayLogger = logger.contains(".") ? logger.substring(logger.lastIndexOf(".") + 1) : logger;
+
+        html.append("<tr class=\"hover:bg-gray-50\">")
+            .append("<td class=\"px-6 py-4 whitespace-nowrap\">")
+            .append("<span class=\"px-2 py-1 text-xs font-medium rounded-full ").append(levelClass).append("\">")
+            .append(level)
+            .append("</span>")
+            .append("</td>")
+            .append("<td class=\"px-6 py-4\">")
+            .append("<div class=\"text-sm text-gray-900 max-w-md\">")
+            .append("<span title=\"").append(message.replace("\"", "&quot;")).append("\">")
+            .append(displayMessage)
+            .append("</span>")
+            .append("</div>")
+            .append("</td>")
+            .append("<td class=\"px-6 py-4 whitespace-nowrap\">")
+            .append("<div class=\"text-sm font-medium text-gray-900\">").append(displayLogger).append("</div>")
+            .append("<div class=\"text-sm text-gray-500\">")
+            .append(method).append(lineNumber > 0 ? ":" + lineNumber : "")
+            .append("</div>")
+            .append("</td>")
+            .append("<td class=\"px-6 py-4 whitespace-nowrap text-sm text-gray-500\">")
+            .append("<time datetime=\"").append(timestamp).append("\">")
+            .append(JawsUtils.formatUnixTimestamp(timestamp, "yyyy-MM-dd HH:mm:ss"))
+            .append("</time>")
+            .append("</td>")
+            .append("<td class=\"px-6 py-4 whitespace-nowrap text-sm text-gray-500\">")
+            .append(thread)
+            .append("</td>")
+            .append("<td class=\"px-6 py-4 whitespace-nowrap text-right text-sm font-medium\">")
+            .append("<div class=\"flex space-x-2 justify-end\">");
+
+        // Add view details button (live entries aren't looked up in the database, they have no ID)
+        if (entryId != null) {
+            html.append("<a href=\"/backoffice/logs/").append(entryId).append("\" ")
+                .append("class=\"inline-flex items-center px-3 py-1.5 border border-transparent rounded-md text-xs font-medium text-white bg-primary-600 hover:bg-primary-700\" ")
+                .append("title=\"View log details\">")
+                .append("<svg class=\"h-3 w-3\" fill=\"none\" viewBox=\"0 0 24 24\" stroke-width=\"1.5\" stroke=\"currentColor\">")
+                .append("<path stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"M2.036 12.322a1.012 1.012 0 010-.639C3.423 7.51 7.36 4.5 12 4.5c4.638 0 8.573 3.007 9.963 7.178.07.207.07.431 0 .639C20.577 16.49 16.64 19.5 12 19.5c-4.638 0-8.573-3.007-9.963-7.178z\" />")
+                .append("<path stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"M15 12a3 3 0 11-6 0 3 3 0 016 0z\" />")
+                .append("</svg>")
+                .append("</a>");
+        }
+
+        html.append("</div>")
+            .append("</td>")
+            .append("</tr>");
+    }
+
+    private static String urlEncode(String value) {
+        return java.net.URLEncoder.encode(value, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse a log time filter: a UTC date (start or end of that day) or epoch milliseconds
+     */
+    private long parseLogTime(String value, boolean endOfDay, long defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            if (value.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                java.time.LocalDate day = java.time.LocalDate.parse(value);
+                long start = day.atStartOfDay(java.time.ZoneOffset.UTC).toInstant().toEpochMilli();
+                return endOfDay ? start + java.util.concurrent.TimeUnit.DAYS.toMillis(1) - 1 : start;
+            }
+            return Long.parseLong(value);
+        } catch (RuntimeException e) {
+            return defaultValue;
+        }
+    }
+
     private String getLogLevelClass(String level) {
         return switch (level) {
             case "ERROR" -> "bg-red-100 text-red-800";
@@ -830,6 +1020,7 @@ public class BackofficeController extends Bragi {
             case "TIMEOUT" -> "is-danger";
             case "RETRY_SCHEDULED" -> "is-warning";
             case "DEAD_LETTER" -> "is-dark";
+            case "WAITING" -> "is-light";
             default -> "is-light";
         };
     }
@@ -847,7 +1038,7 @@ public class BackofficeController extends Bragi {
         context.put("currentPage", "roles");
         setContext(context);
 
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, ROLES_PAGE));
+        sendHTMLPage(OK, BASE_HTML_PATH, ROLES_PAGE);
     }
 
     @AccessControl(login = true, role = "admin")
@@ -2,6 +2,7 @@ package org.ruitx.www.controller;
 
 import jakarta.servlet.http.Part;
 import org.ruitx.jaws.components.Bragi;
+import org.ruitx.jaws.components.freyr.QueueFullException;
 import org.ruitx.jaws.interfaces.Route;
 import org.ruitx.jaws.types.APIResponse;
 import org.ruitx.www.model.Image;
@@ -11,6 +12,7 @@ import org.ruitx.jaws.utils.JawsLogger;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
@@ -123,7 +125,7 @@ public class ImageController extends Bragi {
         }
         
         setContext(context);
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, GALLERY_HTML_PATH));
+        sendHTMLPage(OK, BASE_HTML_PATH, GALLERY_HTML_PATH);
     }
 
     // ========================================
@@ -190,6 +192,9 @@ public class ImageController extends Bragi {
                 sendErrorResponse(response.code(), response.info());
             }
 
+        } catch (QueueFullException e) {
+            JawsLogger.warn("Image upload rejected, processing queue is full: {}", e.getMessage());
+            sendServiceUnavailableResponse("Image processing is busy, please try again later", e.getRetryAfterSeconds());
         } catch (Exception e) {
             JawsLogger.error("Failed to upload image: {}", e.getMessage(), e);
             sendErrorResponse(INTERNAL_SERVER_ERROR, "Failed to upload image: " + e.getMessage());
@@ -273,14 +278,14 @@ public class ImageController extends Bragi {
                 filePath = image.filePath();
             }
 
-            // Read file and serve as binary response
-            try {
-                byte[] fileContent = Files.readAllBytes(Paths.get(filePath));
-                sendBinaryResponse(OK, mimeType, fileContent);
-            } catch (IOException e) {
-                JawsLogger.error("Failed to read image file {}: {}", filePath, e.getMessage());
+            // Stream the file, with ETag / Range support
+            Path file = Paths.get(filePath);
+            if (!Files.isRegularFile(file)) {
+                JawsLogger.error("Image file {} not found", filePath);
                 sendErrorResponse(NOT_FOUND, "Image file not found");
+                return;
             }
+            sendFile(file, mimeType);
 
         } catch (Exception e) {
             JawsLogger.error("Failed to serve image file {}: {}", imageId, e.getMessage());
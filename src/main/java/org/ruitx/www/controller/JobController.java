@@ -1,15 +1,22 @@
 package org.ruitx.www.controller;
 
 import org.ruitx.jaws.components.Bragi;
+import org.ruitx.jaws.components.freyr.BatchSubmitResult;
 import org.ruitx.jaws.components.freyr.Freyr;
+import org.ruitx.jaws.components.freyr.JobRegistry;
 import org.ruitx.jaws.components.freyr.JobResult;
+import org.ruitx.jaws.components.freyr.QueueFullException;
+import org.ruitx.jaws.interfaces.Job;
 import org.ruitx.jaws.interfaces.Route;
 import org.ruitx.www.jobs.ExternalApiJob;
 import org.ruitx.www.jobs.ParallelPingJob;
 import org.ruitx.www.jobs.SequentialPingJob;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.ruitx.jaws.strings.RequestType.GET;
 import static org.ruitx.jaws.strings.RequestType.POST;
@@ -22,6 +29,13 @@ import static org.ruitx.jaws.strings.ResponseType.JSON;
 public class JobController extends Bragi {
     
     private static final String API_ENDPOINT = "/api/jobs/";
+    private static final int MAX_BATCH_SIZE = 500;
+    // Job types clients may submit in a batch, internal ones (image processing, log writers) are only created by the server
+    private static final Set<String> CLIENT_JOB_TYPES = Set.of(
+        SequentialPingJob.JOB_TYPE,
+        ParallelPingJob.JOB_TYPE,
+        ExternalApiJob.JOB_TYPE
+    );
     private final Freyr jobQueue;
     
     public JobController() {
@@ -82,6 +96,8 @@ public class JobController extends Bragi {
             
             sendSucessfulResponse(ACCEPTED, response);
             
+        } catch (QueueFullException e) {
+            sendServiceUnavailableResponse("Job queue is full, please try again later", e.getRetryAfterSeconds());
         } catch (Exception e) {
             sendErrorResponse(INTERNAL_SERVER_ERROR, "Failed to queue parallel ping job: " + e.getMessage());
         }
@@ -141,6 +157,8 @@ public class JobController extends Bragi {
             
             sendSucessfulResponse(ACCEPTED, response);
             
+        } catch (QueueFullException e) {
+            sendServiceUnavailableResponse("Job queue is full, please try again later", e.getRetryAfterSeconds());
         } catch (Exception e) {
             sendErrorResponse(INTERNAL_SERVER_ERROR, "Failed to queue sequential ping job: " + e.getMessage());
         }
@@ -183,6 +201,8 @@ public class JobController extends Bragi {
             
             sendSucessfulResponse(ACCEPTED, response);
             
+        } catch (QueueFullException e) {
+            sendServiceUnavailableResponse("Job queue is full, please try again later", e.getRetryAfterSeconds());
         } catch (Exception e) {
             sendErrorResponse(INTERNAL_SERVER_ERROR, "Failed to queue external API job: " + e.getMessage());
         }
@@ -191,6 +211,100 @@ public class JobController extends Bragi {
 
 
     
+    /**
+     * Submit several jobs in one request
+     * Body: {"jobs": [{"type": "...", "payload": {...}}, ...]}
+     * Only the ping and external API job types are accepted, see CLIENT_JOB_TYPES
+     */
+    @Route(endpoint = API_ENDPOINT + "batch", method = POST, responseType = JSON)
+    public void queueBatch() {
+        try {
+            String requestBody = getRequestContext().getRequestBody();
+            if (requestBody == null || requestBody.trim().isEmpty()) {
+                sendErrorResponse(BAD_REQUEST, "Request body is required");
+                return;
+            }
+            
+            List<Map<String, Object>> requestedJobs;
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> body = getMapper().readValue(requestBody, Map.class);
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> bodyJobs = (List<Map<String, Object>>) body.get("jobs");
+                requestedJobs = bodyJobs;
+            } catch (Exception e) {
+                sendErrorResponse(BAD_REQUEST, "Invalid request body format");
+                return;
+            }
+            
+            if (requestedJobs == null || requestedJobs.isEmpty()) {
+                sendErrorResponse(BAD_REQUEST, "At least one job is required");
+                return;
+            }
+            if (requestedJobs.size() > MAX_BATCH_SIZE) {
+                sendErrorResponse(BAD_REQUEST, "Batch too large, maximum is " + MAX_BATCH_SIZE + " jobs");
+                return;
+            }
+            
+            // Build the jobs, unknown and internal types are rejected before reaching the queue
+            JobRegistry registry = JobRegistry.getInstance();
+            List<Job> jobs = new ArrayList<>();
+            List<Integer> jobIndexes = new ArrayList<>();
+            List<Map<String, Object>> results = new ArrayList<>();
+            int rejected = 0;
+            
+            for (int i = 0; i < requestedJobs.size(); i++) {
+                Map<String, Object> requested = requestedJobs.get(i);
+                Object type = requested != null ? requested.get("type") : null;
+                
+                Map<String, Object> payload = new HashMap<>();
+                if (requested != null && requested.get("payload") instanceof Map<?, ?> requestedPayload) {
+                    requestedPayload.forEach((key, value) -> payload.put(String.valueOf(key), value));
+                }
+                payload.put("clientId", getClientIpAddress());
+                payload.put("submittedBy", getCurrentToken() != null ? getCurrentToken() : "anonymous");
+                
+                if (!(type instanceof String jobType) || !CLIENT_JOB_TYPES.contains(jobType)) {
+                    results.add(Map.of("index", i, "status", "REJECTED", "reason", "Job type not allowed: " + type));
+                    rejected++;
+                    continue;
+                }
+                Job job = registry.isRegistered(jobType) ? registry.createJob(jobType, payload) : null;
+                if (job == null) {
+                    results.add(Map.of("index", i, "status", "REJECTED", "reason", "Unknown job type: " + type));
+                    rejected++;
+                    continue;
+                }
+                jobs.add(job);
+                jobIndexes.add(i);
+            }
+            
+            BatchSubmitResult batchResult = jobQueue.submitAll(jobs);
+            for (BatchSubmitResult.Entry entry : batchResult.getEntries()) {
+                Map<String, Object> result = entry.toMap();
+                result.put("index", jobIndexes.get(entry.getIndex()));
+                if (entry.isAccepted()) {
+                    result.put("endpoints", Map.of(
+                        "status", "/api/jobs/status/" + entry.getJobId(),
+                        "result", "/api/jobs/result/" + entry.getJobId()
+                    ));
+                }
+                results.add(result);
+            }
+            results.sort((a, b) -> Integer.compare((Integer) a.get("index"), (Integer) b.get("index")));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("accepted", batchResult.getAcceptedCount());
+            response.put("rejected", rejected + batchResult.getRejectedCount());
+            response.put("jobs", results);
+            
+            sendSucessfulResponse(ACCEPTED, response);
+            
+        } catch (Exception e) {
+            sendErrorResponse(INTERNAL_SERVER_ERROR, "Failed to queue job batch: " + e.getMessage());
+        }
+    }
+    
     // ========================================
     // Job Management Endpoints
     // ========================================
@@ -275,6 +389,26 @@ public class JobController extends Bragi {
         sendSucessfulResponse(OK, response);
     }
     
+    /**
+     * Get the status of a workflow and of each of its jobs
+     */
+    @Route(endpoint = API_ENDPOINT + "workflow/:workflowId", responseType = JSON)
+    public void getWorkflowStatus() {
+        String workflowId = getPathParam("workflowId");
+        if (workflowId == null || workflowId.isEmpty()) {
+            sendErrorResponse(BAD_REQUEST, "Workflow ID is required");
+            return;
+        }
+        
+        Map<String, Object> workflow = jobQueue.getWorkflowStatus(workflowId);
+        if (workflow == null) {
+            sendErrorResponse(NOT_FOUND, "Workflow not found");
+            return;
+        }
+        
+        sendSucessfulResponse(OK, workflow);
+    }
+    
     /**
      * Get job queue statistics
      */
@@ -300,6 +434,7 @@ public class JobController extends Bragi {
             case TIMEOUT -> "Job processing timed out";
             case RETRY_SCHEDULED -> "Job is scheduled for retry";
             case DEAD_LETTER -> "Job was permanently failed and moved to dead letter queue";
+            case WAITING -> "Job is waiting for the jobs it depends on to complete";
             default -> "Unknown job status";
         };
     }
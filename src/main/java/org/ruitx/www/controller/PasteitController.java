@@ -31,7 +31,7 @@ public class PasteitController extends Bragi {
 
     @Route(endpoint = "/pasteit", method = GET)
     public void renderIndex() {
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, BODY_HTML_PATH));
+        sendHTMLPage(OK, BASE_HTML_PATH, BODY_HTML_PATH);
     }
 
     @Route(endpoint = "/pasteit/:id", method = GET)
@@ -152,7 +152,7 @@ public class PasteitController extends Bragi {
         }
         
         setContext(context);
-        sendHTMLResponse(OK, assemblePage(BASE_HTML_PATH, VIEW_HTML_PATH));
+        sendHTMLPage(OK, BASE_HTML_PATH, VIEW_HTML_PATH);
     }
 
     @Route(endpoint = "/api/v1/pasteit", method = POST, responseType = JSON)
@@ -3,6 +3,9 @@ package org.ruitx.www.jobs;
 import org.ruitx.jaws.components.Mimir;
 import org.ruitx.jaws.components.freyr.BaseJob;
 import org.ruitx.jaws.components.freyr.ExecutionMode;
+import org.ruitx.jaws.components.freyr.PayloadCodec;
+import org.ruitx.jaws.components.freyr.PayloadCodecs;
+import org.ruitx.jaws.utils.LogPartitions;
 import org.tinylog.Logger;
 
 import java.util.List;
@@ -13,16 +16,32 @@ import java.util.Map;
  * 
  * This job processes a batch of log entries in a single database transaction,
  * significantly improving logging performance for high-throughput applications.
+ * 
+ * JawsLogger no longer submits it (logs go through its own LogWriter thread), the type stays
+ * registered so batches still queued in the JOBS table are written after an upgrade.
  */
 public class BatchLogWriterJob extends BaseJob {
     
     public static final String JOB_TYPE = "batch-log-writer";
+    public static final String ORDERING_KEY = "jaws-logs";
     
     // Use SEQUENTIAL mode to ensure ordered log writes and avoid database contention
     public BatchLogWriterJob(Map<String, Object> payload) {
         super(JOB_TYPE, ExecutionMode.SEQUENTIAL, 1, 3, 30000L, payload); // High priority (1), 3 retries, 30s timeout
     }
     
+    // Log flushes only need to be ordered among themselves, keep them off the lane of other sequential work
+    @Override
+    public String getOrderingKey() {
+        return ORDERING_KEY;
+    }
+    
+    // A batch is up to BATCH_SIZE maps with the same keys, the binary codec writes each key once
+    @Override
+    public PayloadCodec getPayloadCodec() {
+        return PayloadCodecs.BINARY;
+    }
+    
     @Override
     public void execute() throws Exception {
         @SuppressWarnings("unchecked")
@@ -39,14 +58,21 @@ public class BatchLogWriterJob extends BaseJob {
             logsDb = new Mimir("src/main/resources/logs.db", "src/main/resources/sql/logs_schema.sql");
             logsDb.initializeDatabase("src/main/resources/logs.db");
             
+            // Entries go to the partition of their day, create those first (outside the transaction)
+            LogPartitions partitions = new LogPartitions(logsDb);
+            for (Map<String, Object> logEntryMap : logEntryMaps) {
+                partitions.ensurePartition(LogPartitions.dayOf((Long) logEntryMap.get("timestamp")));
+            }
+            
             // Process all log entries in a single transaction for maximum performance
             logsDb.beginTransaction();
             
             try {
                 for (Map<String, Object> logEntryMap : logEntryMaps) {
                     try {
+                        String table = LogPartitions.tableName(LogPartitions.dayOf((Long) logEntryMap.get("timestamp")));
                         logsDb.executeSql(
-                            "INSERT INTO LOG_ENTRIES (timestamp, level, logger, thread, message, exception, method, line) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                            "INSERT INTO " + table + " (timestamp, level, logger, thread, message, exception, method, line) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
                             (Long) logEntryMap.get("timestamp"),
                             (String) logEntryMap.get("level"),
                             (String) logEntryMap.get("logger"),
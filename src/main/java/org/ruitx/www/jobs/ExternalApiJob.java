@@ -65,6 +65,9 @@ public class ExternalApiJob extends BaseJob {
     
     public static final String JOB_TYPE = "external-api-call";
     
+    // HttpClient is thread-safe and holds a connection pool, share it between all jobs
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+    
     private final CircuitBreaker circuitBreaker;
     
     /**
@@ -180,14 +183,13 @@ public class ExternalApiJob extends BaseJob {
      * Framework-agnostic API call method
      */
     private APIResponse<List<Post>> callExternalAPI(String url) {
-        HttpClient httpClient = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder(URI.create(url))
                 .header("accept", "application/json")
                 .GET()
                 .build();
         
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
             
             if (response.statusCode() != 200 && response.statusCode() != 201) {
                 JawsLogger.error("API request failed with status code: {}", response.statusCode());
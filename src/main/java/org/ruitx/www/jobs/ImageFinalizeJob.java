@@ -0,0 +1,68 @@
+package org.ruitx.www.jobs;
+
+import org.ruitx.jaws.components.Odin;
+import org.ruitx.jaws.components.freyr.BaseJob;
+import org.ruitx.jaws.components.freyr.ExecutionMode;
+import org.ruitx.jaws.components.freyr.JobResultStore;
+import org.ruitx.jaws.components.freyr.JobWorkflow;
+import org.ruitx.www.repository.ImageRepo;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ImageFinalizeJob - Fan-in step of the image upload workflow
+ *
+ * Runs once every ImageResizeJob variant of an image completed, marks the image
+ * as completed and stores the list of created variants as its result.
+ */
+public class ImageFinalizeJob extends BaseJob {
+
+    public static final String JOB_TYPE = "IMAGE_FINALIZE";
+
+    private final ImageRepo imageRepo;
+
+    public ImageFinalizeJob(Map<String, Object> payload) {
+        this(payload, new ImageRepo());
+    }
+
+    /**
+     * Create the job with a shared ImageRepo (as the JobRegistry and ImageService do)
+     */
+    public ImageFinalizeJob(Map<String, Object> payload, ImageRepo imageRepo) {
+        super(JOB_TYPE, ExecutionMode.PARALLEL, 3, 3, 10000L, payload);
+        this.imageRepo = imageRepo;
+    }
+
+    @Override
+    public String getIdempotencyKey() {
+        String imageId = getString("imageId");
+        return imageId != null ? JOB_TYPE + ":" + imageId : super.getIdempotencyKey();
+    }
+
+    @Override
+    public void execute() throws Exception {
+        String imageId = getString("imageId");
+        if (imageId == null) {
+            throw new IllegalArgumentException("Missing imageId in payload");
+        }
+
+        List<Object> variants = new ArrayList<>();
+        Object parentResults = getPayload().get(JobWorkflow.PARENT_RESULTS_KEY);
+        if (parentResults instanceof Map<?, ?> results) {
+            for (Object result : results.values()) {
+                if (result instanceof Map<?, ?> variantResult && variantResult.get("variant") != null) {
+                    variants.add(variantResult.get("variant"));
+                }
+            }
+        }
+
+        imageRepo.updateImageStatus(imageId, "completed");
+        JobResultStore.storeSuccess(getId(), Odin.getMapper().writeValueAsString(
+            Map.of("imageId", imageId, "variants", variants)));
+
+        Logger.info("Image {} completed with variants {}", imageId, variants);
+    }
+}
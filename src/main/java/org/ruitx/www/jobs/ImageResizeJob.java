@@ -1,7 +1,9 @@
 package org.ruitx.www.jobs;
 
+import org.ruitx.jaws.components.Odin;
 import org.ruitx.jaws.components.freyr.BaseJob;
 import org.ruitx.jaws.components.freyr.ExecutionMode;
+import org.ruitx.jaws.components.freyr.JobResultStore;
 import org.ruitx.www.model.Image;
 import org.ruitx.www.repository.ImageRepo;
 import org.tinylog.Logger;
@@ -14,6 +16,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,11 +29,20 @@ import java.util.UUID;
  * - Large (1200x900)
  * 
  * All variants maintain aspect ratio and use high quality scaling.
+ * 
+ * With a "variant" in the payload only that variant is created, so the variants of an
+ * upload can run in parallel as separate jobs of a workflow (see ImageFinalizeJob).
  */
 public class ImageResizeJob extends BaseJob {
     
     public static final String JOB_TYPE = "IMAGE_RESIZE";
     
+    // Variants, one job each when the resize runs as a workflow
+    public static final String VARIANT_THUMBNAIL = "thumbnail";
+    public static final String VARIANT_MEDIUM = "medium";
+    public static final String VARIANT_LARGE = "large";
+    public static final List<String> VARIANTS = List.of(VARIANT_THUMBNAIL, VARIANT_MEDIUM, VARIANT_LARGE);
+    
     // Target sizes for different variants
     private static final int THUMBNAIL_SIZE = 150;
     private static final int MEDIUM_WIDTH = 800;
@@ -41,8 +53,28 @@ public class ImageResizeJob extends BaseJob {
     private final ImageRepo imageRepo;
 
     public ImageResizeJob(Map<String, Object> payload) {
+        this(payload, new ImageRepo());
+    }
+
+    /**
+     * Create the job with a shared ImageRepo (as the JobRegistry and ImageService do)
+     */
+    public ImageResizeJob(Map<String, Object> payload, ImageRepo imageRepo) {
         super(JOB_TYPE, ExecutionMode.PARALLEL, 3, 3, 60000L, payload); // 1 minute timeout
-        this.imageRepo = new ImageRepo();
+        this.imageRepo = imageRepo;
+    }
+
+    /**
+     * One resize per image (and variant) at a time, a second upload/retry for the same image reuses the live job
+     */
+    @Override
+    public String getIdempotencyKey() {
+        String imageId = getString("imageId");
+        if (imageId == null) {
+            return super.getIdempotencyKey();
+        }
+        String variant = getString("variant");
+        return variant != null ? JOB_TYPE + ":" + imageId + ":" + variant : JOB_TYPE + ":" + imageId;
     }
 
     @Override
@@ -73,6 +105,16 @@ public class ImageResizeJob extends BaseJob {
             // Create the uploads directory structure
             createDirectories();
             
+            // Single variant, the workflow's finalize job marks the image as completed
+            String variant = getString("variant");
+            if (variant != null) {
+                createVariant(variant, imageId, originalImage, image.originalFilename());
+                JobResultStore.storeSuccess(getId(), Odin.getMapper().writeValueAsString(
+                    Map.of("imageId", imageId, "variant", variant)));
+                Logger.info("Created {} variant for image: {}", variant, imageId);
+                return;
+            }
+            
             // Generate variants
             createThumbnail(imageId, originalImage, image.originalFilename());
             createMedium(imageId, originalImage, image.originalFilename());
@@ -117,6 +159,18 @@ public class ImageResizeJob extends BaseJob {
         Files.createDirectories(Paths.get("uploads/large"));
     }
 
+    /**
+     * Create a single variant by name
+     */
+    private void createVariant(String variant, String imageId, BufferedImage original, String originalFilename) throws IOException {
+        switch (variant) {
+            case VARIANT_THUMBNAIL -> createThumbnail(imageId, original, originalFilename);
+            case VARIANT_MEDIUM -> createMedium(imageId, original, originalFilename);
+            case VARIANT_LARGE -> createLarge(imageId, original, originalFilename);
+            default -> throw new IllegalArgumentException("Unknown image variant: " + variant);
+        }
+    }
+
     /**
      * Create thumbnail variant (150x150, maintains aspect ratio)
      */
@@ -1,7 +1,11 @@
 package org.ruitx.www.service;
 
 import org.ruitx.jaws.components.freyr.Freyr;
+import org.ruitx.jaws.components.freyr.JobWorkflow;
+import org.ruitx.jaws.components.freyr.QueueFullException;
+import org.ruitx.jaws.interfaces.Job;
 import org.ruitx.jaws.types.APIResponse;
+import org.ruitx.www.jobs.ImageFinalizeJob;
 import org.ruitx.www.jobs.ImageResizeJob;
 import org.ruitx.www.model.Image;
 import org.ruitx.www.model.ImageVariant;
@@ -17,6 +21,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -41,6 +46,8 @@ public class ImageService {
 
     /**
      * Upload and process an image
+     *
+     * @throws QueueFullException if the resize job can't be queued, the upload is rolled back
      */
     public APIResponse<String> uploadImage(byte[] imageData, String originalFilename, 
                                          String mimeType, String userSession, Integer userId) {
@@ -92,14 +99,32 @@ public class ImageService {
                 return APIResponse.error("500 INTERNAL SERVER ERROR", "Failed to save image to database");
             }
 
-            // Queue image processing job
-            Map<String, Object> jobPayload = Map.of("imageId", imageId);
-            String jobId = jobQueue.submit(new ImageResizeJob(jobPayload));
+            // Queue image processing: the variants in parallel, then the finalize step once all are done
+            JobWorkflow workflow = new JobWorkflow();
+            List<Job> variantJobs = new ArrayList<>();
+            for (String variant : ImageResizeJob.VARIANTS) {
+                Job variantJob = new ImageResizeJob(Map.of("imageId", imageId, "variant", variant), imageRepo);
+                workflow.add(variantJob);
+                variantJobs.add(variantJob);
+            }
+            workflow.add(new ImageFinalizeJob(Map.of("imageId", imageId), imageRepo), variantJobs.toArray(new Job[0]));
+            
+            String workflowId;
+            try {
+                workflowId = jobQueue.submitWorkflow(workflow);
+            } catch (QueueFullException e) {
+                // Don't keep an image that will never be processed, the client retries the whole upload
+                imageRepo.deleteImage(imageId);
+                Files.deleteIfExists(outputPath);
+                throw e;
+            }
 
-            Logger.info("Image uploaded successfully: {} -> job: {}", imageId, jobId);
+            Logger.info("Image uploaded successfully: {} -> workflow: {}", imageId, workflowId);
 
             return APIResponse.success("201 CREATED", "Image uploaded successfully", imageId);
 
+        } catch (QueueFullException e) {
+            throw e;
         } catch (Exception e) {
             Logger.error("Failed to upload image: {}", e.getMessage(), e);
             return APIResponse.error("500 INTERNAL SERVER ERROR", "Failed to upload image: " + e.getMessage());
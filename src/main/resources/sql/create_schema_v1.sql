@@ -155,13 +155,13 @@ CREATE INDEX IF NOT EXISTS idx_async_response_request_id ON ASYNC_RESPONSE (requ
 CREATE TABLE IF NOT EXISTS JOBS (
     id                TEXT    PRIMARY KEY,      -- Unique job ID (UUID)
     type              TEXT    NOT NULL,         -- Job type (maps to JobRegistry)
-    payload           TEXT,                     -- JSON serialized job payload
+    payload           TEXT,                     -- Job payload: JSON text, or a BLOB written by a PayloadCodec
     priority          INTEGER DEFAULT 5,       -- Priority level (1-10, 1=highest)
     max_retries       INTEGER DEFAULT 3,       -- Maximum retry attempts
     current_retries   INTEGER DEFAULT 0,       -- Current retry count  
     timeout_ms        INTEGER DEFAULT 30000,   -- Timeout in milliseconds
     execution_mode    TEXT    DEFAULT 'PARALLEL', -- PARALLEL or SEQUENTIAL
-    status            TEXT    DEFAULT 'PENDING',  -- PENDING, PROCESSING, COMPLETED, FAILED, TIMEOUT, RETRY_SCHEDULED, DEAD_LETTER
+    status            TEXT    DEFAULT 'PENDING',  -- PENDING, PROCESSING, COMPLETED, FAILED, TIMEOUT, RETRY_SCHEDULED, DEAD_LETTER, WAITING
     created_at        INTEGER NOT NULL,        -- When job was created
     started_at        INTEGER,                 -- When processing started
     completed_at      INTEGER,                 -- When processing completed
@@ -172,6 +172,11 @@ CREATE TABLE IF NOT EXISTS JOBS (
     next_retry_at     INTEGER DEFAULT 0,       -- When job should be retried (epoch milliseconds)
     retry_backoff_ms  INTEGER DEFAULT 1000,    -- Current backoff delay for this job
     last_retry_at     INTEGER DEFAULT 0,       -- When last retry attempt was made
+    -- Lease fields (multi-process claiming)
+    owner             TEXT,                    -- Node currently holding the job
+    lease_until       INTEGER DEFAULT 0,       -- When the owner's lease expires (epoch milliseconds)
+    idempotency_key   TEXT,                    -- Optional deduplication key, unique among live jobs
+    workflow_id       TEXT,                    -- Workflow (DAG) the job belongs to, if any
     FOREIGN KEY (user_id) REFERENCES USER (id) ON DELETE SET NULL
 );
 
@@ -188,6 +193,14 @@ CREATE TABLE IF NOT EXISTS JOB_RESULTS (
     FOREIGN KEY (job_id) REFERENCES JOBS (id) ON DELETE CASCADE
 );
 
+-- Job dependencies - workflow edges, a WAITING job starts once all its parents completed
+CREATE TABLE IF NOT EXISTS JOB_DEPENDENCIES (
+    job_id          TEXT    NOT NULL,          -- Waiting (child) job
+    parent_id       TEXT    NOT NULL,          -- Job it depends on
+    satisfied       INTEGER DEFAULT 0,         -- 1 once the parent completed
+    PRIMARY KEY (job_id, parent_id)
+);
+
 -- Dead Letter Queue - for jobs that have exhausted all retry attempts
 CREATE TABLE IF NOT EXISTS DEAD_LETTER_QUEUE (
     id                TEXT    PRIMARY KEY,     -- DLQ entry ID (UUID)
@@ -223,6 +236,18 @@ CREATE INDEX IF NOT EXISTS idx_jobs_retry_scheduled ON JOBS (status, next_retry_
 CREATE INDEX IF NOT EXISTS idx_jobs_current_retries ON JOBS (current_retries);
 CREATE INDEX IF NOT EXISTS idx_jobs_next_retry_at ON JOBS (next_retry_at);
 
+-- Lease indexes
+CREATE INDEX IF NOT EXISTS idx_jobs_lease ON JOBS (status, lease_until);
+CREATE INDEX IF NOT EXISTS idx_jobs_owner ON JOBS (owner);
+
+-- Idempotency index, only one live job per key
+CREATE UNIQUE INDEX IF NOT EXISTS idx_jobs_idempotency_key ON JOBS (idempotency_key)
+    WHERE idempotency_key IS NOT NULL AND status IN ('PENDING', 'PROCESSING', 'RETRY_SCHEDULED', 'WAITING');
+
+-- Workflow indexes
+CREATE INDEX IF NOT EXISTS idx_jobs_workflow_id ON JOBS (workflow_id);
+CREATE INDEX IF NOT EXISTS idx_job_dependencies_parent_id ON JOB_DEPENDENCIES (parent_id);
+
 -- Job results indexes  
 CREATE INDEX IF NOT EXISTS idx_job_results_job_id ON JOB_RESULTS (job_id);
 CREATE INDEX IF NOT EXISTS idx_job_results_expires_at ON JOB_RESULTS (expires_at);
@@ -5,6 +5,9 @@
 -- separate from the main application database.
 
 -- Log entries table for JawsLogger
+-- JawsLogger stores its entries in one table per UTC day (LOG_ENTRIES_yyyyMMdd, same columns,
+-- indexed on timestamp only, see LogPartitions). On startup this table is split into those
+-- partitions and replaced by a LOG_ENTRIES view over them.
 CREATE TABLE IF NOT EXISTS LOG_ENTRIES (
     id              INTEGER PRIMARY KEY AUTOINCREMENT,
     timestamp       INTEGER NOT NULL,           -- Log timestamp (epoch milliseconds)
@@ -18,21 +21,5 @@ CREATE TABLE IF NOT EXISTS LOG_ENTRIES (
     created_at      INTEGER NOT NULL DEFAULT (strftime('%s', 'now') * 1000)
 );
 
--- =============================================
--- INDEXES FOR LOGGING SYSTEM PERFORMANCE
--- =============================================
-
--- Index for querying by log level
-CREATE INDEX IF NOT EXISTS idx_log_entries_level ON LOG_ENTRIES (level);
-
--- Index for querying by timestamp (most common query pattern)
+-- Index for querying by timestamp (used to split the table into day partitions)
 CREATE INDEX IF NOT EXISTS idx_log_entries_timestamp ON LOG_ENTRIES (timestamp);
-
--- Index for querying by logger/class name
-CREATE INDEX IF NOT EXISTS idx_log_entries_logger ON LOG_ENTRIES (logger);
-
--- Composite index for level + timestamp queries
-CREATE INDEX IF NOT EXISTS idx_log_entries_level_timestamp ON LOG_ENTRIES (level, timestamp);
-
--- Index for created_at for maintenance queries
-CREATE INDEX IF NOT EXISTS idx_log_entries_created_at ON LOG_ENTRIES (created_at); 
\ No newline at end of file
@@ -2,6 +2,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.AfterAll;
 import org.ruitx.jaws.utils.JawsLogger;
+import org.ruitx.jaws.utils.LogEntry;
+import org.ruitx.jaws.utils.LogPartitions;
+import org.ruitx.jaws.utils.LogWriter;
 import org.ruitx.jaws.components.freyr.Freyr;
 import org.ruitx.jaws.components.Mimir;
 import org.ruitx.jaws.types.Row;
@@ -10,6 +13,9 @@ import java.io.File;
 import java.sql.DriverManager;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class BatchLoggingTest {
 
@@ -136,6 +142,42 @@ public class BatchLoggingTest {
         System.out.println("✅ Batch flushing behavior test completed");
     }
     
+    @Test
+    public void testBadEntryDoesNotDropBatch() throws Exception {
+        System.out.println("=== Testing Bad Entries In A Batch ===");
+        
+        File dbFile = File.createTempFile("logwriter-test", ".db");
+        dbFile.deleteOnExit();
+        Mimir logsDb = new Mimir(dbFile.getPath());
+        LogPartitions partitions = new LogPartitions(logsDb);
+        LogWriter writer = new LogWriter(logsDb, partitions, null, 1024, 100, 50,
+                                         LogWriter.OverflowPolicy.DROP, 0);
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 10; i++) {
+                // The level column is NOT NULL, the database refuses the entry with none
+                String level = i == 5 ? null : "INFO";
+                writer.offer(new LogEntry(now, level, "BatchLoggingTest", "main", "Entry " + i, null, "test", i));
+            }
+            // An exception without a message, its entry has no message either
+            writer.offer(new LogEntry(now, "ERROR", "BatchLoggingTest", "main", null, "java.lang.RuntimeException", "test", 10));
+            writer.flush(5, TimeUnit.SECONDS);
+            
+            Map<String, Object> stats = writer.getStatistics();
+            System.out.println("Writer stats: " + stats);
+            Row row = logsDb.getRow("SELECT COUNT(*) AS count FROM " + LogPartitions.tableName(LogPartitions.dayOf(now)));
+            int stored = row.getInt("count").orElse(0);
+            
+            assertEquals(10, stored, "Every entry but the refused one should be stored");
+            assertEquals(10L, stats.get("written"));
+            assertEquals(1L, stats.get("dropped"));
+        } finally {
+            writer.shutdown(5, TimeUnit.SECONDS);
+        }
+        
+        System.out.println("✅ A refused entry only drops itself");
+    }
+    
     @Test
     public void testFreyrJobSystemIntegration() {
         System.out.println("=== Testing Freyr Job System Integration ===");
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.utils.CallerLocator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caller capture harness: cost per log call of finding the caller with
+ * Thread.getStackTrace() (the previous JawsLogger code) against CallerLocator
+ * (StackWalker) in OFF, CLASS and FULL modes, from a stack as deep as a
+ * request handled by Jetty and the middleware chain.
+ */
+public class CallerCaptureBenchmarkTest {
+
+    private static final int STACK_DEPTH = 80;
+    private static final int CALLS = 50_000;
+    private static final int WARMUP_CALLS = 20_000;
+
+    @Test
+    public void testLocatesCaller() {
+        CallerLocator locator = new CallerLocator(FakeLogger.class, "CLASS,WARN:FULL,ERROR:OFF");
+
+        assertEquals(CallerLocator.Mode.CLASS, locator.getMode("INFO"));
+        assertEquals(CallerLocator.Mode.FULL, locator.getMode("WARN"));
+        assertEquals(CallerLocator.Mode.OFF, locator.getMode("ERROR"));
+
+        CallerLocator.Caller full = FakeLogger.log(locator, "WARN");
+        assertEquals(CallerCaptureBenchmarkTest.class.getName(), full.className());
+        assertEquals("testLocatesCaller", full.methodName());
+        assertTrue(full.lineNumber() > 0);
+
+        CallerLocator.Caller classOnly = FakeLogger.log(locator, "INFO");
+        assertEquals(CallerCaptureBenchmarkTest.class.getName(), classOnly.className());
+        assertNull(classOnly.methodName());
+
+        assertNull(FakeLogger.log(locator, "ERROR").className());
+        System.out.println("✅ Caller located");
+    }
+
+    @Test
+    public void testCaptureCost() {
+        CallerLocator locator = new CallerLocator(FakeLogger.class, "FULL");
+
+        System.out.println("=== Caller Capture (stack depth " + STACK_DEPTH + ") ===");
+        System.out.printf("%-22s %12s%n", "capture", "ns/call");
+
+        // Warm up every path so the JIT doesn't favour whichever runs last
+        for (String name : new String[] {"getStackTrace", "OFF", "CLASS", "FULL"}) {
+            measure(name, locator, WARMUP_CALLS);
+        }
+
+        double stackTrace = measure("getStackTrace", locator, CALLS);
+        double off = measure("OFF", locator, CALLS);
+        double classOnly = measure("CLASS", locator, CALLS);
+        double full = measure("FULL", locator, CALLS);
+        System.out.printf("%-22s %12.0f%n", "Thread.getStackTrace", stackTrace);
+        System.out.printf("%-22s %12.0f%n", "StackWalker OFF", off);
+        System.out.printf("%-22s %12.0f%n", "StackWalker CLASS", classOnly);
+        System.out.printf("%-22s %12.0f%n", "StackWalker FULL", full);
+
+        assertTrue(full < stackTrace, "StackWalker should be cheaper than a full stack trace");
+        System.out.println("✅ Caller capture harness completed");
+    }
+
+    private double measure(String name, CallerLocator locator, int calls) {
+        return deep(STACK_DEPTH, () -> {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                CallerLocator.Caller caller = switch (name) {
+                    case "getStackTrace" -> FakeLogger.logWithStackTrace();
+                    case "OFF" -> FakeLogger.log(locator, CallerLocator.Mode.OFF);
+                    case "CLASS" -> FakeLogger.log(locator, CallerLocator.Mode.CLASS);
+                    default -> FakeLogger.log(locator, CallerLocator.Mode.FULL);
+                };
+                sink += caller.lineNumber();
+            }
+            long elapsed = System.nanoTime() - start;
+            return sink >= 0 ? (double) elapsed / calls : -1;
+        });
+    }
+
+    private double deep(int depth, java.util.function.DoubleSupplier action) {
+        return depth == 0 ? action.getAsDouble() : deep(depth - 1, action);
+    }
+
+    /**
+     * Stands in for JawsLogger, its frames are skipped when looking for the caller
+     */
+    private static class FakeLogger {
+
+        static CallerLocator.Caller log(CallerLocator locator, String level) {
+            return locator.locate(level);
+        }
+
+        static CallerLocator.Caller log(CallerLocator locator, CallerLocator.Mode mode) {
+            return locator.locate(mode);
+        }
+
+        // What JawsLogger did before CallerLocator
+        static CallerLocator.Caller logWithStackTrace() {
+            StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+            for (int i = 2; i < stackTrace.length; i++) {
+                StackTraceElement element = stackTrace[i];
+                if (!element.getClassName().equals(FakeLogger.class.getName())) {
+                    return new CallerLocator.Caller(element.getClassName(), element.getMethodName(), element.getLineNumber());
+                }
+            }
+            return CallerLocator.Caller.UNKNOWN;
+        }
+    }
+}
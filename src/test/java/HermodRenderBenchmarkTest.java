@@ -0,0 +1,195 @@
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.components.Hermod;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Backoffice render harness: pages per second and bytes allocated per page for
+ * <ul>
+ *   <li>the previous Hermod path: a JakartaServletWebApplication built on every render,
+ *       the page rendered into a String, "\n\n" appended and the result written out</li>
+ *   <li>the same String path with the web application built once</li>
+ *   <li>the page rendered straight into the response writer</li>
+ * </ul>
+ * Rendering runs against mocked servlet objects, the numbers are Thymeleaf and Hermod only.
+ */
+public class HermodRenderBenchmarkTest {
+
+    private static final String BASE_PAGE = "backoffice/index.html";
+    private static final String[] PAGES = {
+        "backoffice/partials/dashboard.html",
+        "backoffice/partials/users.html",
+        "backoffice/partials/logs.html",
+        "backoffice/partials/roles.html"
+    };
+    private static final int RENDERS = 1_000;
+    private static final int WARMUP_RENDERS = 500;
+
+    private static ServletContext servletContext;
+    private static HttpServletRequest request;
+    private static HttpServletResponse response;
+    private static CountingWriter sink;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        servletContext = mock(ServletContext.class);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        sink = new CountingWriter();
+
+        when(request.getServletContext()).thenReturn(servletContext);
+        when(request.getContextPath()).thenReturn("");
+        when(request.getRequestURI()).thenReturn("/backoffice");
+        when(request.getMethod()).thenReturn("GET");
+        // Thymeleaf keeps the template variables in the request attributes
+        Map<String, Object> attributes = new HashMap<>();
+        when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        when(request.getAttributeNames()).thenAnswer(invocation -> Collections.enumeration(new ArrayList<>(attributes.keySet())));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(request).setAttribute(anyString(), any());
+        doAnswer(invocation -> attributes.remove(invocation.<String>getArgument(0)))
+            .when(request).removeAttribute(anyString());
+        when(response.encodeURL(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(response.getWriter()).thenReturn(new PrintWriter(sink));
+    }
+
+    @Test
+    public void testStreamedPageMatchesString() throws IOException {
+        for (String page : PAGES) {
+            setPageVariables(page);
+            String rendered = Hermod.assemblePage(BASE_PAGE, page, request, response);
+
+            StringWriter streamed = new StringWriter();
+            Hermod.assemblePage(BASE_PAGE, page, request, response, streamed);
+
+            assertTrue(rendered.length() > 10_000, "The backoffice page should render: " + page);
+            assertEquals(rendered, streamed.toString(), "Streaming should render the same page: " + page);
+        }
+        System.out.println("✅ Streamed pages match the rendered Strings");
+    }
+
+    @Test
+    public void testRenderThroughput() throws IOException {
+        System.out.println("=== Backoffice Page Renders (" + PAGES.length + " pages, " + RENDERS + " renders each) ===");
+        System.out.printf("%-34s %14s %16s%n", "path", "pages/s", "KB alloc/page");
+
+        // Warm up every path so the JIT doesn't favour whichever runs last
+        for (Mode mode : Mode.values()) {
+            measure(mode, WARMUP_RENDERS);
+        }
+
+        double[] previous = measure(Mode.BUILD_APPLICATION_STRING, RENDERS);
+        double[] string = measure(Mode.STRING, RENDERS);
+        double[] streamed = measure(Mode.STREAMED, RENDERS);
+        print("app per render + String (before)", previous);
+        print("cached app + String", string);
+        print("cached app + streamed (now)", streamed);
+        System.out.printf("average page: %.1f KB%n", sink.written / 1024.0 / (3 * RENDERS + 3 * WARMUP_RENDERS));
+
+        assertTrue(streamed[1] < previous[1], "Streaming should allocate less per page than the previous path");
+        System.out.println("✅ Render harness completed");
+    }
+
+    private enum Mode {
+        BUILD_APPLICATION_STRING, STRING, STREAMED
+    }
+
+    /**
+     * @return {pages per second, bytes allocated per page}
+     */
+    private double[] measure(Mode mode, int renders) throws IOException {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < renders; i++) {
+            String page = PAGES[i % PAGES.length];
+            setPageVariables(page);
+            PrintWriter writer = response.getWriter();
+            switch (mode) {
+                case BUILD_APPLICATION_STRING -> {
+                    // What every render paid before the application was cached
+                    JakartaServletWebApplication.buildApplication(servletContext);
+                    String html = Hermod.assemblePage(BASE_PAGE, page, request, response);
+                    html += "\n\n";
+                    writer.write(html);
+                }
+                case STRING -> {
+                    String html = Hermod.assemblePage(BASE_PAGE, page, request, response);
+                    html += "\n\n";
+                    writer.write(html);
+                }
+                case STREAMED -> {
+                    Hermod.assemblePage(BASE_PAGE, page, request, response, writer);
+                    writer.write("\n\n");
+                }
+            }
+            writer.flush();
+            Hermod.clearTemplateVariables();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new double[]{renders * 1e9 / elapsed, (double) allocated / renders};
+    }
+
+    private static void setPageVariables(String page) {
+        Hermod.setTemplateVariable("currentUser", "admin");
+        Hermod.setTemplateVariable("userId", "1");
+        Hermod.setTemplateVariable("profilePicture", "/backoffice/images/avatar.png");
+        Hermod.setTemplateVariable("canAccessRoles", "true");
+        Hermod.setTemplateVariable("currentPage", page.substring(page.lastIndexOf('/') + 1, page.indexOf('.')));
+    }
+
+    private static void print(String name, double[] result) {
+        System.out.printf("%-34s %14.0f %16.1f%n", name, result[0], result[1] / 1024);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Stands in for the connection: counts what is written and drops it
+     */
+    private static final class CountingWriter extends Writer {
+        private long written = 0;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            written += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            written += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.types.Row;
+import org.ruitx.jaws.utils.LogArchive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogArchiveTest {
+
+    private static final long DAY = 20000;
+    private static final long START = DAY * 86_400_000L;
+    private static final int ENTRIES = 10_000; // more than one block (4096 entries)
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL", null};
+
+    private Path directory;
+    private LogArchive archive;
+    private List<Row> written;
+
+    @BeforeEach
+    public void writeDay() throws IOException {
+        directory = Files.createTempDirectory("log-archive-test");
+        archive = new LogArchive(directory.toString());
+        written = new ArrayList<>();
+        for (int id = 1; id <= ENTRIES; id++) {
+            written.add(entry(id));
+        }
+
+        long archived = archive.write(DAY, (afterId, limit) -> written.stream()
+            .filter(row -> row.getLong("id").orElse(0L) > afterId)
+            .limit(limit)
+            .toList());
+
+        assertEquals(ENTRIES, archived);
+        assertTrue(archive.contains(DAY));
+        assertEquals(List.of(DAY), archive.listDays());
+    }
+
+    @AfterEach
+    public void deleteArchive() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testFindEntryRoundTrip() {
+        for (long id : new long[]{1, 4096, 4097, 7777, ENTRIES}) {
+            Row original = written.get((int) id - 1);
+            Row found = archive.findEntry(DAY, id);
+            assertNotNull(found, "entry " + id + " should be archived");
+            assertEquals("20241004-" + id, found.getString("entry_id").orElse(null));
+            for (String column : new String[]{"id", "timestamp", "created_at", "line"}) {
+                assertEquals(original.getLong(column), found.getLong(column), column + " of entry " + id);
+            }
+            for (String column : new String[]{"level", "logger", "thread", "method", "message", "exception"}) {
+                assertEquals(original.getString(column), found.getString(column), column + " of entry " + id);
+            }
+        }
+        assertNull(archive.findEntry(DAY, ENTRIES + 1));
+        assertNull(archive.findEntry(DAY + 1, 1));
+
+        System.out.println("✅ findEntry returns archived entries unchanged, across blocks");
+    }
+
+    @Test
+    public void testNullAndEmptyStringsSurvive() {
+        // id % 3: 0 = null, 1 = empty, 2 = text
+        for (long id = 1; id <= 6; id++) {
+            Row found = archive.findEntry(DAY, id);
+            String expected = id % 3 == 0 ? null : id % 3 == 1 ? "" : "boom " + id;
+            assertEquals(expected, found.getString("exception").orElse(null), "exception of entry " + id);
+            assertEquals(expected, found.getString("method").orElse(null), "method of entry " + id);
+        }
+
+        System.out.println("✅ Null and empty strings are kept apart");
+    }
+
+    @Test
+    public void testFindEntriesFilters() {
+        long from = START + 3000 * 1000L;
+        long to = START + 6000 * 1000L;
+        List<Row> inRange = archive.findEntries(DAY, from, to, null, null, null, Integer.MAX_VALUE);
+        assertEquals(3001, inRange.size());
+        assertTrue(inRange.stream().allMatch(row -> {
+            long timestamp = row.getLong("timestamp").orElse(0L);
+            return timestamp >= from && timestamp <= to;
+        }));
+
+        for (String level : LEVELS) {
+            if (level == null) {
+                continue;
+            }
+            List<Row> found = archive.findEntries(DAY, Long.MIN_VALUE, Long.MAX_VALUE, level, null, null, Integer.MAX_VALUE);
+            long expected = written.stream().filter(row -> level.equals(row.getString("level").orElse(null))).count();
+            assertEquals(expected, found.size(), "entries at level " + level);
+            assertTrue(found.stream().allMatch(row -> level.equals(row.getString("level").orElse(null))));
+        }
+        assertTrue(archive.findEntries(DAY, Long.MIN_VALUE, Long.MAX_VALUE, "NOTICE", null, null, 10).isEmpty());
+
+        List<Row> byLogger = archive.findEntries(DAY, Long.MIN_VALUE, Long.MAX_VALUE, null, "freyr", null, Integer.MAX_VALUE);
+        assertEquals(ENTRIES / 4, byLogger.size());
+        assertTrue(byLogger.stream().allMatch(row -> row.getString("logger").orElse("").contains("Freyr")));
+
+        List<Row> combined = archive.findEntries(DAY, from, to, "ERROR", "freyr", null, Integer.MAX_VALUE);
+        long expected = written.stream().filter(row -> {
+            long timestamp = row.getLong("timestamp").orElse(0L);
+            return timestamp >= from && timestamp <= to
+                && "ERROR".equals(row.getString("level").orElse(null))
+                && row.getString("logger").orElse("").contains("Freyr");
+        }).count();
+        assertEquals(expected, combined.size());
+
+        System.out.println("✅ findEntries filters by time, level (including unknown levels) and logger");
+    }
+
+    @Test
+    public void testFindEntriesLimitAcrossBlocks() {
+        int limit = 5000;
+        List<Row> newest = archive.findEntries(DAY, Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, limit);
+        assertEquals(limit, newest.size());
+        for (int i = 0; i < limit; i++) {
+            assertEquals(ENTRIES - i, newest.get(i).getLong("id").orElse(0L), "entry " + i + " newest first");
+        }
+
+        List<Row> matching = archive.findEntries(DAY, Long.MIN_VALUE, Long.MAX_VALUE, null, null,
+                                                 row -> row.getString("message").orElse("").endsWith("7"), 600);
+        assertEquals(600, matching.size());
+        assertEquals(9997, matching.get(0).getLong("id").orElse(0L));
+        assertEquals(4007, matching.get(599).getLong("id").orElse(0L));
+
+        System.out.println("✅ findEntries keeps the newest entries up to the limit across blocks");
+    }
+
+    private static Row entry(long id) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", id);
+        data.put("timestamp", START + id * 1000);
+        data.put("created_at", START + id * 1000 + 5);
+        data.put("level", LEVELS[(int) (id % LEVELS.length)]);
+        data.put("logger", id % 4 == 0 ? "org.ruitx.jaws.components.freyr.Freyr" : "org.ruitx.jaws.components.Odin");
+        data.put("thread", "worker-" + (id % 8));
+        data.put("method", id % 3 == 0 ? null : id % 3 == 1 ? "" : "boom " + id);
+        data.put("line", id % 500);
+        data.put("message", "Message " + id);
+        data.put("exception", id % 3 == 0 ? null : id % 3 == 1 ? "" : "boom " + id);
+        return new Row(data);
+    }
+}
@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.components.freyr.PayloadCodec;
+import org.ruitx.jaws.components.freyr.PayloadCodecs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload codec harness: stored size and encode/decode time of a BatchLogWriterJob
+ * payload (1000 log entries) for JSON and BINARY, with and without compression.
+ */
+public class PayloadCodecBenchmarkTest {
+
+    private static final int LOG_ENTRIES = 1000;
+    private static final int ITERATIONS = 200;
+    private static final int WARMUP_ITERATIONS = 100;
+
+    @Test
+    public void testRoundTripKeepsValues() throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("int", 42);
+        payload.put("negative", -7);
+        payload.put("long", 1_700_000_000_000L);
+        payload.put("double", 3.25);
+        payload.put("flag", true);
+        payload.put("missing", null);
+        payload.put("text", "héllo wörld");
+        payload.put("list", List.of("a", "b", "a", 1, 2L));
+        payload.put("nested", Map.of("text", "héllo wörld", "list", List.of()));
+
+        for (PayloadCodec codec : List.of(PayloadCodecs.JSON, PayloadCodecs.BINARY)) {
+            for (int threshold : new int[] {0, 1}) {
+                Object stored = PayloadCodecs.encode(payload, codec, threshold);
+                Map<String, Object> decoded = PayloadCodecs.decode(stored);
+                assertEquals("héllo wörld", decoded.get("text"));
+                assertEquals(3.25, decoded.get("double"));
+                assertEquals(true, decoded.get("flag"));
+                assertTrue(decoded.containsKey("missing"));
+                assertEquals(payload.get("nested"), decoded.get("nested"));
+                decoded.put("mutable", 1);
+            }
+        }
+
+        // Only the binary codec keeps the integer types
+        Map<String, Object> decoded = PayloadCodecs.decode(PayloadCodecs.encode(payload, PayloadCodecs.BINARY, 0));
+        assertEquals(payload, decoded);
+        assertInstanceOf(Integer.class, decoded.get("int"));
+        assertInstanceOf(Long.class, decoded.get("long"));
+
+        // Rows written before codecs existed are plain JSON text
+        assertEquals(42, PayloadCodecs.decode("{\"int\":42}").get("int"));
+        assertTrue(PayloadCodecs.decode(null).isEmpty());
+
+        System.out.println("✅ Payload codecs round trip");
+    }
+
+    @Test
+    public void testLogBatchPayload() throws Exception {
+        Map<String, Object> payload = logBatchPayload();
+
+        System.out.println("=== Payload Codecs (" + LOG_ENTRIES + " log entries) ===");
+        System.out.printf("%-16s %12s %14s %14s%n", "codec", "stored bytes", "encode us/op", "decode us/op");
+
+        // Warm up every path so the JIT doesn't favour whichever runs last
+        for (PayloadCodec codec : List.of(PayloadCodecs.JSON, PayloadCodecs.BINARY)) {
+            for (int threshold : new int[] {0, 4096}) {
+                measure(payload, codec, threshold, WARMUP_ITERATIONS);
+            }
+        }
+
+        long jsonSize = 0;
+        long binarySize = 0;
+        for (PayloadCodec codec : List.of(PayloadCodecs.JSON, PayloadCodecs.BINARY)) {
+            for (int threshold : new int[] {0, 4096}) {
+                long[] result = measure(payload, codec, threshold, ITERATIONS);
+                String name = codec.getName() + (threshold > 0 ? "+deflate" : "");
+                System.out.printf("%-16s %12d %14.1f %14.1f%n", name, result[0], result[1] / 1000.0, result[2] / 1000.0);
+                if (threshold == 0) {
+                    if (codec == PayloadCodecs.JSON) {
+                        jsonSize = result[0];
+                    } else {
+                        binarySize = result[0];
+                    }
+                }
+            }
+        }
+
+        assertTrue(binarySize < jsonSize, "The binary codec should store less than JSON");
+        System.out.println("✅ Payload codec harness completed");
+    }
+
+    /**
+     * @return stored size, mean encode and decode nanos per operation
+     */
+    private long[] measure(Map<String, Object> payload, PayloadCodec codec, int threshold, int iterations) throws Exception {
+        Object stored = null;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            stored = PayloadCodecs.encode(payload, codec, threshold);
+            long encoded = System.nanoTime();
+            Map<String, Object> decoded = PayloadCodecs.decode(stored);
+            decodeNanos += System.nanoTime() - encoded;
+            encodeNanos += encoded - start;
+            assertEquals(LOG_ENTRIES, ((List<?>) decoded.get("logEntries")).size());
+        }
+        long size = stored instanceof String text ? text.getBytes(StandardCharsets.UTF_8).length : ((byte[]) stored).length;
+        return new long[] {size, encodeNanos / iterations, decodeNanos / iterations};
+    }
+
+    // Same shape as the payload JawsLogger submits
+    private Map<String, Object> logBatchPayload() {
+        String[] levels = {"INFO", "DEBUG", "WARN", "ERROR"};
+        String[] loggers = {"org.ruitx.jaws.components.Yggdrasill", "org.ruitx.jaws.components.freyr.Freyr",
+                            "org.ruitx.www.controller.JobController", "org.ruitx.jaws.components.Mimir"};
+        long timestamp = 1_700_000_000_000L;
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (int i = 0; i < LOG_ENTRIES; i++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("timestamp", timestamp + i * 3L);
+            entry.put("level", levels[i % levels.length]);
+            entry.put("logger", loggers[i % loggers.length]);
+            entry.put("thread", "worker-" + (i % 8));
+            entry.put("message", "Request " + i + " handled in " + (i % 250) + "ms for /api/jobs/" + (i * 7919 % 10007));
+            entry.put("exception", i % 50 == 0 ? "java.io.IOException: Connection reset\n\tat Example.run(Example.java:42)" : null);
+            entry.put("method", "handle");
+            entry.put("lineNumber", 100 + i % 40);
+            entries.add(entry);
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("logEntries", entries);
+        return payload;
+    }
+}
@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.components.freyr.AdmissionPolicy;
+import org.ruitx.jaws.components.freyr.BaseJob;
+import org.ruitx.jaws.components.freyr.WorkerPool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates sustained high priority load on a WorkerPool and checks that
+ * low priority jobs still get to run within a bounded wait thanks to priority aging,
+ * while the same load on a strict priority pool starves them.
+ */
+public class WorkerPoolSchedulingTest {
+
+    private static final int WORKERS = 2;
+    private static final long AGING_MS = 20;
+    private static final long LOAD_DURATION_MS = 2500;
+    private static final long LOW_PRIORITY_INTERVAL_MS = 50;
+    private static final int HIGH_PRIORITY_BACKLOG = 200;
+    // Aging brings a low priority job to the front in about 100ms, the rest is margin for busy machines
+    private static final long MAX_ALLOWED_WAIT_MS = 1500;
+
+    @Test
+    public void testLowPriorityWaitIsBoundedWithAging() throws Exception {
+        System.out.println("=== Testing Priority Aging Under Sustained Load ===");
+
+        SimulationResult aging = simulate(AGING_MS);
+        System.out.println("Aging (" + AGING_MS + "ms/level): " + aging);
+
+        SimulationResult strict = simulate(0);
+        System.out.println("Strict priority: " + strict);
+
+        assertTrue(aging.lowSubmitted > 0, "Simulation should submit low priority jobs");
+        assertEquals(0, aging.lowStarved, "No low priority job should wait until the load stops");
+        assertTrue(aging.maxLowWaitMs < MAX_ALLOWED_WAIT_MS,
+            "Low priority wait should be bounded, max was " + aging.maxLowWaitMs + "ms");
+
+        // Without aging the same load keeps low priority jobs waiting until it stops
+        assertTrue(strict.lowStarved > 0, "Strict priority should starve low priority jobs under load");
+        assertTrue(strict.maxLowWaitMs >= MAX_ALLOWED_WAIT_MS,
+            "Strict priority should exceed the aging bound, max was " + strict.maxLowWaitMs + "ms");
+
+        System.out.println("✅ Low priority wait stays bounded under sustained high priority load, and only with aging");
+    }
+
+    private SimulationResult simulate(long agingMs) throws Exception {
+        WorkerPool pool = new WorkerPool("sim", WORKERS, WorkerPool.ThreadType.PLATFORM,
+                                         100_000, AdmissionPolicy.REJECT, 0, agingMs);
+
+        Map<String, Long> lowSubmittedAt = new ConcurrentHashMap<>();
+        Map<String, Long> lowStartedAt = new ConcurrentHashMap<>();
+
+        pool.start(job -> {
+            if (job.getPriority() > 1) {
+                lowStartedAt.put(job.getId(), System.currentTimeMillis());
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        });
+
+        // Keep a backlog of high priority jobs for the whole load period
+        AtomicBoolean loading = new AtomicBoolean(true);
+        Thread producer = new Thread(() -> {
+            while (loading.get()) {
+                while (pool.getQueueSize() < HIGH_PRIORITY_BACKLOG) {
+                    pool.submit(new SimJob(1));
+                }
+                // The backlog lasts far longer than this, no need to spin on a core the workers could use
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }, "sim-producer");
+        producer.start();
+
+        long loadEnd = System.currentTimeMillis() + LOAD_DURATION_MS;
+        while (System.currentTimeMillis() < loadEnd) {
+            SimJob lowJob = new SimJob(5);
+            lowSubmittedAt.put(lowJob.getId(), System.currentTimeMillis());
+            pool.submit(lowJob);
+            Thread.sleep(LOW_PRIORITY_INTERVAL_MS);
+        }
+        long loadStoppedAt = System.currentTimeMillis();
+        loading.set(false);
+        producer.join();
+
+        // Let the queue drain so every low priority job eventually runs
+        long drainDeadline = System.currentTimeMillis() + 10_000;
+        while (lowStartedAt.size() < lowSubmittedAt.size() && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        pool.shutdown(5, TimeUnit.SECONDS);
+
+        SimulationResult result = new SimulationResult();
+        result.lowSubmitted = lowSubmittedAt.size();
+        for (Map.Entry<String, Long> entry : lowSubmittedAt.entrySet()) {
+            Long startedAt = lowStartedAt.get(entry.getKey());
+            // Starved: had the full allowed wait while the load was still running and never started
+            boolean hadTimeToRun = entry.getValue() + MAX_ALLOWED_WAIT_MS <= loadStoppedAt;
+            if (hadTimeToRun && (startedAt == null || startedAt >= loadStoppedAt)) {
+                result.lowStarved++;
+            }
+            if (startedAt != null) {
+                result.maxLowWaitMs = Math.max(result.maxLowWaitMs, startedAt - entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static class SimulationResult {
+        int lowSubmitted;
+        int lowStarved;
+        long maxLowWaitMs;
+
+        @Override
+        public String toString() {
+            return String.format("low priority submitted=%d, starved while under load=%d, max wait=%dms",
+                                 lowSubmitted, lowStarved, maxLowWaitMs);
+        }
+    }
+
+    private static class SimJob extends BaseJob {
+        SimJob(int priority) {
+            super("sim", priority, 0, 1000L, Map.of());
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+import org.ruitx.jaws.components.freyr.AdmissionPolicy;
+import org.ruitx.jaws.components.freyr.BaseJob;
+import org.ruitx.jaws.components.freyr.WorkerPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput harness for WorkerPool dispatch: jobs/sec for short jobs at
+ * 1, 4, 16 and 64 workers, SHARED (single heap) against STEALING (heap per worker).
+ */
+public class WorkerPoolThroughputTest {
+
+    private static final int[] WORKER_COUNTS = {1, 4, 16, 64};
+    private static final int PRODUCERS = 4;
+    private static final int JOBS_PER_RUN = 100_000;
+    private static final int WARMUP_JOBS = 20_000;
+
+    @Test
+    public void testDispatchThroughput() throws Exception {
+        System.out.println("=== WorkerPool Dispatch Throughput ===");
+        System.out.printf("%-8s %15s %15s%n", "workers", "SHARED jobs/s", "STEALING jobs/s");
+
+        // Warm up both paths so the JIT doesn't favour whichever runs last
+        run(WorkerPool.DispatchMode.SHARED, 4, WARMUP_JOBS);
+        run(WorkerPool.DispatchMode.STEALING, 4, WARMUP_JOBS);
+
+        for (int workers : WORKER_COUNTS) {
+            double shared = run(WorkerPool.DispatchMode.SHARED, workers, JOBS_PER_RUN);
+            double stealing = run(WorkerPool.DispatchMode.STEALING, workers, JOBS_PER_RUN);
+            System.out.printf("%-8d %15.0f %15.0f%n", workers, shared, stealing);
+
+            assertTrue(shared > 0 && stealing > 0, "Every job should complete");
+        }
+
+        System.out.println("✅ Throughput harness completed");
+    }
+
+    private double run(WorkerPool.DispatchMode mode, int workers, int jobCount) throws Exception {
+        WorkerPool pool = new WorkerPool("bench", workers, WorkerPool.ThreadType.PLATFORM,
+                                         jobCount, AdmissionPolicy.REJECT, 0, 1000, mode);
+
+        // Build the jobs up front so only dispatch is measured
+        List<List<BenchJob>> batches = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            List<BenchJob> batch = new ArrayList<>();
+            for (int i = p; i < jobCount; i += PRODUCERS) {
+                batch.add(new BenchJob(1 + (i % 10)));
+            }
+            batches.add(batch);
+        }
+
+        CountDownLatch done = new CountDownLatch(jobCount);
+        pool.start(job -> {
+            ((BenchJob) job).work();
+            done.countDown();
+            return true;
+        });
+
+        long start = System.nanoTime();
+        List<Thread> producers = new ArrayList<>();
+        for (List<BenchJob> batch : batches) {
+            Thread producer = new Thread(() -> batch.forEach(pool::submit), "bench-producer");
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        boolean completed = done.await(120, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        pool.shutdown(5, TimeUnit.SECONDS);
+        if (!completed) {
+            return 0;
+        }
+        return jobCount / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private static class BenchJob extends BaseJob {
+        private static volatile long sink;
+
+        BenchJob(int priority) {
+            super("bench", priority, 0, 1000L, Map.of());
+        }
+
+        // A few microseconds of CPU, short enough for dispatch to dominate
+        void work() {
+            long acc = 0;
+            for (int i = 0; i < 200; i++) {
+                acc += i * 31L ^ acc;
+            }
+            sink = acc;
+        }
+
+        @Override
+        public void execute() {
+            work();
+        }
+    }
+}